@@ -0,0 +1,74 @@
+package io.yamlrt;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read scaling of ConcurrentYamlrt (optimistic reads) vs a synchronized Yamlrt
+ *
+ * Compare thread counts with JMH's -t option, e.g.:
+ *   gradle jmh -PjmhArgs="ConcurrentReadBenchmark -t 1"
+ *   gradle jmh -PjmhArgs="ConcurrentReadBenchmark -t 8"
+ *
+ * The readWithWriter group runs readers next to one writer calling set().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentReadBenchmark {
+
+    private static final String CONFIG = """
+server:
+  host: localhost
+  port: 8080
+Services:
+- ServiceName: 1A1
+  Airline:
+  - 7C
+  - AC
+""";
+
+    private ConcurrentYamlrt concurrent;
+    private Yamlrt synchronizedYaml;
+
+    @Setup
+    public void setup() {
+        concurrent = ConcurrentYamlrt.load(CONFIG);
+        synchronizedYaml = Yamlrt.load(CONFIG);
+    }
+
+    @Benchmark
+    public void optimisticReads(Blackhole bh) {
+        bh.consume(concurrent.getInt("server.port"));
+        bh.consume(concurrent.getString("Services[0].Airline[1]"));
+    }
+
+    @Benchmark
+    public void synchronizedReads(Blackhole bh) {
+        synchronized (synchronizedYaml) {
+            bh.consume(synchronizedYaml.getInt("server.port"));
+        }
+        synchronized (synchronizedYaml) {
+            bh.consume(synchronizedYaml.getString("Services[0].Airline[1]"));
+        }
+    }
+
+    @Benchmark
+    @Group("readWithWriter")
+    @GroupThreads(7)
+    public int readers() {
+        return concurrent.getInt("server.port");
+    }
+
+    @Benchmark
+    @Group("readWithWriter")
+    @GroupThreads(1)
+    public void writer() {
+        concurrent.set("server.port", 8080);
+    }
+}
@@ -0,0 +1,70 @@
+package io.yamlrt;
+
+import io.yamlrt.core.CommentedMap;
+import io.yamlrt.core.YamlNodes;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Structural diff of two separately parsed ~100k-node documents
+ *
+ * - diffAfterEdit: subtree hashes are cached, only the edited path is rehashed
+ * - diffCold: fresh copies, so both trees are hashed in full first
+ *
+ * Run: gradle jmh -PjmhArgs="DiffBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffBenchmark {
+
+    @Param({"15000"})
+    public int services;
+
+    private CommentedMap<String, Object> before;
+    private Yamlrt after;
+    private CommentedMap<String, Object> coldBefore;
+    private CommentedMap<String, Object> coldAfter;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("server:\n");
+        sb.append("  host: localhost    # bind address\n");
+        sb.append("  port: 8080\n");
+        sb.append("Services:\n");
+        for (int i = 0; i < services; i++) {
+            sb.append("- ServiceName: S").append(i).append("   # service ").append(i).append('\n');
+            sb.append("  Weight: ").append(i * 0.5).append('\n');
+            sb.append("  Routes:\n");
+            sb.append("  - ICN\n");
+            sb.append("  - NRT\n");
+        }
+        before = Yamlrt.load(sb.toString()).getRoot();
+        after = Yamlrt.load(sb.toString());
+    }
+
+    @Setup(Level.Invocation)
+    @SuppressWarnings("unchecked")
+    public void copies() {
+        coldBefore = (CommentedMap<String, Object>) YamlNodes.deepCopy(before);
+        coldAfter = (CommentedMap<String, Object>) YamlNodes.deepCopy(after.getRoot());
+    }
+
+    @Benchmark
+    public List<YamlDiff.Change> diffAfterEdit() {
+        after.set("Services[" + services / 2 + "].Weight", counter++);
+        return YamlDiff.diff(before, after.getRoot());
+    }
+
+    @Benchmark
+    public List<YamlDiff.Change> diffCold() {
+        return YamlDiff.diff(coldBefore, coldAfter);
+    }
+}
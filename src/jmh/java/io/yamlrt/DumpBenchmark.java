@@ -0,0 +1,90 @@
+package io.yamlrt;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering cost of dump() / dumpBytes() / dump(OutputStream) / contentHash() on a mid-sized commented document
+ * (unchanged document: served from the dump cache; dumpAfterEdit: one dirty section)
+ *
+ * Run: gradle jmh -PjmhArgs="DumpBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DumpBenchmark {
+
+    @Param({"50"})
+    public int services;
+
+    private Yamlrt yaml;
+    private long counter;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Generated config\n");
+        sb.append("server:\n");
+        sb.append("  host: localhost    # bind address\n");
+        sb.append("  port: 8080         # listen port\n");
+        sb.append("  tags: [a, b, \"c,d\"] # flow\n");
+        sb.append("Services:\n");
+        for (int i = 0; i < services; i++) {
+            sb.append("\n# service ").append(i).append('\n');
+            sb.append("- ServiceName: S").append(i).append('\n');
+            sb.append("  Description: \"needs: quoting #").append(i).append("\"\n");
+            sb.append("  Airline: [7C, AC, KE]   # carriers\n");
+            sb.append("  Weight: ").append(i * 0.5).append('\n');
+            sb.append("  Routes:\n");
+            sb.append("  - ICN\n");
+            sb.append("  - NRT\n");
+        }
+        yaml = Yamlrt.load(sb.toString());
+    }
+
+    @Benchmark
+    public String dumpString() {
+        return yaml.dump();
+    }
+
+    @Benchmark
+    public String dumpAfterEdit() {
+        yaml.set("server.port", counter++);
+        return yaml.dump();
+    }
+
+    @Benchmark
+    public byte[] encodeAfterEdit() {
+        yaml.set("server.port", counter++);
+        return yaml.dump().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] dumpBytesAfterEdit() {
+        yaml.set("server.port", counter++);
+        return yaml.dumpBytes();
+    }
+
+    @Benchmark
+    public String contentHash() {
+        return yaml.contentHash();
+    }
+
+    @Benchmark
+    public long treeHashAfterEdit() {
+        yaml.set("server.port", counter++);
+        return yaml.treeHash();
+    }
+
+    @Benchmark
+    public void dumpStream() throws IOException {
+        yaml.dump(OutputStream.nullOutputStream());
+    }
+}
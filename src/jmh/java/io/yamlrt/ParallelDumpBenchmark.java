@@ -0,0 +1,64 @@
+package io.yamlrt;
+
+import io.yamlrt.core.CommentedList;
+import io.yamlrt.core.CommentedMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential vs parallel rendering of a multi-MB document (every section dirty)
+ *
+ * Run: gradle jmh -PjmhArgs="ParallelDumpBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelDumpBenchmark {
+
+    @Param({"32"})
+    public int sections;
+
+    @Param({"2000"})
+    public int items;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Yamlrt yaml;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sections; i++) {
+            sb.append("\n# section ").append(i).append('\n');
+            sb.append("section").append(i).append(":\n");
+            for (int j = 0; j < items; j++) {
+                sb.append("- Name: \"item-").append(j).append("\"   # item\n");
+                sb.append("  Weight: ").append(j * 0.25).append('\n');
+                sb.append("  Tags: [a, b, c]\n");
+            }
+        }
+        yaml = Yamlrt.load(sb.toString());
+        yaml.setParallelDump(parallel);
+    }
+
+    /**
+     * Defeat the dump cache: every section is rendered again
+     */
+    @Setup(Level.Invocation)
+    public void touch() {
+        for (Object value : yaml.getRoot().values()) {
+            if (value instanceof CommentedMap) ((CommentedMap<?, ?>) value).markDirty();
+            if (value instanceof CommentedList) ((CommentedList<?>) value).markDirty();
+        }
+    }
+
+    @Benchmark
+    public String dump() {
+        return yaml.dump();
+    }
+}
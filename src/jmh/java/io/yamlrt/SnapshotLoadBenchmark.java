@@ -0,0 +1,74 @@
+package io.yamlrt;
+
+import io.yamlrt.core.BinarySnapshot;
+import io.yamlrt.core.CommentedMap;
+import io.yamlrt.core.MappedSnapshot;
+import io.yamlrt.core.YamlPath;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a commented document from YAML text vs from a binary snapshot,
+ * and reading one value from a random-access (mapped) snapshot without loading
+ *
+ * Run: gradle jmh -PjmhArgs="SnapshotLoadBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotLoadBenchmark {
+
+    @Param({"500"})
+    public int services;
+
+    private String text;
+    private byte[] snapshot;
+    private ByteBuffer mapped;
+    private final List<Object> path = YamlPath.parse("Services[250].Routes[1]");
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# Generated config\n");
+        sb.append("server:\n");
+        sb.append("  host: localhost    # bind address\n");
+        sb.append("  port: 8080         # listen port\n");
+        sb.append("  tags: [a, b, \"c,d\"] # flow\n");
+        sb.append("Services:\n");
+        for (int i = 0; i < services; i++) {
+            sb.append("\n# service ").append(i).append('\n');
+            sb.append("- ServiceName: S").append(i).append('\n');
+            sb.append("  Description: \"needs: quoting #").append(i).append("\"\n");
+            sb.append("  Airline: [7C, AC, KE]   # carriers\n");
+            sb.append("  Weight: ").append(i * 0.5).append('\n');
+            sb.append("  Routes:\n");
+            sb.append("  - ICN\n");
+            sb.append("  - NRT\n");
+        }
+        text = sb.toString();
+        snapshot = BinarySnapshot.toBytes(Yamlrt.load(text).getRoot());
+        mapped = ByteBuffer.wrap(MappedSnapshot.toBytes(Yamlrt.load(text).getRoot()));
+    }
+
+    @Benchmark
+    public Yamlrt parseText() {
+        return Yamlrt.load(text);
+    }
+
+    @Benchmark
+    public CommentedMap<String, Object> readSnapshot() throws IOException {
+        return BinarySnapshot.fromBytes(snapshot);
+    }
+
+    @Benchmark
+    public Object openMappedAndGet() throws IOException {
+        return MappedSnapshot.open(mapped).get(path);
+    }
+}
@@ -0,0 +1,68 @@
+package io.yamlrt;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot typed reads (getInt/getLong/getDouble/getBoolean) on an unchanged document
+ *
+ * Run: gradle jmh -PjmhArgs="TypedReadBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypedReadBenchmark {
+
+    private static final String CONFIG = """
+server:
+  host: localhost
+  port: 8080
+  timeout: "30"
+  ratio: 0.75
+  enabled: true
+Services:
+- ServiceName: 1A1
+  Retries: "3"
+  Weight: 2.5
+""";
+
+    private Yamlrt yaml;
+
+    @Setup
+    public void setup() {
+        yaml = Yamlrt.load(CONFIG);
+    }
+
+    @Benchmark
+    public int getIntNumber() {
+        return yaml.getInt("server.port");
+    }
+
+    @Benchmark
+    public int getIntString() {
+        return yaml.getInt("server.timeout");
+    }
+
+    @Benchmark
+    public int getIntInvalidWithDefault() {
+        return yaml.getInt("server.host", -1);
+    }
+
+    @Benchmark
+    public long getLongIndexedPath() {
+        return yaml.getLong("Services[0].Retries");
+    }
+
+    @Benchmark
+    public void mixedTypedReads(Blackhole bh) {
+        bh.consume(yaml.getInt("server.port"));
+        bh.consume(yaml.getDouble("server.ratio"));
+        bh.consume(yaml.getBoolean("server.enabled"));
+        bh.consume(yaml.getDouble("Services[0].Weight", 1.0));
+    }
+}
@@ -0,0 +1,122 @@
+package io.yamlrt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Crash-safe file replacement used by Yamlrt.save(File, SaveOptions)
+ *
+ * - content goes to a temp file in the target directory (same file system, so
+ *   the rename is atomic), then replaces the target with ATOMIC_MOVE
+ * - a symlinked target is resolved first: the file it points to is replaced,
+ *   and the link is kept
+ * - the temp file takes the target's POSIX permissions, if it has any; a new
+ *   file gets the default permissions (umask), like a plain save
+ * - on failure the temp file is deleted and the target is left untouched
+ */
+final class AtomicFiles {
+    
+    private static final int COMPARE_BUFFER_SIZE = 8192;
+    private static final int TEMP_ATTEMPTS = 100;
+    
+    private AtomicFiles() {}
+    
+    interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
+    }
+    
+    static void replace(Path target, boolean force, ChannelWriter body) throws IOException {
+        Path absolute = Files.exists(target) ? target.toRealPath() : target.toAbsolutePath();
+        Path dir = absolute.getParent();
+        Path tmp = createTemp(absolute);
+        try {
+            copyPermissions(absolute, tmp);
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                body.write(channel);
+                if (force) channel.force(true);
+            }
+            try {
+                Files.move(tmp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        if (force) forceDirectory(dir);
+    }
+    
+    /**
+     * True if the file exists and holds exactly these bytes
+     * (size checked first; the file is read only when the sizes match)
+     */
+    static boolean hasContent(Path file, byte[] content) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != content.length) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(Math.min(COMPARE_BUFFER_SIZE, Math.max(content.length, 1)));
+            int offset = 0;
+            while (offset < content.length) {
+                buf.clear();
+                int n = channel.read(buf);
+                if (n < 0) return false;
+                for (int i = 0; i < n; i++) {
+                    if (offset + i >= content.length || buf.get(i) != content[offset + i]) return false;
+                }
+                offset += n;
+            }
+            return channel.read(buf.clear()) < 0;
+        }
+    }
+    
+    static void writeFully(FileChannel channel, byte[] content) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(content);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+    
+    /**
+     * New empty file next to target, created with no explicit attributes so it gets
+     * the default mode (createTempFile would make it owner-only)
+     */
+    private static Path createTemp(Path target) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            Path tmp = target.resolveSibling("." + target.getFileName()
+                    + ThreadLocalRandom.current().nextLong(Long.MAX_VALUE) + ".tmp");
+            try {
+                return Files.createFile(tmp);
+            } catch (FileAlreadyExistsException e) {
+                if (attempt >= TEMP_ATTEMPTS) throw e;
+            }
+        }
+    }
+    
+    private static void copyPermissions(Path from, Path to) throws IOException {
+        if (!Files.exists(from)) return;
+        PosixFileAttributeView view = Files.getFileAttributeView(from, PosixFileAttributeView.class);
+        if (view == null) return;
+        Set<PosixFilePermission> permissions = view.readAttributes().permissions();
+        Files.setPosixFilePermissions(to, permissions);
+    }
+    
+    /**
+     * Persist the rename itself (best effort: not every platform can open a directory)
+     */
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directory fsync not supported here; the file data itself is on disk
+        }
+    }
+}
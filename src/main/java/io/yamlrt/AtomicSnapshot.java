@@ -0,0 +1,52 @@
+package io.yamlrt;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Atomically published YamlSnapshot
+ * 
+ * Readers call get() and keep a consistent view for as long as they hold
+ * the returned snapshot. Writers publish a new root with update(); concurrent
+ * updates are retried against the latest snapshot (compare-and-set).
+ * 
+ * Usage:
+ *   AtomicSnapshot config = new AtomicSnapshot(yaml.freeze());
+ *   int port = config.get().getInt("server.port");
+ *   config.update(b -> b.set("server.port", 9090));
+ */
+public class AtomicSnapshot {
+    
+    private final AtomicReference<YamlSnapshot> current;
+    
+    public AtomicSnapshot(YamlSnapshot initial) {
+        this.current = new AtomicReference<>(initial);
+    }
+    
+    public YamlSnapshot get() {
+        return current.get();
+    }
+    
+    /**
+     * Replace the published snapshot
+     */
+    public void set(YamlSnapshot snapshot) {
+        current.set(snapshot);
+    }
+    
+    /**
+     * Apply edits to the latest snapshot and publish the result
+     * (edits may run more than once if another update wins the race)
+     */
+    public YamlSnapshot update(Consumer<YamlSnapshot.Builder> edits) {
+        while (true) {
+            YamlSnapshot base = current.get();
+            YamlSnapshot.Builder builder = base.toBuilder();
+            edits.accept(builder);
+            YamlSnapshot next = builder.build();
+            if (current.compareAndSet(base, next)) {
+                return next;
+            }
+        }
+    }
+}
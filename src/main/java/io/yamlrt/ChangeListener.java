@@ -0,0 +1,17 @@
+package io.yamlrt;
+
+import java.util.List;
+
+/**
+ * Notified after Yamlrt edits (set, remove, transaction)
+ * 
+ * A transaction raises a single notification with all of its paths.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+    
+    /**
+     * @param paths edited paths, in the order they were applied
+     */
+    void onChange(List<String> paths);
+}
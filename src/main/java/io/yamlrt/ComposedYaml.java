@@ -0,0 +1,297 @@
+package io.yamlrt;
+
+import io.yamlrt.core.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Document made of a root file and the files it includes (see YamlComposer)
+ *
+ * - paths run through include values: with "database: !include db.yaml",
+ *   get("database.pool") reads "pool" from db.yaml
+ * - set() and remove() edit the file that owns the path; setting the include
+ *   key itself replaces the include value in the including file
+ * - save() writes every file of the composition that was edited, each with
+ *   its own comments and layout, and leaves the others untouched
+ * - getRoot() and dump() splice the included trees (with their comments)
+ *   into place; only the containers on the way to an include are copied
+ *
+ * Edits are tracked through each file's Yamlrt change notifications: direct
+ * changes to a root map are neither saved nor seen by getRoot() until the
+ * next reported edit. Not thread-safe (same contract as Yamlrt).
+ *
+ * getRoot() and dump() register a listener on every file of the composition.
+ * Files are shared through the composer, so call close() when the view is no
+ * longer needed.
+ */
+public final class ComposedYaml implements ReadableYaml {
+    
+    private final YamlComposer composer;
+    private final YamlComposer.Fragment root;
+    
+    // Spliced tree for getRoot()/dump(), and the containers copied for it
+    private CommentedMap<String, Object> spliced;
+    private final List<Object> copies = new ArrayList<>();
+    private final Set<YamlComposer.Fragment> watched = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ChangeListener listener = paths -> dropSpliced();
+    
+    ComposedYaml(YamlComposer composer, YamlComposer.Fragment root) {
+        this.composer = composer;
+        this.root = root;
+    }
+    
+    // ==================== Reads ====================
+    
+    @Override
+    public Object get(String path) {
+        Location location = locate(YamlPath.parse(path));
+        return location != null ? location.node : null;
+    }
+    
+    /**
+     * Effective document with every include spliced in
+     */
+    public CommentedMap<String, Object> getRoot() {
+        if (spliced == null) {
+            spliced = splicedRoot();
+        }
+        return spliced;
+    }
+    
+    public String dump() {
+        CommentedMap<String, Object> tree = getRoot();
+        YamlWriter writer = new YamlWriter();
+        writer.setDocumentMarker(tree.hasDocumentMarker());
+        return writer.write(tree);
+    }
+    
+    /**
+     * Root file's document (include values as written)
+     */
+    public Yamlrt getDocument() {
+        return root.document;
+    }
+    
+    /**
+     * Document of one file of the composition, or null if it is not part of it
+     */
+    public Yamlrt getDocument(File file) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        YamlComposer.Fragment fragment = closure().get(path);
+        return fragment != null ? fragment.document : null;
+    }
+    
+    /**
+     * Files of the composition: the root file first, then includes in document order
+     */
+    public List<File> getFiles() {
+        List<File> files = new ArrayList<>();
+        for (Path path : closure().keySet()) {
+            files.add(path.toFile());
+        }
+        return files;
+    }
+    
+    // ==================== Edits ====================
+    
+    /**
+     * Set value by path in the file that owns it
+     */
+    public void set(String path, Object value) {
+        Location owner = owner(path);
+        owner.fragment.document.set(YamlPath.format(owner.local), value);
+    }
+    
+    /**
+     * Remove value by path from the file that owns it
+     */
+    public void remove(String path) {
+        Location owner = owner(path);
+        owner.fragment.document.remove(YamlPath.format(owner.local));
+    }
+    
+    /**
+     * Write every edited file of the composition
+     * @return files written
+     */
+    public List<File> save() throws IOException {
+        List<File> written = new ArrayList<>();
+        for (YamlComposer.Fragment fragment : closure().values()) {
+            if (fragment.modified) {
+                fragment.document.save(fragment.path.toFile());
+                fragment.modified = false;
+                written.add(fragment.path.toFile());
+            }
+        }
+        return written;
+    }
+    
+    /**
+     * Write every edited file of the composition with SaveOptions (e.g. atomic)
+     * @return files written
+     */
+    public List<File> save(SaveOptions options) throws IOException {
+        List<File> written = new ArrayList<>();
+        for (YamlComposer.Fragment fragment : closure().values()) {
+            if (fragment.modified) {
+                if (fragment.document.save(fragment.path.toFile(), options)) {
+                    written.add(fragment.path.toFile());
+                }
+                fragment.modified = false;
+            }
+        }
+        return written;
+    }
+    
+    /**
+     * Stop following edits of the files and drop the spliced tree
+     * (the view may still be used: a later getRoot() or dump() follows them again)
+     */
+    public void close() {
+        for (YamlComposer.Fragment fragment : watched) {
+            fragment.document.removeChangeListener(listener);
+        }
+        watched.clear();
+        dropSpliced();
+    }
+    
+    // ==================== Path resolution ====================
+    
+    /**
+     * Node at a path and the file it was found in (null if missing)
+     */
+    private Location locate(List<Object> segments) {
+        YamlComposer.Fragment fragment = root;
+        Object node = fragment.document.getRoot();
+        int start = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            node = YamlPatch.valueAt(node, segments.subList(i, i + 1));
+            if (node == YamlPatch.MISSING) return null;
+            Path target = YamlComposer.target(node, fragment.path);
+            if (target != null) {
+                fragment = include(target);
+                node = fragment.document.getRoot();
+                start = i + 1;
+            }
+        }
+        return new Location(fragment, segments.subList(start, segments.size()), node);
+    }
+    
+    /**
+     * File owning the last segment of path, with the path inside that file
+     */
+    private Location owner(String path) {
+        List<Object> segments = YamlPath.parse(path);
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("Empty path");
+        }
+        // Follow includes as far as the parent exists; the rest is created in that file
+        int known = segments.size() - 1;
+        Location parent = locate(segments.subList(0, known));
+        while (parent == null) {
+            parent = locate(segments.subList(0, --known));
+        }
+        List<Object> local = new ArrayList<>(parent.local);
+        local.addAll(segments.subList(known, segments.size()));
+        return new Location(parent.fragment, local, null);
+    }
+    
+    private YamlComposer.Fragment include(Path target) {
+        try {
+            return composer.fragment(target);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * The root file and everything it currently includes
+     */
+    private Map<Path, YamlComposer.Fragment> closure() {
+        Map<Path, YamlComposer.Fragment> closure = new LinkedHashMap<>();
+        composer.collect(root, closure, new ArrayList<>());
+        return closure;
+    }
+    
+    private static final class Location {
+        final YamlComposer.Fragment fragment;
+        final List<Object> local;
+        final Object node;
+        
+        Location(YamlComposer.Fragment fragment, List<Object> local, Object node) {
+            this.fragment = fragment;
+            this.local = local;
+            this.node = node;
+        }
+    }
+    
+    // ==================== Splicing ====================
+    
+    @SuppressWarnings("unchecked")
+    private CommentedMap<String, Object> splicedRoot() {
+        for (YamlComposer.Fragment fragment : closure().values()) {
+            if (watched.add(fragment)) {
+                fragment.document.addChangeListener(listener);
+            }
+        }
+        return (CommentedMap<String, Object>) splice(root.document.getRoot(), root.path);
+    }
+    
+    /**
+     * node with includes replaced by the included trees (node itself if it has none)
+     */
+    @SuppressWarnings("unchecked")
+    private Object splice(Object node, Path base) {
+        Path target = YamlComposer.target(node, base);
+        if (target != null) {
+            YamlComposer.Fragment fragment = include(target);
+            return splice(fragment.document.getRoot(), fragment.path);
+        }
+        if (node instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) node;
+            CommentedMap<String, Object> copy = null;
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                Object value = splice(entry.getValue(), base);
+                if (value != entry.getValue()) {
+                    if (copy == null) {
+                        copy = (map instanceof CommentedMap)
+                                ? ((CommentedMap<String, Object>) map).shallowCopyWithComments()
+                                : new CommentedMap<>(map);
+                        copies.add(copy);
+                    }
+                    copy.put(entry.getKey(), value);
+                }
+            }
+            return copy != null ? copy : node;
+        }
+        if (node instanceof List) {
+            List<Object> list = (List<Object>) node;
+            CommentedList<Object> copy = null;
+            for (int i = 0; i < list.size(); i++) {
+                Object item = splice(list.get(i), base);
+                if (item != list.get(i)) {
+                    if (copy == null) {
+                        copy = (list instanceof CommentedList)
+                                ? ((CommentedList<Object>) list).shallowCopyWithComments()
+                                : new CommentedList<>(list);
+                        copies.add(copy);
+                    }
+                    copy.set(i, item);
+                }
+            }
+            return copy != null ? copy : node;
+        }
+        return node;
+    }
+    
+    private void dropSpliced() {
+        // Shared trees stop reporting to the discarded copies
+        copies.forEach(YamlNodes::release);
+        copies.clear();
+        spliced = null;
+    }
+}
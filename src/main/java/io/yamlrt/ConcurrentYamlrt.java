@@ -0,0 +1,230 @@
+package io.yamlrt;
+
+import io.yamlrt.core.TypedValue;
+
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Thread-safe Yamlrt for many readers and occasional writers
+ *
+ * - reads run optimistically (StampedLock) and never block each other
+ * - a read is retried under the read lock only if a writer ran at the same time
+ * - set/remove/transaction take the write lock
+ * - change listeners run on the writing thread after the write lock is
+ *   released, so they may read this instance (listeners added to the
+ *   underlying Yamlrt directly still run under the lock)
+ *
+ * Usage:
+ *   ConcurrentYamlrt yaml = ConcurrentYamlrt.load(new File("config.yaml"));
+ *   int port = yaml.getInt("server.port", 8080);   // from any thread
+ *   yaml.set("server.port", 9090);                 // admin thread
+ *
+ * Values returned by getList()/getMap() are the live containers;
+ * do not modify them outside of set/remove/transaction.
+ */
+public class ConcurrentYamlrt implements ReadableYaml {
+    
+    private final Yamlrt delegate;
+    private final StampedLock lock = new StampedLock();
+    private final Object dumpLock = new Object();
+    
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    
+    // Paths reported by the delegate during the current write (guarded by the write lock)
+    private List<String> changed;
+    
+    // Bound once so hot reads do not allocate a lambda per call
+    private final Function<String, Object> getter;
+    private final Function<String, TypedValue> typedGetter;
+    
+    public ConcurrentYamlrt(Yamlrt delegate) {
+        this.delegate = delegate;
+        this.getter = delegate::get;
+        this.typedGetter = delegate::getTyped;
+        delegate.addChangeListener(paths -> changed = paths);
+    }
+    
+    // ==================== Static Factory Methods ====================
+    
+    public static ConcurrentYamlrt load(String yaml) {
+        return new ConcurrentYamlrt(Yamlrt.load(yaml));
+    }
+    
+    public static ConcurrentYamlrt load(File file) throws IOException {
+        return new ConcurrentYamlrt(Yamlrt.load(file));
+    }
+    
+    // ==================== Reads (optimistic) ====================
+    
+    @Override
+    public Object get(String path) {
+        return read(getter, path);
+    }
+    
+    @Override
+    public TypedValue getTyped(String path) {
+        return read(typedGetter, path);
+    }
+    
+    private <T> T read(Function<String, T> reader, String path) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = reader.apply(path);
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Torn read while a writer was modifying the tree; retry under the read lock
+            }
+        }
+        
+        stamp = lock.readLock();
+        try {
+            return reader.apply(path);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    // ==================== Writes (exclusive) ====================
+    
+    public void set(String path, Object value) {
+        List<String> paths;
+        long stamp = lock.writeLock();
+        try {
+            delegate.set(path, value);
+        } finally {
+            paths = takeChanged();
+            lock.unlockWrite(stamp);
+        }
+        fireChange(paths);
+    }
+    
+    public void remove(String path) {
+        List<String> paths;
+        long stamp = lock.writeLock();
+        try {
+            delegate.remove(path);
+        } finally {
+            paths = takeChanged();
+            lock.unlockWrite(stamp);
+        }
+        fireChange(paths);
+    }
+    
+    public void transaction(Consumer<Transaction> body) {
+        // Build the edit set before locking; only applying it is exclusive
+        Transaction tx = new Transaction();
+        body.accept(tx);
+        if (tx.isEmpty()) return;
+        
+        List<String> paths;
+        long stamp = lock.writeLock();
+        try {
+            delegate.apply(tx);
+        } finally {
+            paths = takeChanged();
+            lock.unlockWrite(stamp);
+        }
+        fireChange(paths);
+    }
+    
+    /**
+     * Register listener called after set/remove/transaction, outside the write lock
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    // Caller holds the write lock
+    private List<String> takeChanged() {
+        List<String> paths = changed;
+        changed = null;
+        return paths;
+    }
+    
+    private void fireChange(List<String> paths) {
+        if (paths == null) return;
+        for (ChangeListener listener : listeners) {
+            listener.onChange(paths);
+        }
+    }
+    
+    // ==================== Dump / Save ====================
+    
+    /**
+     * Dump under the read lock (writers wait, readers continue)
+     */
+    public String dump() {
+        long stamp = lock.readLock();
+        try {
+            // The underlying writer keeps per-dump state
+            synchronized (dumpLock) {
+                return delegate.dump();
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Canonical hash under the read lock (stateless, so dumps may run alongside)
+     */
+    public String contentHash() {
+        long stamp = lock.readLock();
+        try {
+            return delegate.contentHash();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Cached subtree hash of the values under the read lock
+     * (hashes and parent links are safe to publish concurrently)
+     */
+    public long treeHash() {
+        return treeHash(false);
+    }
+    
+    public long treeHash(boolean includeComments) {
+        long stamp = lock.readLock();
+        try {
+            return delegate.treeHash(includeComments);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    public void save(File file) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            synchronized (dumpLock) {
+                delegate.save(file);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+    
+    public boolean save(File file, SaveOptions options) throws IOException {
+        long stamp = lock.readLock();
+        try {
+            synchronized (dumpLock) {
+                return delegate.save(file, options);
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
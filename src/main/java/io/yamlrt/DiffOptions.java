@@ -0,0 +1,64 @@
+package io.yamlrt;
+
+/**
+ * Options for YamlDiff.diff(a, b, DiffOptions)
+ *
+ * - keyOrder: report maps whose common keys changed order (REORDERED)
+ * - comments: report changed comments (COMMENT_CHANGED)
+ * - listKey: match list items that are mappings by this field (e.g. "ServiceName")
+ *   instead of by index; lists whose items lack the field or repeat a value
+ *   are still compared by index
+ *
+ * Usage:
+ *   YamlDiff.diff(a, b, DiffOptions.structural().listKey("ServiceName"));
+ */
+public final class DiffOptions {
+    
+    private final boolean keyOrder;
+    private final boolean comments;
+    private final String listKey;
+    
+    private DiffOptions(boolean keyOrder, boolean comments, String listKey) {
+        this.keyOrder = keyOrder;
+        this.comments = comments;
+        this.listKey = listKey;
+    }
+    
+    /**
+     * Values only: maps by key, lists by index
+     */
+    public static DiffOptions values() {
+        return new DiffOptions(false, false, null);
+    }
+    
+    /**
+     * Values, key order and comments
+     */
+    public static DiffOptions structural() {
+        return new DiffOptions(true, true, null);
+    }
+    
+    public DiffOptions keyOrder(boolean keyOrder) {
+        return new DiffOptions(keyOrder, comments, listKey);
+    }
+    
+    public DiffOptions comments(boolean comments) {
+        return new DiffOptions(keyOrder, comments, listKey);
+    }
+    
+    public DiffOptions listKey(String listKey) {
+        return new DiffOptions(keyOrder, comments, listKey);
+    }
+    
+    public boolean isKeyOrder() {
+        return keyOrder;
+    }
+    
+    public boolean isComments() {
+        return comments;
+    }
+    
+    public String getListKey() {
+        return listKey;
+    }
+}
@@ -0,0 +1,124 @@
+package io.yamlrt;
+
+import io.yamlrt.core.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-place scalar patching behind Yamlrt.patch()
+ *
+ * The parser records the source range of every block scalar (SourceSpan).
+ * Only that range is replaced in the file:
+ *
+ * - same byte length: the new value overwrites the old one, nothing else is written
+ * - otherwise: the new value plus the rest of the file after it are written,
+ *   and the file is truncated if it got shorter
+ *
+ * Bytes before the value are never rewritten, so comments and formatting
+ * elsewhere stay exactly as they are. Byte offsets are recomputed from the
+ * decoded text, which is only exact for valid UTF-8: other files are refused.
+ */
+final class FilePatcher {
+    
+    private FilePatcher() {}
+    
+    static void patch(Path file, String path, Object value) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        String source = decode(content);
+        CommentedMap<String, Object> root = new YamlParser().parse(source);
+        
+        SourceSpan span = findSpan(root, path);
+        String original = span.getText();
+        int lead = 0;
+        while (lead < original.length() && original.charAt(lead) == ' ') lead++;
+        
+        // Keep the spacing after "key:" / "- "; render the value like dump() would
+        byte[] replacement = (original.substring(0, lead) + new YamlWriter().formatScalar(value))
+                .getBytes(StandardCharsets.UTF_8);
+        int start = utf8Length(source, 0, span.getStart());
+        int end = start + utf8Length(source, span.getStart(), span.getEnd());
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (replacement.length == end - start) {
+                writeFully(channel, ByteBuffer.wrap(replacement), start);
+                return;
+            }
+            long position = writeFully(channel, ByteBuffer.wrap(replacement), start);
+            position = writeFully(channel, ByteBuffer.wrap(content, end, content.length - end), position);
+            channel.truncate(position);
+        }
+    }
+    
+    /**
+     * Strict UTF-8: a replacement character would shift every offset after it,
+     * so malformed input throws MalformedInputException before anything is written
+     */
+    private static String decode(byte[] content) throws IOException {
+        return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(content)).toString();
+    }
+    
+    private static SourceSpan findSpan(CommentedMap<String, Object> root, String path) {
+        List<Object> segments = YamlPath.parse(path);
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("Empty path");
+        }
+        Object parent = YamlPath.get(root, segments.subList(0, segments.size() - 1));
+        Object last = segments.get(segments.size() - 1);
+        
+        Comment.CommentSlot slot = null;
+        Object current = null;
+        if (parent instanceof CommentedMap && last instanceof String) {
+            CommentedMap<?, ?> map = (CommentedMap<?, ?>) parent;
+            if (map.containsKey(last)) {
+                slot = map.ca().getSlot(last);
+                current = map.get(last);
+            }
+        } else if (parent instanceof CommentedList && last instanceof Integer) {
+            CommentedList<?> list = (CommentedList<?>) parent;
+            int index = (Integer) last;
+            if (index >= 0 && index < list.size()) {
+                slot = list.ca().getSlot(index);
+                current = list.get(index);
+            }
+        }
+        
+        SourceSpan span = (slot != null) ? slot.getValueSpan() : null;
+        if (span == null || !span.matches(current) || current instanceof Map || current instanceof List) {
+            throw new IllegalArgumentException("No block scalar at path: " + path);
+        }
+        return span;
+    }
+    
+    private static int utf8Length(String str, int start, int end) {
+        int bytes = 0;
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(str.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+    
+    private static long writeFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            position += channel.write(buf, position);
+        }
+        return position;
+    }
+}
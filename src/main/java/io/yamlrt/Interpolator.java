@@ -0,0 +1,231 @@
+package io.yamlrt;
+
+import io.yamlrt.core.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * ${...} references in string values, resolved on read (see Yamlrt.enableInterpolation)
+ *
+ * - ${other.path} reads another value of the document (itself interpolated);
+ *   a name that is not a path of the document is looked up as a variable
+ *   (environment by default); ${NAME:-default} gives a fallback; $${ is a literal ${
+ * - a value that is exactly one reference keeps the referenced value's type
+ *   ("${server.port}" reads as a number); anything else becomes a string
+ * - each distinct string is parsed into a template once
+ * - resolved values are memoized per path while the raw value is the same object;
+ *   every reference records a dependency edge, so an edit drops only the values
+ *   that depend on the edited paths, directly or through other references
+ *   (an edit at a list index counts as an edit of the whole list)
+ *
+ * The document tree keeps the raw text, so dump() and save() are unchanged.
+ */
+final class Interpolator {
+    
+    private static final int TEMPLATE_CACHE_LIMIT = 4096;
+    
+    private final Function<String, String> variables;
+    
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+    
+    // Resolved value per path, with the raw value it was computed from
+    private final Map<String, Resolved> memo = new ConcurrentHashMap<>();
+    
+    // Referenced path -> paths whose value read it
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    
+    Interpolator(Function<String, String> variables) {
+        this.variables = variables;
+    }
+    
+    /**
+     * Interpolated value of the raw value stored at path
+     */
+    Object resolve(CommentedMap<String, Object> root, String path, Object raw) {
+        if (!(raw instanceof String) || ((String) raw).indexOf("${") < 0) {
+            return raw;
+        }
+        Resolved resolved = memo.get(path);
+        if (resolved != null && resolved.source == raw) {
+            return resolved.value;
+        }
+        synchronized (this) {
+            return resolve(root, path, (String) raw, new ArrayList<>());
+        }
+    }
+    
+    private Object resolve(CommentedMap<String, Object> root, String path, String raw, List<String> stack) {
+        Resolved resolved = memo.get(path);
+        if (resolved != null && resolved.source == raw) {
+            return resolved.value;
+        }
+        if (stack.contains(path)) {
+            stack.add(path);
+            throw new IllegalArgumentException("Circular reference: " + String.join(" -> ", stack));
+        }
+        stack.add(path);
+        Template template = template(raw);
+        Object value;
+        if (template.parts.size() == 1 && template.parts.get(0) instanceof Reference) {
+            value = lookup(root, path, (Reference) template.parts.get(0), stack);
+        } else {
+            StringBuilder sb = new StringBuilder();
+            for (Object part : template.parts) {
+                sb.append(part instanceof Reference ? lookup(root, path, (Reference) part, stack) : part);
+            }
+            value = sb.toString();
+        }
+        stack.remove(stack.size() - 1);
+        memo.put(path, new Resolved(raw, value));
+        return value;
+    }
+    
+    private Object lookup(CommentedMap<String, Object> root, String path, Reference ref, List<String> stack) {
+        if (ref.key != null) {
+            dependents.computeIfAbsent(ref.key, k -> new HashSet<>()).add(path);
+            Object target = YamlPatch.valueAt(root, ref.segments);
+            if (target != YamlPatch.MISSING) {
+                return target instanceof String ? resolve(root, ref.key, (String) target, stack) : target;
+            }
+        }
+        String variable = variables.apply(ref.name);
+        if (variable != null) return variable;
+        if (ref.fallback != null) return ref.fallback;
+        throw new IllegalArgumentException("Unresolved reference ${" + ref.name + "} in " + path);
+    }
+    
+    // ==================== Invalidation ====================
+    
+    /**
+     * Drop memoized values of the edited paths and of everything depending on them
+     */
+    synchronized void invalidate(List<String> paths) {
+        if (memo.isEmpty()) return;
+        Deque<String> pending = new ArrayDeque<>();
+        for (String path : paths) {
+            pending.add(listOf(path));
+        }
+        Set<String> seen = new HashSet<>();
+        while (!pending.isEmpty()) {
+            String changed = pending.pop();
+            if (!seen.add(changed)) continue;
+            memo.keySet().removeIf(key -> related(key, changed));
+            for (Map.Entry<String, Set<String>> entry : dependents.entrySet()) {
+                if (related(entry.getKey(), changed)) {
+                    pending.addAll(entry.getValue());
+                }
+            }
+        }
+    }
+    
+    synchronized void clear() {
+        memo.clear();
+        dependents.clear();
+    }
+    
+    /**
+     * An edit at a list index (insert, remove) shifts the items after it:
+     * x[i] counts as a change of the whole list x
+     */
+    private static String listOf(String path) {
+        if (!path.endsWith("]")) return path;
+        int open = path.lastIndexOf('[');
+        return open > 0 ? path.substring(0, open) : path;
+    }
+    
+    /**
+     * One path equals the other or is an ancestor of it
+     */
+    private static boolean related(String a, String b) {
+        String shorter = a.length() <= b.length() ? a : b;
+        String longer = a.length() <= b.length() ? b : a;
+        if (!longer.startsWith(shorter)) return false;
+        if (shorter.isEmpty() || longer.length() == shorter.length()) return true;
+        char next = longer.charAt(shorter.length());
+        return next == '.' || next == '[';
+    }
+    
+    // ==================== Templates ====================
+    
+    private Template template(String raw) {
+        Template template = templates.get(raw);
+        if (template == null) {
+            if (templates.size() >= TEMPLATE_CACHE_LIMIT) {
+                templates.clear();
+            }
+            template = Template.parse(raw);
+            templates.put(raw, template);
+        }
+        return template;
+    }
+    
+    /**
+     * Literal strings and references, in order
+     */
+    private static final class Template {
+        final List<Object> parts;
+        
+        private Template(List<Object> parts) {
+            this.parts = parts;
+        }
+        
+        static Template parse(String raw) {
+            List<Object> parts = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int i = 0;
+            while (i < raw.length()) {
+                if (raw.startsWith("$${", i)) {
+                    literal.append("${");
+                    i += 3;
+                } else if (raw.startsWith("${", i) && raw.indexOf('}', i + 2) > 0) {
+                    int close = raw.indexOf('}', i + 2);
+                    if (literal.length() > 0) {
+                        parts.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    parts.add(new Reference(raw.substring(i + 2, close)));
+                    i = close + 1;
+                } else {
+                    literal.append(raw.charAt(i++));
+                }
+            }
+            if (literal.length() > 0 || parts.isEmpty()) {
+                parts.add(literal.toString());
+            }
+            return new Template(parts);
+        }
+    }
+    
+    private static final class Reference {
+        final String name;
+        final String fallback;
+        final List<Object> segments;  // null if name is not a path
+        final String key;
+        
+        Reference(String expression) {
+            int split = expression.indexOf(":-");
+            this.name = (split >= 0 ? expression.substring(0, split) : expression).trim();
+            this.fallback = split >= 0 ? expression.substring(split + 2) : null;
+            List<Object> parsed;
+            try {
+                parsed = name.isEmpty() ? null : YamlPath.parse(name);
+            } catch (RuntimeException e) {
+                parsed = null;
+            }
+            this.segments = parsed;
+            this.key = parsed != null ? YamlPath.format(parsed) : null;
+        }
+    }
+    
+    private static final class Resolved {
+        final Object source;
+        final Object value;
+        
+        Resolved(Object source, Object value) {
+            this.source = source;
+            this.value = value;
+        }
+    }
+}
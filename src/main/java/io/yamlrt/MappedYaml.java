@@ -0,0 +1,76 @@
+package io.yamlrt;
+
+import io.yamlrt.core.MappedSnapshot;
+import io.yamlrt.core.YamlPath;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only document backed by a memory-mapped snapshot file (see Yamlrt.saveMapped)
+ *
+ * - no tree is built: each get() follows offsets in the mapped file, and
+ *   containers come back as read-only views over it
+ * - processes mapping the same file share one copy in the OS page cache
+ * - saveMapped() renames a new file into place, so open instances keep
+ *   reading the version they mapped; open() again to see the new one
+ *
+ * The mapping is released when this object is garbage collected.
+ *
+ * Usage:
+ *   yaml.saveMapped(new File("/etc/app/config.yrtm"));               // once, by the writer
+ *   MappedYaml config = MappedYaml.open(new File("/etc/app/config.yrtm"));   // in each JVM
+ *   int port = config.getInt("server.port");
+ */
+public final class MappedYaml implements ReadableYaml {
+    
+    private static final int CACHE_LIMIT = 4096;
+    
+    private final MappedSnapshot snapshot;
+    
+    private final Map<String, List<Object>> segmentCache = new ConcurrentHashMap<>();
+    
+    private MappedYaml(MappedSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+    
+    public static MappedYaml open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Mapped snapshot too large: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return new MappedYaml(MappedSnapshot.open(buffer));
+        }
+    }
+    
+    @Override
+    public Object get(String path) {
+        return snapshot.get(segments(path));
+    }
+    
+    private List<Object> segments(String path) {
+        List<Object> segments = segmentCache.get(path);
+        if (segments == null) {
+            if (segmentCache.size() >= CACHE_LIMIT) {
+                segmentCache.clear();
+            }
+            segments = YamlPath.parse(path);
+            segmentCache.put(path, segments);
+        }
+        return segments;
+    }
+    
+    /**
+     * Root mapping as a read-only view over the file
+     */
+    public Map<String, Object> getRoot() {
+        return snapshot.getRoot();
+    }
+}
@@ -0,0 +1,170 @@
+package io.yamlrt;
+
+import io.yamlrt.core.BinarySnapshot;
+import io.yamlrt.core.CommentedMap;
+import io.yamlrt.core.YamlParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of binary snapshots used by Yamlrt.load(File)
+ *
+ * - CONTENT_HASH (default): key is the SHA-256 of the file bytes; the file is
+ *   always read, but parsing is skipped on a hit
+ * - FILE_METADATA: key is path + size + mtime; a hit reads only the snapshot
+ *   (an edit that keeps size and mtime is not noticed)
+ *
+ * Safe to share between processes: entries are written to a temp file and
+ * renamed into place, so readers only ever see complete snapshots, and an
+ * unreadable entry is treated as a miss. Hits refresh the entry's mtime;
+ * after each store the oldest entries are deleted until the directory is
+ * back under maxBytes. Cache I/O errors never fail a load.
+ *
+ * Usage:
+ *   Yamlrt.setParseCache(new ParseCache(Path.of("/var/cache/yamlrt"), 64 << 20));
+ *   Yamlrt yaml = Yamlrt.load(new File("config.yaml"));   // parsed once, then from the cache
+ */
+public final class ParseCache {
+    
+    public enum KeyMode { CONTENT_HASH, FILE_METADATA }
+    
+    private static final String SUFFIX = ".yrtb";
+    // Bump when the snapshot format changes, so old entries are never read
+    private static final String KEY_PREFIX = "v1-";
+    
+    private final Path dir;
+    private final long maxBytes;
+    private final KeyMode mode;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    public ParseCache(Path dir, long maxBytes) {
+        this(dir, maxBytes, KeyMode.CONTENT_HASH);
+    }
+    
+    public ParseCache(Path dir, long maxBytes, KeyMode mode) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.mode = mode;
+    }
+    
+    public long getHits() {
+        return hits.get();
+    }
+    
+    public long getMisses() {
+        return misses.get();
+    }
+    
+    CommentedMap<String, Object> load(Path file) throws IOException {
+        byte[] content = null;
+        String key;
+        if (mode == KeyMode.FILE_METADATA) {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            String identity = file.toAbsolutePath().normalize() + "|" + attrs.size() + "|" + attrs.lastModifiedTime();
+            key = sha256(identity.getBytes(StandardCharsets.UTF_8));
+        } else {
+            content = Files.readAllBytes(file);
+            key = sha256(content);
+        }
+        
+        Path entry = dir.resolve(KEY_PREFIX + key + SUFFIX);
+        CommentedMap<String, Object> root = read(entry);
+        if (root != null) {
+            hits.incrementAndGet();
+            touch(entry);
+            return root;
+        }
+        
+        misses.incrementAndGet();
+        if (content == null) content = Files.readAllBytes(file);
+        root = new YamlParser().parse(decode(content));
+        store(entry, root);
+        return root;
+    }
+    
+    /**
+     * Strict UTF-8, like Files.readString: malformed input throws MalformedInputException
+     */
+    private static String decode(byte[] content) throws IOException {
+        return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(content)).toString();
+    }
+    
+    private static CommentedMap<String, Object> read(Path entry) {
+        try (InputStream in = Files.newInputStream(entry)) {
+            return BinarySnapshot.read(in);
+        } catch (IOException | RuntimeException e) {
+            // Missing, evicted meanwhile, or corrupt: parse instead
+            return null;
+        }
+    }
+    
+    private void store(Path entry, CommentedMap<String, Object> root) {
+        try {
+            Files.createDirectories(dir);
+            AtomicFiles.replace(entry, false, ch -> BinarySnapshot.write(root, Channels.newOutputStream(ch)));
+            evict();
+        } catch (IOException e) {
+            // Best effort: the document is already parsed
+        }
+    }
+    
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Entry evicted by another process; nothing to refresh
+        }
+    }
+    
+    /**
+     * Delete least recently used entries until the directory fits in maxBytes
+     */
+    private void evict() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        Map<Path, BasicFileAttributes> attrs = new HashMap<>();
+        long total = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                if (!path.getFileName().toString().endsWith(SUFFIX)) continue;
+                try {
+                    BasicFileAttributes a = Files.readAttributes(path, BasicFileAttributes.class);
+                    attrs.put(path, a);
+                    entries.add(path);
+                    total += a.size();
+                } catch (NoSuchFileException e) {
+                    // Deleted by another process
+                }
+            }
+        }
+        if (total <= maxBytes) return;
+        
+        entries.sort(Comparator.comparing(p -> attrs.get(p).lastModifiedTime()));
+        for (Path path : entries) {
+            if (total <= maxBytes) break;
+            Files.deleteIfExists(path);
+            total -= attrs.get(path).size();
+        }
+    }
+    
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.yamlrt;
+
+import io.yamlrt.core.TypedValue;
+
+import java.util.*;
+
+/**
+ * Read side of a YAML document (path notation)
+ * 
+ * Implementations provide get() and may override getTyped() to cache conversions;
+ * every other getter is derived from those two.
+ */
+public interface ReadableYaml {
+    
+    /**
+     * Get value by path (e.g., "server.host", "Services[0].ServiceName")
+     */
+    Object get(String path);
+    
+    /**
+     * Get typed view of the value at path
+     */
+    default TypedValue getTyped(String path) {
+        return TypedValue.of(get(path));
+    }
+    
+    /**
+     * Get value by path with default
+     */
+    default Object get(String path, Object defaultValue) {
+        Object value = get(path);
+        return value != null ? value : defaultValue;
+    }
+    
+    /**
+     * Get String value by path
+     */
+    default String getString(String path) {
+        Object value = get(path);
+        return value != null ? String.valueOf(value) : null;
+    }
+    
+    /**
+     * Get String value by path with default
+     */
+    default String getString(String path, String defaultValue) {
+        String value = getString(path);
+        return value != null ? value : defaultValue;
+    }
+    
+    /**
+     * Get int value by path
+     */
+    default int getInt(String path) {
+        TypedValue typed = getTyped(path);
+        if (typed.isInt()) return typed.getInt();
+        throw conversionError("int", path, typed);
+    }
+    
+    /**
+     * Get int value by path with default
+     */
+    default int getInt(String path, int defaultValue) {
+        TypedValue typed = getTyped(path);
+        return typed.isInt() ? typed.getInt() : defaultValue;
+    }
+    
+    /**
+     * Get long value by path
+     */
+    default long getLong(String path) {
+        TypedValue typed = getTyped(path);
+        if (typed.isLong()) return typed.getLong();
+        throw conversionError("long", path, typed);
+    }
+    
+    /**
+     * Get long value by path with default
+     */
+    default long getLong(String path, long defaultValue) {
+        TypedValue typed = getTyped(path);
+        return typed.isLong() ? typed.getLong() : defaultValue;
+    }
+    
+    /**
+     * Get double value by path
+     */
+    default double getDouble(String path) {
+        TypedValue typed = getTyped(path);
+        if (typed.isDouble()) return typed.getDouble();
+        throw conversionError("double", path, typed);
+    }
+    
+    /**
+     * Get double value by path with default
+     */
+    default double getDouble(String path, double defaultValue) {
+        TypedValue typed = getTyped(path);
+        return typed.isDouble() ? typed.getDouble() : defaultValue;
+    }
+    
+    /**
+     * Get boolean value by path
+     */
+    default boolean getBoolean(String path) {
+        TypedValue typed = getTyped(path);
+        if (typed.isBoolean()) return typed.getBoolean();
+        throw conversionError("boolean", path, typed);
+    }
+    
+    /**
+     * Get boolean value by path with default
+     */
+    default boolean getBoolean(String path, boolean defaultValue) {
+        TypedValue typed = getTyped(path);
+        return typed.isBoolean() ? typed.getBoolean() : defaultValue;
+    }
+    
+    /**
+     * Get List value by path
+     */
+    @SuppressWarnings("unchecked")
+    default List<Object> getList(String path) {
+        Object value = get(path);
+        if (value instanceof List) {
+            return (List<Object>) value;
+        }
+        return null;
+    }
+    
+    /**
+     * Get Map value by path
+     */
+    @SuppressWarnings("unchecked")
+    default Map<String, Object> getMap(String path) {
+        Object value = get(path);
+        if (value instanceof Map) {
+            return (Map<String, Object>) value;
+        }
+        return null;
+    }
+    
+    /**
+     * Check if path exists
+     */
+    default boolean exists(String path) {
+        return get(path) != null;
+    }
+    
+    private static IllegalArgumentException conversionError(String type, String path, TypedValue typed) {
+        if (typed.getSource() instanceof String) {
+            return new NumberFormatException("Cannot convert to " + type + ": " + path
+                    + " (\"" + typed.getSource() + "\")");
+        }
+        return new IllegalArgumentException("Cannot convert to " + type + ": " + path);
+    }
+}
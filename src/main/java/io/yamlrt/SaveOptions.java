@@ -0,0 +1,48 @@
+package io.yamlrt;
+
+/**
+ * Options for Yamlrt.save(File, SaveOptions)
+ *
+ * The document is always written to a temp file in the target directory and
+ * renamed over the target, so readers see either the old or the new file,
+ * never a truncated one.
+ *
+ * - force: fsync the temp file (and the directory after the rename) before returning
+ * - skipIfUnchanged: leave the target untouched when its content is identical
+ *
+ * Usage:
+ *   yaml.save(file, SaveOptions.atomic().force(true).skipIfUnchanged(true));
+ */
+public final class SaveOptions {
+    
+    private final boolean force;
+    private final boolean skipIfUnchanged;
+    
+    private SaveOptions(boolean force, boolean skipIfUnchanged) {
+        this.force = force;
+        this.skipIfUnchanged = skipIfUnchanged;
+    }
+    
+    /**
+     * Temp file + atomic rename, no fsync, always written
+     */
+    public static SaveOptions atomic() {
+        return new SaveOptions(false, false);
+    }
+    
+    public SaveOptions force(boolean force) {
+        return new SaveOptions(force, skipIfUnchanged);
+    }
+    
+    public SaveOptions skipIfUnchanged(boolean skipIfUnchanged) {
+        return new SaveOptions(force, skipIfUnchanged);
+    }
+    
+    public boolean isForce() {
+        return force;
+    }
+    
+    public boolean isSkipIfUnchanged() {
+        return skipIfUnchanged;
+    }
+}
@@ -0,0 +1,198 @@
+package io.yamlrt;
+
+import io.yamlrt.core.CommentedList;
+import io.yamlrt.core.CommentedMap;
+import io.yamlrt.core.YamlPath;
+import io.yamlrt.core.YamlWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Append-only fast path behind Yamlrt.appendToSequence()
+ *
+ * The file is scanned backwards, line by line, up to the last top-level key.
+ * That key must be the target and its value a block sequence; the item indent
+ * and line ending are taken from the existing lines. Only the new item is
+ * rendered, and it is written at the end of the file with a positioned write.
+ * Nothing before the target block is read, and nothing already on disk is rewritten,
+ * so a file ending with a column-0 comment block after the sequence is rejected.
+ */
+final class SequenceAppender {
+    
+    private static final int CHUNK_SIZE = 64 * 1024;
+    
+    private SequenceAppender() {}
+    
+    static void append(Path file, String path, Object item) throws IOException {
+        String key = topLevelKey(path);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            TailReader tail = new TailReader(channel);
+            int itemIndent = scanTargetBlock(tail, size, key, file);
+            
+            boolean crlf = usesCrlf(tail, size);
+            boolean endsWithNewline = size == 0 || tail.byteAt(size - 1) == '\n';
+            
+            String text = renderItem(key, item, itemIndent);
+            if (!endsWithNewline) text = "\n" + text;
+            if (crlf) text = text.replace("\n", "\r\n");
+            
+            ByteBuffer buf = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+            long position = size;
+            while (buf.hasRemaining()) {
+                position += channel.write(buf, position);
+            }
+        }
+    }
+    
+    private static String topLevelKey(String path) {
+        List<Object> segments = YamlPath.parse(path);
+        if (segments.size() != 1 || !(segments.get(0) instanceof String)) {
+            throw new IllegalArgumentException("appendToSequence needs a top-level key: " + path);
+        }
+        return (String) segments.get(0);
+    }
+    
+    /**
+     * Walk lines from the end up to the last column-0 key; return the item indent
+     */
+    private static int scanTargetBlock(TailReader tail, long size, String key, Path file) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int minIndent = Integer.MAX_VALUE;
+        boolean mapping = false;
+        boolean content = false;
+        
+        long lineEnd = size;
+        for (long pos = size - 1; pos >= -1; pos--) {
+            if (pos >= 0 && tail.byteAt(pos) != '\n') continue;
+            long start = pos + 1;
+            long end = lineEnd;
+            lineEnd = pos;
+            
+            int indent = 0;
+            while (start + indent < end && tail.byteAt(start + indent) == ' ') indent++;
+            if (start + indent == end) continue;
+            
+            byte first = tail.byteAt(start + indent);
+            if (first == '\r') continue;
+            if (first == '#') {
+                // A top-level comment after the last item closes the block: an item
+                // written at the end of the file would land below it
+                if (indent == 0 && !content) {
+                    throw new IllegalStateException("'" + key + "' is followed by a top-level comment in " + file);
+                }
+                continue;
+            }
+            content = true;
+            
+            boolean dash = first == '-' && (start + indent + 1 == end
+                    || isSpace(tail.byteAt(start + indent + 1)));
+            
+            if (indent > 0 || dash) {
+                if (indent < minIndent) {
+                    minIndent = indent;
+                    mapping = !dash;
+                } else if (indent == minIndent && !dash) {
+                    mapping = true;
+                }
+                continue;
+            }
+            
+            // Last top-level key: must be the target with a block sequence value
+            if (!isKeyLine(tail, start, end, keyBytes)) {
+                throw new IllegalStateException("'" + key + "' is not the last block in " + file);
+            }
+            if (mapping) {
+                throw new IllegalStateException("'" + key + "' is not a block sequence in " + file);
+            }
+            return minIndent == Integer.MAX_VALUE ? 0 : minIndent;
+        }
+        throw new IllegalStateException("'" + key + "' not found in " + file);
+    }
+    
+    /**
+     * "key:" followed only by spaces or a comment (no inline value)
+     */
+    private static boolean isKeyLine(TailReader tail, long start, long end, byte[] keyBytes) throws IOException {
+        if (end - start < keyBytes.length + 1) return false;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (tail.byteAt(start + i) != keyBytes[i]) return false;
+        }
+        long pos = start + keyBytes.length;
+        if (tail.byteAt(pos++) != ':') return false;
+        if (pos < end && !isSpace(tail.byteAt(pos))) return false;
+        while (pos < end && isSpace(tail.byteAt(pos))) pos++;
+        return pos == end || tail.byteAt(pos) == '#';
+    }
+    
+    /**
+     * Line ending of the last complete line
+     */
+    private static boolean usesCrlf(TailReader tail, long size) throws IOException {
+        for (long pos = size - 1; pos >= 0; pos--) {
+            if (tail.byteAt(pos) == '\n') {
+                return pos > 0 && tail.byteAt(pos - 1) == '\r';
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+    
+    /**
+     * Render "key:\n- item\n" with the writer and keep the item lines
+     */
+    private static String renderItem(String key, Object item, int itemIndent) {
+        CommentedList<Object> list = new CommentedList<>();
+        list.setOriginalIndent(itemIndent);
+        list.add(item);
+        CommentedMap<String, Object> doc = new CommentedMap<>();
+        doc.put(key, list);
+        
+        String text = new YamlWriter().write(doc);
+        text = text.substring(text.indexOf('\n') + 1);
+        return text.endsWith("\n") ? text : text + "\n";
+    }
+    
+    /**
+     * Random access to the file tail through one chunk-sized window
+     */
+    private static final class TailReader {
+        private final FileChannel channel;
+        private final ByteBuffer window = ByteBuffer.allocate(CHUNK_SIZE);
+        private long windowStart = 0;
+        private int windowLength = 0;
+        
+        TailReader(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        byte byteAt(long pos) throws IOException {
+            if (pos < windowStart || pos >= windowStart + windowLength) {
+                load(Math.max(0, pos - CHUNK_SIZE + 1));
+            }
+            return window.get((int) (pos - windowStart));
+        }
+        
+        // Window ends at the requested byte, since the scan moves backwards
+        private void load(long start) throws IOException {
+            window.clear();
+            long position = start;
+            while (window.hasRemaining()) {
+                int n = channel.read(window, position);
+                if (n < 0) break;
+                position += n;
+            }
+            windowStart = start;
+            windowLength = window.position();
+        }
+    }
+}
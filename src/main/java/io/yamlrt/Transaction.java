@@ -0,0 +1,62 @@
+package io.yamlrt;
+
+import java.util.*;
+
+/**
+ * Buffered set of edits applied atomically by Yamlrt.transaction()
+ * 
+ * Usage:
+ *   yaml.transaction(tx -> tx
+ *       .set("server.port", 9090)
+ *       .remove("old.config"));
+ */
+public class Transaction {
+    
+    private final List<Edit> edits = new ArrayList<>();
+    
+    Transaction() {}
+    
+    /**
+     * Buffer a set (path notation, same as Yamlrt.set)
+     */
+    public Transaction set(String path, Object value) {
+        edits.add(new Edit(path, value, false));
+        return this;
+    }
+    
+    /**
+     * Buffer a remove (path notation, same as Yamlrt.remove)
+     */
+    public Transaction remove(String path) {
+        edits.add(new Edit(path, null, true));
+        return this;
+    }
+    
+    public boolean isEmpty() {
+        return edits.isEmpty();
+    }
+    
+    List<Edit> edits() {
+        return edits;
+    }
+    
+    List<String> paths() {
+        List<String> paths = new ArrayList<>(edits.size());
+        for (Edit edit : edits) {
+            paths.add(edit.path);
+        }
+        return Collections.unmodifiableList(paths);
+    }
+    
+    static final class Edit {
+        final String path;
+        final Object value;
+        final boolean remove;
+        
+        Edit(String path, Object value, boolean remove) {
+            this.path = path;
+            this.value = value;
+            this.remove = remove;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.yamlrt;
+
+import java.util.function.Consumer;
+
+/**
+ * Last N versions of a document as structurally shared snapshots
+ * 
+ * Each version is a YamlSnapshot built from the previous one with the
+ * copy-on-write Builder, so a version only costs the containers on the
+ * edited paths; every unchanged subtree (and its comments) is shared.
+ * 
+ * Version numbers start at 0 and grow by one per recorded edit.
+ * Only the newest maxVersions versions are retained.
+ */
+public class VersionHistory {
+    
+    private final YamlSnapshot[] ring;
+    private int count = 0;
+    private int nextVersion = 0;
+    
+    VersionHistory(int maxVersions, YamlSnapshot initial) {
+        if (maxVersions < 1) {
+            throw new IllegalArgumentException("maxVersions must be >= 1: " + maxVersions);
+        }
+        this.ring = new YamlSnapshot[maxVersions];
+        push(initial);
+    }
+    
+    public int latestVersion() {
+        return nextVersion - 1;
+    }
+    
+    public int oldestVersion() {
+        return nextVersion - count;
+    }
+    
+    public YamlSnapshot latest() {
+        return get(latestVersion());
+    }
+    
+    /**
+     * Get a retained version
+     */
+    public YamlSnapshot get(int version) {
+        if (version < oldestVersion() || version > latestVersion()) {
+            throw new IllegalArgumentException("Version not retained: " + version
+                    + " (available " + oldestVersion() + ".." + latestVersion() + ")");
+        }
+        return ring[version % ring.length];
+    }
+    
+    /**
+     * Record a new version derived from the latest one (skipped if the edits change nothing)
+     */
+    void record(Consumer<YamlSnapshot.Builder> edits) {
+        YamlSnapshot base = latest();
+        YamlSnapshot.Builder builder = base.toBuilder();
+        edits.accept(builder);
+        YamlSnapshot next = builder.build();
+        if (next != base) {
+            push(next);
+        }
+    }
+    
+    void push(YamlSnapshot snapshot) {
+        ring[nextVersion % ring.length] = snapshot;
+        nextVersion++;
+        if (count < ring.length) count++;
+    }
+}
@@ -0,0 +1,297 @@
+package io.yamlrt;
+
+import io.yamlrt.core.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of parsed documents, keyed by path and file identity
+ *
+ * - a hit needs the file's current mtime and size (one stat call) to match
+ *   the cached entry; any change reloads the file
+ * - get() returns a shared, deeply immutable YamlSnapshot; load() returns a
+ *   mutable copy of it (no parsing)
+ * - concurrent requests for the same file share one parse (single flight);
+ *   a request that waited for another thread's parse counts as a shared load,
+ *   not as a hit
+ * - entries are evicted least recently used first once the estimated tree
+ *   size (maxWeight, in approximate bytes) is exceeded
+ *
+ * Usage:
+ *   YamlCache cache = new YamlCache(256 << 20);
+ *   int port = cache.get(new File("tenants/a.yaml")).getInt("server.port");
+ */
+public final class YamlCache {
+    
+    private final long maxWeight;
+    
+    // Access-ordered: the first entry is the least recently used
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    
+    private final ConcurrentHashMap<Path, FutureTask<Entry>> loading = new ConcurrentHashMap<>();
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong sharedLoads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    public YamlCache(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+    
+    /**
+     * Shared read-only document for the file (parsed at most once per file version)
+     */
+    public YamlSnapshot get(File file) throws IOException {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        FileIdentity identity = FileIdentity.of(path);
+        
+        Entry cached = lookup(path, identity);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached.snapshot;
+        }
+        
+        FutureTask<Entry> task = new FutureTask<>(() -> parse(path, identity));
+        FutureTask<Entry> running = loading.putIfAbsent(path, task);
+        if (running == null) {
+            // A load may have finished between the lookup and claiming the slot
+            cached = lookup(path, identity);
+            if (cached != null) {
+                loading.remove(path, task);
+                hits.incrementAndGet();
+                return cached.snapshot;
+            }
+            misses.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                loading.remove(path, task);
+            }
+            running = task;
+        } else {
+            // Another thread is parsing this file right now; share its result
+            sharedLoads.incrementAndGet();
+        }
+        return await(running).snapshot;
+    }
+    
+    /**
+     * Mutable copy of the cached document
+     */
+    public Yamlrt load(File file) throws IOException {
+        return get(file).thaw();
+    }
+    
+    public synchronized void invalidate(File file) {
+        Entry removed = entries.remove(file.toPath().toAbsolutePath().normalize());
+        if (removed != null) weight -= removed.weight;
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+    
+    public synchronized Stats getStats() {
+        return new Stats(hits.get(), misses.get(), sharedLoads.get(), evictions.get(), entries.size(), weight);
+    }
+    
+    private synchronized Entry lookup(Path path, FileIdentity identity) {
+        Entry entry = entries.get(path);
+        return entry != null && entry.identity.equals(identity) ? entry : null;
+    }
+    
+    private Entry parse(Path path, FileIdentity identity) throws IOException {
+        Yamlrt yaml = Yamlrt.load(path.toFile());
+        CommentedMap<String, Object> root = yaml.getRoot();
+        root.freeze();
+        Entry entry = new Entry(identity, new YamlSnapshot(root), estimateWeight(root));
+        put(path, entry);
+        return entry;
+    }
+    
+    private synchronized void put(Path path, Entry entry) {
+        Entry old = entries.put(path, entry);
+        if (old != null) weight -= old.weight;
+        weight += entry.weight;
+        
+        // Always keep the newest entry, even if it alone exceeds the bound
+        Iterator<Entry> it = entries.values().iterator();
+        while (weight > maxWeight && entries.size() > 1) {
+            Entry eldest = it.next();
+            if (eldest == entry) continue;
+            it.remove();
+            weight -= eldest.weight;
+            evictions.incrementAndGet();
+        }
+    }
+    
+    private static Entry await(FutureTask<Entry> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a concurrent load", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new UncheckedIOException(new IOException(cause));
+        }
+    }
+    
+    // ==================== Weight estimate ====================
+    
+    /**
+     * Rough retained size of a tree in bytes (objects, strings and comments,
+     * plus the source text kept alive by its SourceSpans)
+     */
+    static long estimateWeight(Object root) {
+        Set<String> sources = Collections.newSetFromMap(new IdentityHashMap<>());
+        long weight = estimateWeight(root, sources);
+        for (String source : sources) {
+            weight += estimateWeight(source);
+        }
+        return weight;
+    }
+    
+    private static long estimateWeight(Object value, Set<String> sources) {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            long weight = 64 + 40L * map.size();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                weight += estimateWeight(entry.getKey(), sources) + estimateWeight(entry.getValue(), sources);
+            }
+            if (map instanceof CommentedMap) weight += estimateWeight(((CommentedMap<?, ?>) map).ca(), sources);
+            return weight;
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            long weight = 56 + 8L * list.size();
+            for (Object item : list) {
+                weight += estimateWeight(item, sources);
+            }
+            if (list instanceof CommentedList) weight += estimateWeight(((CommentedList<?>) list).ca(), sources);
+            return weight;
+        }
+        if (value instanceof String) {
+            return 40 + ((String) value).length();
+        }
+        return value == null ? 0 : 16;
+    }
+    
+    private static long estimateWeight(Comment ca, Set<String> sources) {
+        long weight = 64 + tokensWeight(ca.getContainerPre()) + tokensWeight(ca.getEnd());
+        for (Comment.CommentSlot slot : ca.getItems().values()) {
+            if (slot == null) continue;
+            weight += 64 + tokensWeight(slot.getKeyPre()) + tokensWeight(slot.getValuePre());
+            if (slot.getKeyEol() != null) weight += tokensWeight(List.of(slot.getKeyEol()));
+            if (slot.getValueEol() != null) weight += tokensWeight(List.of(slot.getValueEol()));
+            // A span references the whole document text, shared by every span of the tree
+            if (slot.getValueSpan() != null) {
+                weight += 32;
+                sources.add(slot.getValueSpan().getSource());
+            }
+        }
+        return weight;
+    }
+    
+    private static long tokensWeight(List<CommentToken> tokens) {
+        long weight = 0;
+        for (CommentToken token : tokens) {
+            weight += 32 + estimateWeight(token.getValue());
+        }
+        return weight;
+    }
+    
+    // ==================== Types ====================
+    
+    private static final class Entry {
+        final FileIdentity identity;
+        final YamlSnapshot snapshot;
+        final long weight;
+        
+        Entry(FileIdentity identity, YamlSnapshot snapshot, long weight) {
+            this.identity = identity;
+            this.snapshot = snapshot;
+            this.weight = weight;
+        }
+    }
+    
+    private static final class FileIdentity {
+        final long modified;
+        final long size;
+        final Object fileKey;
+        
+        private FileIdentity(long modified, long size, Object fileKey) {
+            this.modified = modified;
+            this.size = size;
+            this.fileKey = fileKey;
+        }
+        
+        static FileIdentity of(Path path) throws IOException {
+            BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileIdentity(attrs.lastModifiedTime().toMillis(), attrs.size(), attrs.fileKey());
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FileIdentity)) return false;
+            FileIdentity other = (FileIdentity) o;
+            return modified == other.modified && size == other.size && Objects.equals(fileKey, other.fileKey);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(modified, size, fileKey);
+        }
+    }
+    
+    /**
+     * Point-in-time cache statistics
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long sharedLoads;
+        private final long evictions;
+        private final int size;
+        private final long weight;
+        
+        Stats(long hits, long misses, long sharedLoads, long evictions, int size, long weight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.sharedLoads = sharedLoads;
+            this.evictions = evictions;
+            this.size = size;
+            this.weight = weight;
+        }
+        
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        /** Requests that waited for a parse already running on another thread */
+        public long getSharedLoads() { return sharedLoads; }
+        public long getEvictions() { return evictions; }
+        public int getSize() { return size; }
+        public long getWeight() { return weight; }
+        
+        @Override
+        public String toString() {
+            return "YamlCache.Stats{hits=" + hits + ", misses=" + misses + ", sharedLoads=" + sharedLoads + ", evictions=" + evictions
+                    + ", size=" + size + ", weight=" + weight + "}";
+        }
+    }
+}
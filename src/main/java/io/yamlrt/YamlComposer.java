@@ -0,0 +1,216 @@
+package io.yamlrt;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Loads documents split into fragments with "!include other.yaml" values
+ *
+ * - an include value (map value or list item) names a file relative to the
+ *   including file; the composed view splices that file's tree in its place
+ * - each file is parsed once per composer and shared: every root that
+ *   includes it sees the same Yamlrt, so an edit made through one root is
+ *   visible through the others and saved once
+ * - a parsed fragment starts loading its own includes right away, so the
+ *   whole include graph loads in parallel on the executor
+ * - concurrent requests for the same file share one parse
+ *
+ * Cached fragments are not reloaded when the file changes on disk
+ * (they may hold unsaved edits): call invalidate() or clear() to reload.
+ *
+ * Usage:
+ *   YamlComposer composer = new YamlComposer();
+ *   ComposedYaml config = composer.load(new File("config/app.yaml"));
+ *   config.set("database.pool", 20);     // database: !include database.yaml
+ *   config.save();                       // rewrites database.yaml only
+ */
+public final class YamlComposer {
+    
+    static final String DIRECTIVE = "!include ";
+    
+    private final Executor executor;
+    
+    private final Map<Path, CompletableFuture<Fragment>> fragments = new ConcurrentHashMap<>();
+    
+    /**
+     * Load fragments on the common fork/join pool
+     */
+    public YamlComposer() {
+        this(ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Load fragments on the given executor
+     */
+    public YamlComposer(Executor executor) {
+        this.executor = executor;
+    }
+    
+    /**
+     * Load a root document and everything it includes, directly or indirectly
+     * @throws IOException if a file cannot be read, or on an include cycle
+     */
+    public ComposedYaml load(File file) throws IOException {
+        Fragment root = fragment(normalize(file.toPath()));
+        Map<Path, Fragment> closure = new LinkedHashMap<>();
+        try {
+            collect(root, closure, new ArrayList<>());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new ComposedYaml(this, root);
+    }
+    
+    /**
+     * Drop the cached fragment of a file (the next load parses it again)
+     */
+    public void invalidate(File file) {
+        fragments.remove(normalize(file.toPath()));
+    }
+    
+    public void clear() {
+        fragments.clear();
+    }
+    
+    /**
+     * Number of files parsed and cached
+     */
+    public int size() {
+        return fragments.size();
+    }
+    
+    // ==================== Loading ====================
+    
+    /**
+     * Cached fragment, waiting for its parse if it is still loading
+     */
+    Fragment fragment(Path path) throws IOException {
+        CompletableFuture<Fragment> future = start(path);
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            fragments.remove(path, future);
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException("Cannot load " + path, cause);
+        }
+    }
+    
+    private CompletableFuture<Fragment> start(Path path) {
+        CompletableFuture<Fragment> future = fragments.get(path);
+        if (future != null) return future;
+        CompletableFuture<Fragment> created = new CompletableFuture<>();
+        future = fragments.putIfAbsent(path, created);
+        if (future != null) return future;
+        // Scheduled outside the map update: parse() starts further loads
+        executor.execute(() -> {
+            try {
+                created.complete(parse(path));
+            } catch (Throwable t) {
+                created.completeExceptionally(t);
+            }
+        });
+        return created;
+    }
+    
+    private Fragment parse(Path path) {
+        Yamlrt document;
+        try {
+            document = Yamlrt.load(path.toFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Fragment fragment = new Fragment(path, document);
+        // Start the includes before anyone waits for them
+        for (Path include : includes(fragment)) {
+            start(include);
+        }
+        return fragment;
+    }
+    
+    /**
+     * Add fragment and everything it includes to closure (waiting for each parse)
+     */
+    void collect(Fragment fragment, Map<Path, Fragment> closure, List<Path> stack) {
+        if (stack.contains(fragment.path)) {
+            stack.add(fragment.path);
+            throw new UncheckedIOException(new IOException("Include cycle: " + stack));
+        }
+        if (closure.containsKey(fragment.path)) return;
+        closure.put(fragment.path, fragment);
+        stack.add(fragment.path);
+        for (Path include : includes(fragment)) {
+            try {
+                collect(fragment(include), closure, stack);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        stack.remove(stack.size() - 1);
+    }
+    
+    // ==================== Include values ====================
+    
+    /**
+     * Files included by the fragment's current tree, in document order
+     */
+    static List<Path> includes(Fragment fragment) {
+        List<Path> includes = new ArrayList<>();
+        collectIncludes(fragment.document.getRoot(), fragment.path, includes);
+        return includes;
+    }
+    
+    private static void collectIncludes(Object node, Path base, List<Path> includes) {
+        if (node instanceof Map) {
+            for (Object value : ((Map<?, ?>) node).values()) {
+                collectIncludes(value, base, includes);
+            }
+        } else if (node instanceof List) {
+            for (Object item : (List<?>) node) {
+                collectIncludes(item, base, includes);
+            }
+        } else {
+            Path target = target(node, base);
+            if (target != null) includes.add(target);
+        }
+    }
+    
+    /**
+     * File named by an include value, or null if value is not one
+     */
+    static Path target(Object value, Path base) {
+        if (!(value instanceof String) || !((String) value).startsWith(DIRECTIVE)) return null;
+        String name = ((String) value).substring(DIRECTIVE.length()).trim();
+        if (name.isEmpty()) return null;
+        Path dir = base.getParent();
+        return normalize(dir != null ? dir.resolve(name) : Path.of(name));
+    }
+    
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+    
+    /**
+     * One parsed file; modified is set by any reported edit until it is saved
+     */
+    static final class Fragment {
+        final Path path;
+        final Yamlrt document;
+        volatile boolean modified;
+        
+        Fragment(Path path, Yamlrt document) {
+            this.path = path;
+            this.document = document;
+            document.addChangeListener(paths -> modified = true);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package io.yamlrt;
+
+import io.yamlrt.core.*;
+
+import java.util.*;
+
+/**
+ * Path-level differences between two document trees
+ *
+ * Identical references are skipped without descending, so comparing
+ * structurally shared versions (see VersionHistory) only visits the
+ * containers that were actually copied by an edit. Commented containers
+ * with equal cached subtree hashes (see MerkleHash) are skipped as well, so
+ * separately parsed documents cost one hashing pass, and after that only
+ * the edited paths are visited.
+ *
+ * Paths of ADDED changes and of changes inside matched items refer to the
+ * new tree; REMOVED paths refer to the old one.
+ */
+public final class YamlDiff {
+    
+    public enum Kind { ADDED, REMOVED, MODIFIED, REORDERED, COMMENT_CHANGED }
+    
+    /**
+     * One changed path
+     *
+     * REORDERED: old/new values are the keys (or listKey values) in each order.
+     * COMMENT_CHANGED: old/new values are the comment lines, or null if none.
+     */
+    public static final class Change {
+        private final Kind kind;
+        private final String path;
+        private final Object oldValue;
+        private final Object newValue;
+        
+        Change(Kind kind, String path, Object oldValue, Object newValue) {
+            this.kind = kind;
+            this.path = path;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+        
+        public Kind getKind() { return kind; }
+        public String getPath() { return path; }
+        public Object getOldValue() { return oldValue; }
+        public Object getNewValue() { return newValue; }
+        
+        @Override
+        public String toString() {
+            return kind + " " + path + ": " + oldValue + " -> " + newValue;
+        }
+    }
+    
+    private final DiffOptions options;
+    private final List<Object> path = new ArrayList<>();
+    private final List<Change> out = new ArrayList<>();
+    
+    private YamlDiff(DiffOptions options) {
+        this.options = options;
+    }
+    
+    /**
+     * Compare two trees by value (maps by key, lists by index)
+     */
+    public static List<Change> diff(Object a, Object b) {
+        return diff(a, b, DiffOptions.values());
+    }
+    
+    /**
+     * Compare two documents: values, key order and comments (lists by index)
+     */
+    public static List<Change> diff(CommentedMap<?, ?> a, CommentedMap<?, ?> b) {
+        return diff(a, b, DiffOptions.structural());
+    }
+    
+    public static List<Change> diff(Object a, Object b, DiffOptions options) {
+        YamlDiff diff = new YamlDiff(options);
+        diff.compare(a, b);
+        return diff.out;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void compare(Object a, Object b) {
+        if (a == b) return;
+        
+        if (a instanceof Map && b instanceof Map) {
+            if (sameHash(a, b)) return;
+            compareMaps((Map<Object, Object>) a, (Map<Object, Object>) b);
+        } else if (a instanceof List && b instanceof List) {
+            if (sameHash(a, b)) return;
+            List<Object> left = (List<Object>) a;
+            List<Object> right = (List<Object>) b;
+            if (!compareKeyed(left, right)) compareByIndex(left, right);
+        } else if (!Objects.equals(a, b)) {
+            add(Kind.MODIFIED, a, b);
+        }
+    }
+    
+    /**
+     * Equal cached hashes of two tracked containers (plain ones would be rehashed at every level)
+     */
+    private boolean sameHash(Object a, Object b) {
+        if (!isTracked(a) || !isTracked(b)) return false;
+        if (options.isComments() || options.isKeyOrder()) {
+            return MerkleHash.withComments(a) == MerkleHash.withComments(b);
+        }
+        return MerkleHash.of(a) == MerkleHash.of(b);
+    }
+    
+    private static boolean isTracked(Object value) {
+        return value instanceof CommentedMap || value instanceof CommentedList;
+    }
+    
+    // ==================== Maps ====================
+    
+    private void compareMaps(Map<Object, Object> left, Map<Object, Object> right) {
+        Comment leftCa = comments(left);
+        Comment rightCa = comments(right);
+        compareContainerComments(leftCa, rightCa);
+        
+        for (Map.Entry<Object, Object> entry : left.entrySet()) {
+            Object key = entry.getKey();
+            path.add(String.valueOf(key));
+            if (!right.containsKey(key)) {
+                add(Kind.REMOVED, entry.getValue(), null);
+            } else {
+                compareSlots(leftCa, key, rightCa, key);
+                compare(entry.getValue(), right.get(key));
+            }
+            path.remove(path.size() - 1);
+        }
+        for (Map.Entry<Object, Object> entry : right.entrySet()) {
+            if (!left.containsKey(entry.getKey())) {
+                path.add(String.valueOf(entry.getKey()));
+                add(Kind.ADDED, null, entry.getValue());
+                path.remove(path.size() - 1);
+            }
+        }
+        
+        if (options.isKeyOrder()) {
+            List<Object> leftOrder = commonKeys(left.keySet(), right);
+            List<Object> rightOrder = commonKeys(right.keySet(), left);
+            if (!leftOrder.equals(rightOrder)) {
+                add(Kind.REORDERED, leftOrder, rightOrder);
+            }
+        }
+    }
+    
+    private static List<Object> commonKeys(Collection<Object> keys, Map<Object, Object> other) {
+        List<Object> common = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            if (other.containsKey(key)) common.add(key);
+        }
+        return common;
+    }
+    
+    // ==================== Lists ====================
+    
+    private void compareByIndex(List<Object> left, List<Object> right) {
+        Comment leftCa = comments(left);
+        Comment rightCa = comments(right);
+        compareContainerComments(leftCa, rightCa);
+        
+        int common = Math.min(left.size(), right.size());
+        for (int i = 0; i < Math.max(left.size(), right.size()); i++) {
+            path.add(i);
+            if (i < common) {
+                compareSlots(leftCa, i, rightCa, i);
+                compare(left.get(i), right.get(i));
+            } else if (i < left.size()) {
+                add(Kind.REMOVED, left.get(i), null);
+            } else {
+                add(Kind.ADDED, null, right.get(i));
+            }
+            path.remove(path.size() - 1);
+        }
+    }
+    
+    /**
+     * Match mapping items by options.listKey
+     * @return false if either list cannot be keyed (then compare by index)
+     */
+    private boolean compareKeyed(List<Object> left, List<Object> right) {
+        if (options.getListKey() == null) return false;
+        Map<Object, Integer> leftIndex = keyIndex(left);
+        if (leftIndex == null) return false;
+        Map<Object, Integer> rightIndex = keyIndex(right);
+        if (rightIndex == null) return false;
+        
+        Comment leftCa = comments(left);
+        Comment rightCa = comments(right);
+        compareContainerComments(leftCa, rightCa);
+        
+        List<Object> leftOrder = new ArrayList<>();
+        for (Map.Entry<Object, Integer> entry : leftIndex.entrySet()) {
+            Integer j = rightIndex.get(entry.getKey());
+            int i = entry.getValue();
+            if (j == null) {
+                path.add(i);
+                add(Kind.REMOVED, left.get(i), null);
+                path.remove(path.size() - 1);
+            } else {
+                leftOrder.add(entry.getKey());
+            }
+        }
+        List<Object> rightOrder = new ArrayList<>();
+        for (Map.Entry<Object, Integer> entry : rightIndex.entrySet()) {
+            Integer i = leftIndex.get(entry.getKey());
+            int j = entry.getValue();
+            path.add(j);
+            if (i == null) {
+                add(Kind.ADDED, null, right.get(j));
+            } else {
+                rightOrder.add(entry.getKey());
+                compareSlots(leftCa, i, rightCa, j);
+                compare(left.get(i), right.get(j));
+            }
+            path.remove(path.size() - 1);
+        }
+        
+        if (options.isKeyOrder() && !leftOrder.equals(rightOrder)) {
+            add(Kind.REORDERED, leftOrder, rightOrder);
+        }
+        return true;
+    }
+    
+    /**
+     * Item index per listKey value, in list order (null if an item has no key or a key repeats)
+     */
+    private Map<Object, Integer> keyIndex(List<Object> list) {
+        String field = options.getListKey();
+        Map<Object, Integer> index = new LinkedHashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            Object item = list.get(i);
+            if (!(item instanceof Map)) return null;
+            Object key = ((Map<?, ?>) item).get(field);
+            if (key == null || index.putIfAbsent(key, i) != null) return null;
+        }
+        return index;
+    }
+    
+    // ==================== Comments ====================
+    
+    private static Comment comments(Object container) {
+        if (container instanceof CommentedMap) return ((CommentedMap<?, ?>) container).ca();
+        if (container instanceof CommentedList) return ((CommentedList<?>) container).ca();
+        return null;
+    }
+    
+    private void compareContainerComments(Comment left, Comment right) {
+        if (!options.isComments()) return;
+        List<String> before = new ArrayList<>();
+        List<String> after = new ArrayList<>();
+        if (left != null) {
+            addComment(before, left.getContainerEol());
+            addComments(before, left.getContainerPre());
+            addComments(before, left.getEnd());
+        }
+        if (right != null) {
+            addComment(after, right.getContainerEol());
+            addComments(after, right.getContainerPre());
+            addComments(after, right.getEnd());
+        }
+        if (!before.equals(after)) {
+            add(Kind.COMMENT_CHANGED, before.isEmpty() ? null : before, after.isEmpty() ? null : after);
+        }
+    }
+    
+    private void compareSlots(Comment left, Object leftKey, Comment right, Object rightKey) {
+        if (!options.isComments()) return;
+        Comment.CommentSlot leftSlot = left != null ? left.getSlot(leftKey) : null;
+        Comment.CommentSlot rightSlot = right != null ? right.getSlot(rightKey) : null;
+        if (leftSlot == rightSlot || sameTokens(leftSlot, rightSlot)) return;
+        List<String> before = slotComments(leftSlot);
+        List<String> after = slotComments(rightSlot);
+        if (!Objects.equals(before, after)) {
+            add(Kind.COMMENT_CHANGED, before, after);
+        }
+    }
+    
+    /**
+     * Same token text in both slots (checked without building the comment lists)
+     */
+    private static boolean sameTokens(Comment.CommentSlot a, Comment.CommentSlot b) {
+        if (a == null || b == null) return false;
+        return sameTokens(a.getKeyPre(), b.getKeyPre()) && sameToken(a.getKeyEol(), b.getKeyEol())
+                && sameTokens(a.getValuePre(), b.getValuePre()) && sameToken(a.getValueEol(), b.getValueEol());
+    }
+    
+    private static boolean sameTokens(List<CommentToken> a, List<CommentToken> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!sameToken(a.get(i), b.get(i))) return false;
+        }
+        return true;
+    }
+    
+    private static boolean sameToken(CommentToken a, CommentToken b) {
+        if (a == b) return true;
+        return a != null && b != null && Objects.equals(a.getValue(), b.getValue());
+    }
+    
+    /**
+     * Comment lines attached to one key or item (blank lines ignored), or null
+     */
+    private static List<String> slotComments(Comment.CommentSlot slot) {
+        if (slot == null) return null;
+        List<String> lines = new ArrayList<>();
+        addComments(lines, slot.getKeyPre());
+        addComment(lines, slot.getKeyEol());
+        addComments(lines, slot.getValuePre());
+        addComment(lines, slot.getValueEol());
+        return lines.isEmpty() ? null : lines;
+    }
+    
+    private static void addComments(List<String> lines, List<CommentToken> tokens) {
+        for (CommentToken token : tokens) {
+            addComment(lines, token);
+        }
+    }
+    
+    private static void addComment(List<String> lines, CommentToken token) {
+        if (token != null && token.isComment()) lines.add(token.getContent());
+    }
+    
+    private void add(Kind kind, Object oldValue, Object newValue) {
+        out.add(new Change(kind, YamlPath.format(path), oldValue, newValue));
+    }
+}
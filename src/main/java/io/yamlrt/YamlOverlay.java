@@ -0,0 +1,323 @@
+package io.yamlrt;
+
+import io.yamlrt.core.*;
+
+import java.util.*;
+
+/**
+ * Read-only view of several documents stacked on top of each other
+ *
+ * - get(path) checks the layers from the top down: the topmost value wins,
+ *   mappings present in several layers are merged key by key (deep merge);
+ *   lists and scalars replace whatever is below
+ * - nothing is copied up front: a value defined by one layer is returned as
+ *   that layer's own node, and a merged mapping is built only when it is
+ *   asked for (get, getRoot, dump); it holds the layers' child nodes rather
+ *   than copies, so memory follows the size of the overlays, not layers x base
+ * - merged keys keep the comments of the topmost layer that has some for them;
+ *   container comments come from the lowest layer
+ * - precompute() adds a flat path index for hot reads: one hash lookup per get
+ *
+ * Edits go to the layers (set, remove, transaction, patches); the view drops
+ * only the merged mappings on the edited paths. Direct changes to a layer's
+ * root map are not reported: call invalidate() after them. Replacing a
+ * layer's root (setRoot, rollbackTo) is detected.
+ *
+ * Not thread-safe (same contract as Yamlrt); returned containers are views
+ * into the layers and must not be modified.
+ *
+ * Usage:
+ *   YamlOverlay config = YamlOverlay.of(base, production, host);   // bottom to top
+ *   int port = config.getInt("server.port");
+ *   String effective = config.dump();
+ */
+public final class YamlOverlay implements ReadableYaml {
+    
+    private final List<Yamlrt> layers;  // top first
+    private final CommentedMap<?, ?>[] roots;  // roots the caches were built from
+    private final ChangeListener listener = this::onLayerChange;
+    
+    // Merged mappings by path ("" for the root)
+    private final Map<String, CommentedMap<String, Object>> merged = new HashMap<>();
+    
+    private boolean precompute;
+    private Map<String, Object> flat;
+    
+    private YamlOverlay(List<Yamlrt> bottomToTop) {
+        if (bottomToTop.isEmpty()) {
+            throw new IllegalArgumentException("Overlay needs at least one layer");
+        }
+        this.layers = new ArrayList<>(bottomToTop);
+        Collections.reverse(layers);
+        this.roots = new CommentedMap<?, ?>[layers.size()];
+        for (int i = 0; i < layers.size(); i++) {
+            roots[i] = layers.get(i).getRoot();
+            layers.get(i).addChangeListener(listener);
+        }
+    }
+    
+    /**
+     * Stack documents: the first is the base, each next one overrides the previous
+     */
+    public static YamlOverlay of(Yamlrt... bottomToTop) {
+        return new YamlOverlay(Arrays.asList(bottomToTop));
+    }
+    
+    public static YamlOverlay of(List<Yamlrt> bottomToTop) {
+        return new YamlOverlay(bottomToTop);
+    }
+    
+    /**
+     * Layers, base first
+     */
+    public List<Yamlrt> getLayers() {
+        List<Yamlrt> bottomToTop = new ArrayList<>(layers);
+        Collections.reverse(bottomToTop);
+        return Collections.unmodifiableList(bottomToTop);
+    }
+    
+    // ==================== Reads ====================
+    
+    @Override
+    public Object get(String path) {
+        checkRoots();
+        if (precompute) {
+            if (flat == null) flat = buildIndex();
+            // Index keys are normalized paths; other spellings ("a.[0]", ".a") take the slow path
+            Object value = flat.get(path);
+            if (value == null && !flat.containsKey(path)) {
+                value = flat.get(YamlPath.format(YamlPath.parse(path)));
+            }
+            return value;
+        }
+        List<Object> segments = YamlPath.parse(path);
+        return resolve(YamlPath.format(segments), segments);
+    }
+    
+    /**
+     * Effective document (merged where layers overlap)
+     */
+    @SuppressWarnings("unchecked")
+    public CommentedMap<String, Object> getRoot() {
+        checkRoots();
+        return (CommentedMap<String, Object>) resolve("", Collections.emptyList());
+    }
+    
+    /**
+     * Effective document as YAML (comments and layout of the contributing layers)
+     */
+    public String dump() {
+        CommentedMap<String, Object> root = getRoot();
+        YamlWriter writer = new YamlWriter();
+        writer.setDocumentMarker(root.hasDocumentMarker());
+        return writer.write(root);
+    }
+    
+    /**
+     * Effective document as an independent snapshot
+     */
+    public YamlSnapshot freeze() {
+        return YamlSnapshot.of(getRoot());
+    }
+    
+    // ==================== Flat index ====================
+    
+    /**
+     * Resolve every path once and answer get() from a flat index until the next edit
+     */
+    public YamlOverlay precompute() {
+        precompute = true;
+        return this;
+    }
+    
+    private Map<String, Object> buildIndex() {
+        Map<String, Object> index = new HashMap<>();
+        index(getRoot(), new ArrayList<>(), index);
+        return index;
+    }
+    
+    private static void index(Object value, List<Object> path, Map<String, Object> index) {
+        index.put(YamlPath.format(path), value);
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                path.add(String.valueOf(entry.getKey()));
+                index(entry.getValue(), path, index);
+                path.remove(path.size() - 1);
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            for (int i = 0; i < list.size(); i++) {
+                path.add(i);
+                index(list.get(i), path, index);
+                path.remove(path.size() - 1);
+            }
+        }
+    }
+    
+    // ==================== Invalidation ====================
+    
+    /**
+     * Drop everything resolved so far (after direct edits of a layer's root map)
+     */
+    public void invalidate() {
+        merged.values().forEach(YamlNodes::release);
+        merged.clear();
+        flat = null;
+    }
+    
+    /**
+     * Drop merged mappings on or below the edited paths
+     */
+    private void onLayerChange(List<String> paths) {
+        flat = null;
+        if (merged.isEmpty()) return;
+        for (String path : paths) {
+            merged.entrySet().removeIf(entry -> {
+                if (!related(entry.getKey(), path)) return false;
+                YamlNodes.release(entry.getValue());
+                return true;
+            });
+        }
+    }
+    
+    /**
+     * One path equals the other or is an ancestor of it
+     */
+    private static boolean related(String a, String b) {
+        String shorter = a.length() <= b.length() ? a : b;
+        String longer = a.length() <= b.length() ? b : a;
+        if (!longer.startsWith(shorter)) return false;
+        if (shorter.isEmpty() || longer.length() == shorter.length()) return true;
+        char next = longer.charAt(shorter.length());
+        return next == '.' || next == '[';
+    }
+    
+    private void checkRoots() {
+        for (int i = 0; i < layers.size(); i++) {
+            CommentedMap<?, ?> root = layers.get(i).getRoot();
+            if (root != roots[i]) {
+                roots[i] = root;
+                invalidate();
+            }
+        }
+    }
+    
+    /**
+     * Stop following edits of the layers (the view may still be read, invalidate() by hand)
+     */
+    public void close() {
+        for (Yamlrt layer : layers) {
+            layer.removeChangeListener(listener);
+        }
+    }
+    
+    // ==================== Resolution ====================
+    
+    /**
+     * Value at segments: the topmost layer's node, or a merged mapping if several layers define one
+     */
+    private Object resolve(String path, List<Object> segments) {
+        List<Object> contributors = new ArrayList<>(layers.size());
+        for (Yamlrt layer : layers) {
+            if (layer.getRoot() != null) contributors.add(layer.getRoot());
+        }
+        for (Object segment : segments) {
+            contributors = step(contributors, segment);
+            if (contributors.isEmpty()) return null;
+        }
+        if (contributors.size() == 1) {
+            return contributors.get(0);
+        }
+        CommentedMap<String, Object> map = merged.get(path);
+        if (map == null) {
+            map = merge(path, contributors);
+        }
+        return map;
+    }
+    
+    /**
+     * Nodes defining the child at segment, top first: one value, or several mappings
+     */
+    private static List<Object> step(List<Object> contributors, Object segment) {
+        List<Object> next = new ArrayList<>(contributors.size());
+        for (Object node : contributors) {
+            Object child;
+            if (segment instanceof Integer) {
+                if (!(node instanceof List)) break;
+                List<?> list = (List<?>) node;
+                int index = (Integer) segment;
+                if (index < 0 || index >= list.size()) break;
+                child = list.get(index);
+            } else {
+                if (!(node instanceof Map)) break;
+                Map<?, ?> map = (Map<?, ?>) node;
+                if (!map.containsKey(segment)) continue;
+                child = map.get(segment);
+            }
+            if (!next.isEmpty() && !(child instanceof Map)) break;  // shadowed from here down
+            next.add(child);
+            if (!(child instanceof Map)) break;
+        }
+        return next;
+    }
+    
+    /**
+     * Build (and cache) the mapping merged from several layers' mappings
+     */
+    @SuppressWarnings("unchecked")
+    private CommentedMap<String, Object> merge(String path, List<Object> contributors) {
+        Map<String, Object> bottom = (Map<String, Object>) contributors.get(contributors.size() - 1);
+        CommentedMap<String, Object> map = (bottom instanceof CommentedMap)
+                ? ((CommentedMap<String, Object>) bottom).shallowCopyWithComments()
+                : new CommentedMap<>(bottom);
+        
+        // Base keys keep their position; keys added by overlays follow, lowest layer first
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = contributors.size() - 1; i >= 0; i--) {
+            for (Object key : ((Map<?, ?>) contributors.get(i)).keySet()) {
+                keys.add(String.valueOf(key));
+            }
+        }
+        for (String key : keys) {
+            String childPath = path.isEmpty() ? key : path + "." + key;
+            List<Object> children = step(contributors, key);
+            map.put(key, children.size() == 1 ? children.get(0) : resolveMerged(childPath, children));
+            
+            // Slots of base keys were copied with the map
+            Comment.CommentSlot slot = slot(contributors, key);
+            if (slot != null && slot != comments(bottom, key)) {
+                map.ca().setSlot(key, slot.deepCopy());
+            }
+        }
+        merged.put(path, map);
+        return map;
+    }
+    
+    private CommentedMap<String, Object> resolveMerged(String path, List<Object> contributors) {
+        CommentedMap<String, Object> map = merged.get(path);
+        return map != null ? map : merge(path, contributors);
+    }
+    
+    /**
+     * Comments for key: from the topmost layer that has some, else that layer's plain slot
+     */
+    private static Comment.CommentSlot slot(List<Object> contributors, String key) {
+        Comment.CommentSlot fallback = null;
+        for (Object node : contributors) {
+            if (!((Map<?, ?>) node).containsKey(key)) continue;
+            Comment.CommentSlot slot = comments(node, key);
+            if (slot == null) continue;
+            if (hasComments(slot)) return slot;
+            if (fallback == null) fallback = slot;
+        }
+        return fallback;
+    }
+    
+    private static Comment.CommentSlot comments(Object map, String key) {
+        return (map instanceof CommentedMap) ? ((CommentedMap<?, ?>) map).ca().getSlot(key) : null;
+    }
+    
+    private static boolean hasComments(Comment.CommentSlot slot) {
+        return slot.hasKeyPre() || slot.hasValuePre() || slot.getKeyEol() != null || slot.getValueEol() != null;
+    }
+}
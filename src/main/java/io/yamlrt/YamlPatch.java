@@ -0,0 +1,447 @@
+package io.yamlrt;
+
+import io.yamlrt.core.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * JSON Patch (RFC 6902) and JSON Merge Patch (RFC 7396) applied to the commented tree
+ *
+ * - no conversion to plain maps: untouched keys keep their comments, blank
+ *   lines and cached output
+ * - list inserts and removes go through CommentedList, which shifts the
+ *   comment slots of the following items
+ * - "move" carries the moved key's or item's comment slot to the new location
+ * - JSON Patch is all or nothing: on a failed operation or "test", every
+ *   applied operation is rolled back (values, key order and comment slots)
+ * - merge patch is applied in one walk over the patch; keys whose value is
+ *   already equal are left untouched
+ *
+ * Patch documents are the plain Map / List / scalar values a JSON library
+ * produces. Values are deep-copied into Commented containers.
+ */
+final class YamlPatch {
+    
+    /**
+     * Marker for a path that does not exist (distinct from a null value)
+     */
+    static final Object MISSING = new Object();
+    
+    private final CommentedMap<String, Object> root;
+    private final Deque<Runnable> undo = new ArrayDeque<>();
+    // Edited locations in path segments: a map key, or the whole list for list edits
+    private final List<List<Object>> touched = new ArrayList<>();
+    
+    private YamlPatch(CommentedMap<String, Object> root) {
+        this.root = root;
+    }
+    
+    // ==================== JSON Patch ====================
+    
+    /**
+     * Apply the operations in order
+     * @return edited locations (see paths())
+     * @throws IllegalArgumentException on a malformed or failed operation (nothing is applied)
+     */
+    static List<List<Object>> applyJsonPatch(CommentedMap<String, Object> root,
+            List<? extends Map<String, ?>> operations) {
+        YamlPatch patch = new YamlPatch(root);
+        try {
+            for (int i = 0; i < operations.size(); i++) {
+                patch.apply(operations.get(i), i);
+            }
+        } catch (RuntimeException e) {
+            // Undo actions are stacked: most recent first
+            while (!patch.undo.isEmpty()) {
+                patch.undo.pop().run();
+            }
+            throw e;
+        }
+        return patch.touched;
+    }
+    
+    private void apply(Map<String, ?> operation, int index) {
+        String op = member(operation, "op", index);
+        List<String> path = pointer(member(operation, "path", index), index);
+        switch (op) {
+            case "add":
+                add(path, YamlNodes.deepCopy(value(operation, index)), null, index);
+                break;
+            case "remove":
+                remove(path, false, index);
+                break;
+            case "replace":
+                replace(path, YamlNodes.deepCopy(value(operation, index)), index);
+                break;
+            case "move": {
+                List<String> from = pointer(member(operation, "from", index), index);
+                if (path.size() > from.size() && path.subList(0, from.size()).equals(from)) {
+                    throw error(index, "cannot move " + format(from) + " into itself");
+                }
+                if (!path.equals(from)) {
+                    Detached moved = remove(from, true, index);
+                    add(path, moved.value, moved.slot, index);
+                }
+                break;
+            }
+            case "copy": {
+                List<String> from = pointer(member(operation, "from", index), index);
+                add(path, YamlNodes.deepCopy(get(from, index)), null, index);
+                break;
+            }
+            case "test": {
+                Object expected = value(operation, index);
+                if (!jsonEquals(get(path, index), expected)) {
+                    throw error(index, "test failed at " + format(path));
+                }
+                break;
+            }
+            default:
+                throw error(index, "unknown op '" + op + "'");
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void add(List<String> path, Object value, Comment.CommentSlot slot, int index) {
+        Object parent = parent(path, index);
+        String token = path.get(path.size() - 1);
+        if (parent instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) parent;
+            Yamlrt.putWithUndo(map, token, value, undo);
+            if (slot != null && map instanceof CommentedMap) {
+                moveSlot(((CommentedMap<String, Object>) map).ca(), token, slot);
+            }
+            touch(path.size(), path);
+        } else {
+            List<Object> list = (List<Object>) parent;
+            int at = "-".equals(token) ? list.size() : index(token, list.size() + 1, index);
+            list.add(at, value);
+            undo.push(() -> list.remove(at));
+            if (slot != null && list instanceof CommentedList) {
+                moveSlot(((CommentedList<Object>) list).ca(), at, slot);
+            }
+            touch(path.size() - 1, path);
+        }
+    }
+    
+    /**
+     * @param detach also take the comment slot away from the old location (for move)
+     */
+    @SuppressWarnings("unchecked")
+    private Detached remove(List<String> path, boolean detach, int index) {
+        Object parent = parent(path, index);
+        String token = path.get(path.size() - 1);
+        if (parent instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) parent;
+            if (!map.containsKey(token)) {
+                throw error(index, "no value at " + format(path));
+            }
+            Object oldValue = map.get(token);
+            int position = Yamlrt.indexOfKey(map, token);
+            Comment ca = (map instanceof CommentedMap) ? ((CommentedMap<String, Object>) map).ca() : null;
+            Comment.CommentSlot oldSlot = ca != null ? ca.getSlot(token) : null;
+            map.remove(token);
+            if (detach && oldSlot != null) ca.setSlot(token, null);
+            undo.push(() -> {
+                Yamlrt.reinsert(map, position, token, oldValue);
+                if (oldSlot != null) ca.setSlot(token, oldSlot);
+            });
+            touch(path.size(), path);
+            return new Detached(oldValue, detach ? oldSlot : null);
+        }
+        List<Object> list = (List<Object>) parent;
+        int at = index(token, list.size(), index);
+        Object oldValue = list.get(at);
+        Comment ca = (list instanceof CommentedList) ? ((CommentedList<Object>) list).ca() : null;
+        Comment.CommentSlot oldSlot = ca != null ? ca.getSlot(at) : null;
+        list.remove(at);
+        undo.push(() -> {
+            list.add(at, oldValue);
+            if (oldSlot != null) ca.setSlot(at, oldSlot);
+        });
+        touch(path.size() - 1, path);
+        return new Detached(oldValue, detach ? oldSlot : null);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void replace(List<String> path, Object value, int index) {
+        Object parent = parent(path, index);
+        String token = path.get(path.size() - 1);
+        if (parent instanceof Map) {
+            Map<String, Object> map = (Map<String, Object>) parent;
+            if (!map.containsKey(token)) {
+                throw error(index, "no value at " + format(path));
+            }
+            Yamlrt.putWithUndo(map, token, value, undo);
+            touch(path.size(), path);
+        } else {
+            List<Object> list = (List<Object>) parent;
+            int at = index(token, list.size(), index);
+            Object oldValue = list.set(at, value);
+            undo.push(() -> list.set(at, oldValue));
+            touch(path.size() - 1, path);
+        }
+    }
+    
+    /**
+     * Put a moved slot at its new key or index (restoring the previous one on undo)
+     */
+    private void moveSlot(Comment ca, Object key, Comment.CommentSlot slot) {
+        Comment.CommentSlot previous = ca.getSlot(key);
+        ca.setSlot(key, slot);
+        undo.push(() -> ca.setSlot(key, previous));
+    }
+    
+    /**
+     * Container holding the last token of path
+     */
+    private Object parent(List<String> path, int index) {
+        if (path.isEmpty()) {
+            throw error(index, "the document root cannot be added, removed or replaced");
+        }
+        Object parent = get(path.subList(0, path.size() - 1), index);
+        if (!(parent instanceof Map) && !(parent instanceof List)) {
+            throw error(index, "no container at " + format(path.subList(0, path.size() - 1)));
+        }
+        return parent;
+    }
+    
+    private Object get(List<String> path, int index) {
+        Object current = root;
+        for (int i = 0; i < path.size(); i++) {
+            String token = path.get(i);
+            if (current instanceof Map && ((Map<?, ?>) current).containsKey(token)) {
+                current = ((Map<?, ?>) current).get(token);
+            } else if (current instanceof List) {
+                List<?> list = (List<?>) current;
+                current = list.get(index(token, list.size(), index));
+            } else {
+                throw error(index, "no value at " + format(path.subList(0, i + 1)));
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Record the first length tokens of path as edited (list tokens as indexes)
+     */
+    private void touch(int length, List<String> path) {
+        List<Object> segments = new ArrayList<>(length);
+        Object current = root;
+        for (int i = 0; i < length; i++) {
+            String token = path.get(i);
+            if (current instanceof List) {
+                int at = Integer.parseInt(token);
+                segments.add(at);
+                current = ((List<?>) current).get(at);
+            } else {
+                segments.add(token);
+                current = ((Map<?, ?>) current).get(token);
+            }
+        }
+        touched.add(segments);
+    }
+    
+    private static final class Detached {
+        final Object value;
+        final Comment.CommentSlot slot;
+        
+        Detached(Object value, Comment.CommentSlot slot) {
+            this.value = value;
+            this.slot = slot;
+        }
+    }
+    
+    // ==================== JSON Merge Patch ====================
+    
+    /**
+     * Merge the patch into root (null removes a key, maps merge, anything else replaces)
+     * @return edited locations (see paths())
+     */
+    static List<List<Object>> applyMergePatch(CommentedMap<String, Object> root, Map<String, ?> patch) {
+        List<List<Object>> touched = new ArrayList<>();
+        merge(root, patch, new ArrayList<>(), touched);
+        return touched;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void merge(Map<String, Object> target, Map<?, ?> patch, List<Object> path,
+            List<List<Object>> touched) {
+        for (Map.Entry<?, ?> entry : patch.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            Object value = entry.getValue();
+            Object current = target.get(key);
+            path.add(key);
+            if (value == null) {
+                if (target.containsKey(key)) {
+                    target.remove(key);
+                    if (touched != null) touched.add(new ArrayList<>(path));
+                }
+            } else if (value instanceof Map && current instanceof Map) {
+                merge((Map<String, Object>) current, (Map<?, ?>) value, path, touched);
+            } else {
+                Object replacement;
+                if (value instanceof Map) {
+                    CommentedMap<String, Object> fresh = new CommentedMap<>();
+                    merge(fresh, (Map<?, ?>) value, path, null);
+                    replacement = fresh;
+                } else {
+                    replacement = YamlNodes.deepCopy(value);
+                }
+                if (!target.containsKey(key) || !Objects.equals(current, replacement)) {
+                    target.put(key, replacement);
+                    if (touched != null) touched.add(new ArrayList<>(path));
+                }
+            }
+            path.remove(path.size() - 1);
+        }
+    }
+    
+    // ==================== Helpers ====================
+    
+    /**
+     * Edited locations as path notation, dropping any covered by an edited ancestor
+     */
+    static List<String> paths(List<List<Object>> touched) {
+        List<List<Object>> covering = covering(touched);
+        List<String> paths = new ArrayList<>(covering.size());
+        for (List<Object> segments : covering) {
+            paths.add(YamlPath.format(segments));
+        }
+        return paths;
+    }
+    
+    static List<List<Object>> covering(List<List<Object>> touched) {
+        List<List<Object>> result = new ArrayList<>();
+        for (List<Object> candidate : new LinkedHashSet<>(touched)) {
+            boolean covered = false;
+            for (List<Object> other : touched) {
+                if (other.size() < candidate.size() && candidate.subList(0, other.size()).equals(other)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) result.add(candidate);
+        }
+        return result;
+    }
+    
+    /**
+     * Value at path segments, or MISSING if a segment does not exist
+     */
+    static Object valueAt(Object root, List<Object> segments) {
+        Object current = root;
+        for (Object segment : segments) {
+            if (segment instanceof Integer && current instanceof List) {
+                List<?> list = (List<?>) current;
+                int index = (Integer) segment;
+                if (index >= list.size()) return MISSING;
+                current = list.get(index);
+            } else if (current instanceof Map && ((Map<?, ?>) current).containsKey(segment)) {
+                current = ((Map<?, ?>) current).get(segment);
+            } else {
+                return MISSING;
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * JSON Pointer (RFC 6901) reference tokens
+     */
+    private static List<String> pointer(String pointer, int index) {
+        if (pointer.isEmpty()) return Collections.emptyList();
+        if (pointer.charAt(0) != '/') {
+            throw error(index, "invalid JSON Pointer '" + pointer + "'");
+        }
+        String[] parts = pointer.substring(1).split("/", -1);
+        List<String> tokens = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            tokens.add(part.replace("~1", "/").replace("~0", "~"));
+        }
+        return tokens;
+    }
+    
+    private static String format(List<String> tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (String token : tokens) {
+            sb.append('/').append(token.replace("~", "~0").replace("/", "~1"));
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Array index token: digits without leading zeros, below limit
+     */
+    private static int index(String token, int limit, int index) {
+        boolean valid = !token.isEmpty() && token.length() <= 9 && (token.equals("0") || token.charAt(0) != '0');
+        for (int i = 0; valid && i < token.length(); i++) {
+            valid = Character.isDigit(token.charAt(i));
+        }
+        if (!valid) {
+            throw error(index, "invalid array index '" + token + "'");
+        }
+        int value = Integer.parseInt(token);
+        if (value >= limit) {
+            throw error(index, "array index " + value + " out of bounds");
+        }
+        return value;
+    }
+    
+    private static String member(Map<String, ?> operation, String name, int index) {
+        Object value = operation.get(name);
+        if (!(value instanceof String)) {
+            throw error(index, "missing '" + name + "'");
+        }
+        return (String) value;
+    }
+    
+    private static Object value(Map<String, ?> operation, int index) {
+        if (!operation.containsKey("value")) {
+            throw error(index, "missing 'value'");
+        }
+        return operation.get("value");
+    }
+    
+    /**
+     * JSON equality: numbers by numeric value, containers member by member
+     */
+    private static boolean jsonEquals(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            if (isFinite((Number) a) && isFinite((Number) b)) {
+                return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString())) == 0;
+            }
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        }
+        if (a instanceof Map && b instanceof Map) {
+            Map<?, ?> left = (Map<?, ?>) a;
+            Map<?, ?> right = (Map<?, ?>) b;
+            if (left.size() != right.size()) return false;
+            for (Map.Entry<?, ?> entry : left.entrySet()) {
+                if (!right.containsKey(entry.getKey()) || !jsonEquals(entry.getValue(), right.get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof List && b instanceof List) {
+            List<?> left = (List<?>) a;
+            List<?> right = (List<?>) b;
+            if (left.size() != right.size()) return false;
+            for (int i = 0; i < left.size(); i++) {
+                if (!jsonEquals(left.get(i), right.get(i))) return false;
+            }
+            return true;
+        }
+        return Objects.equals(a, b);
+    }
+    
+    private static boolean isFinite(Number n) {
+        return !(n instanceof Double || n instanceof Float) || Double.isFinite(n.doubleValue());
+    }
+    
+    private static IllegalArgumentException error(int index, String message) {
+        return new IllegalArgumentException("JSON Patch operation " + index + ": " + message);
+    }
+}
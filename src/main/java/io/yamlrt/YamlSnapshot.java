@@ -0,0 +1,275 @@
+package io.yamlrt;
+
+import io.yamlrt.core.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deeply immutable document snapshot (see Yamlrt.freeze())
+ * 
+ * - any number of threads may read it without locks
+ * - edits go through a Builder that copies only the nodes on the edited paths;
+ *   every untouched subtree (and its comments) is shared with this snapshot
+ * - use AtomicSnapshot to publish new versions to readers
+ * 
+ * Usage:
+ *   YamlSnapshot snapshot = yaml.freeze();
+ *   int port = snapshot.getInt("server.port");
+ *   YamlSnapshot next = snapshot.toBuilder().set("server.port", 9090).build();
+ */
+public final class YamlSnapshot implements ReadableYaml {
+    
+    private static final int CACHE_LIMIT = 4096;
+    
+    private final CommentedMap<String, Object> root;
+    
+    // Values never change, so lookups can be cached for the snapshot's lifetime
+    private final Map<String, List<Object>> segmentCache = new ConcurrentHashMap<>();
+    private final Map<String, TypedValue> typedCache = new ConcurrentHashMap<>();
+    
+    YamlSnapshot(CommentedMap<String, Object> frozenRoot) {
+        this.root = frozenRoot;
+    }
+    
+    /**
+     * Snapshot of a tree (frozen subtrees are shared, the rest is copied)
+     */
+    @SuppressWarnings("unchecked")
+    public static YamlSnapshot of(CommentedMap<String, Object> root) {
+        return new YamlSnapshot((CommentedMap<String, Object>) YamlNodes.frozenCopy(root));
+    }
+    
+    // ==================== Reads ====================
+    
+    @Override
+    public Object get(String path) {
+        return YamlPath.get(root, segments(path));
+    }
+    
+    @Override
+    public TypedValue getTyped(String path) {
+        TypedValue typed = typedCache.get(path);
+        if (typed == null) {
+            if (typedCache.size() >= CACHE_LIMIT) {
+                typedCache.clear();
+            }
+            typed = TypedValue.of(get(path));
+            typedCache.put(path, typed);
+        }
+        return typed;
+    }
+    
+    private List<Object> segments(String path) {
+        List<Object> segments = segmentCache.get(path);
+        if (segments == null) {
+            if (segmentCache.size() >= CACHE_LIMIT) {
+                segmentCache.clear();
+            }
+            segments = YamlPath.parse(path);
+            segmentCache.put(path, segments);
+        }
+        return segments;
+    }
+    
+    /**
+     * Frozen root (mutators throw UnsupportedOperationException)
+     */
+    public CommentedMap<String, Object> getRoot() {
+        return root;
+    }
+    
+    public String dump() {
+        return new YamlWriter().write(root);
+    }
+    
+    /**
+     * Canonical compact YAML (see CanonicalWriter)
+     */
+    public String dumpCanonical() {
+        return CanonicalWriter.write(root);
+    }
+    
+    /**
+     * Hex SHA-256 of the canonical form: equal for equal data, whatever the formatting
+     */
+    public String contentHash() {
+        return CanonicalWriter.contentHash(root);
+    }
+    
+    /**
+     * 64-bit hash of the values, computed once per subtree and shared with
+     * later versions built from this snapshot (see MerkleHash)
+     */
+    public long treeHash() {
+        return MerkleHash.of(root);
+    }
+    
+    public long treeHash(boolean includeComments) {
+        return includeComments ? MerkleHash.withComments(root) : MerkleHash.of(root);
+    }
+    
+    /**
+     * Mutable Yamlrt with a deep copy of this snapshot
+     */
+    @SuppressWarnings("unchecked")
+    public Yamlrt thaw() {
+        Yamlrt yaml = Yamlrt.create();
+        yaml.setRoot((CommentedMap<String, Object>) YamlNodes.deepCopy(root));
+        return yaml;
+    }
+    
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+    
+    // ==================== Builder (copy-on-write) ====================
+    
+    /**
+     * Copy-on-write editor: each edit copies the containers on its path once,
+     * build() freezes only those copies and returns a new snapshot.
+     */
+    public static final class Builder {
+        
+        private final YamlSnapshot base;
+        private CommentedMap<String, Object> root;
+        
+        // Containers copied by this builder (still mutable until build)
+        private final Set<Object> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+        
+        private Builder(YamlSnapshot base) {
+            this.base = base;
+            this.root = base.root;
+        }
+        
+        /**
+         * Set value by path (same semantics as Yamlrt.set)
+         */
+        @SuppressWarnings("unchecked")
+        public Builder set(String path, Object value) {
+            List<Object> segments = YamlPath.parse(path);
+            Object frozenValue = YamlNodes.frozenCopy(value);
+            Object current = writableRoot();
+            
+            // Navigate to parent, copying each container on the way
+            for (int i = 0; i < segments.size() - 1; i++) {
+                Object segment = segments.get(i);
+                Object next = null;
+                
+                if (segment instanceof Integer) {
+                    int index = (Integer) segment;
+                    if (current instanceof List) {
+                        List<Object> list = (List<Object>) current;
+                        if (index >= 0 && index < list.size()) {
+                            next = writable(list.get(index));
+                            if (next != list.get(index)) list.set(index, next);
+                        }
+                    }
+                } else if (current instanceof Map) {
+                    Map<String, Object> map = (Map<String, Object>) current;
+                    String key = (String) segment;
+                    next = map.get(key);
+                    if (next == null) {
+                        next = (segments.get(i + 1) instanceof Integer) ? new CommentedList<>() : new CommentedMap<>();
+                        owned.add(next);
+                        map.put(key, next);
+                    } else {
+                        Object copy = writable(next);
+                        if (copy != next) map.put(key, copy);
+                        next = copy;
+                    }
+                }
+                
+                if (next == null) {
+                    throw new IllegalArgumentException("Cannot navigate path: " + path + " (failed at segment " + segment + ")");
+                }
+                current = next;
+            }
+            
+            Object lastSegment = segments.get(segments.size() - 1);
+            if (lastSegment instanceof Integer) {
+                if (!(current instanceof List)) {
+                    throw new IllegalArgumentException("Cannot set index on non-list: " + path);
+                }
+                List<Object> list = (List<Object>) current;
+                int index = (Integer) lastSegment;
+                while (list.size() <= index) {
+                    list.add(null);
+                }
+                list.set(index, frozenValue);
+            } else {
+                if (!(current instanceof Map)) {
+                    throw new IllegalArgumentException("Cannot set key on non-map: " + path);
+                }
+                ((Map<String, Object>) current).put((String) lastSegment, frozenValue);
+            }
+            return this;
+        }
+        
+        /**
+         * Remove value by path (no-op if the path does not exist)
+         */
+        @SuppressWarnings("unchecked")
+        public Builder remove(String path) {
+            List<Object> segments = YamlPath.parse(path);
+            if (segments.isEmpty()) return this;
+            
+            List<Object> parentSegments = segments.subList(0, segments.size() - 1);
+            Object parent = YamlPath.get(root, parentSegments);
+            Object last = segments.get(segments.size() - 1);
+            boolean exists = (last instanceof Integer)
+                    ? parent instanceof List && (Integer) last >= 0 && (Integer) last < ((List<?>) parent).size()
+                    : parent instanceof Map && ((Map<?, ?>) parent).containsKey(last);
+            if (!exists) return this;
+            
+            // Copy the path down to the parent, then remove from the copy
+            Object current = writableRoot();
+            for (Object segment : parentSegments) {
+                Object child;
+                if (segment instanceof Integer) {
+                    List<Object> list = (List<Object>) current;
+                    child = writable(list.get((Integer) segment));
+                    list.set((Integer) segment, child);
+                } else {
+                    Map<String, Object> map = (Map<String, Object>) current;
+                    child = writable(map.get(segment));
+                    map.put((String) segment, child);
+                }
+                current = child;
+            }
+            if (last instanceof Integer) {
+                ((List<Object>) current).remove((int) (Integer) last);
+            } else {
+                ((Map<String, Object>) current).remove(last);
+            }
+            return this;
+        }
+        
+        /**
+         * Freeze the copied containers and return the new snapshot
+         */
+        public YamlSnapshot build() {
+            if (root == base.root) {
+                return base;
+            }
+            root.freeze();
+            owned.clear();
+            return new YamlSnapshot(root);
+        }
+        
+        @SuppressWarnings("unchecked")
+        private CommentedMap<String, Object> writableRoot() {
+            root = (CommentedMap<String, Object>) writable(root);
+            return root;
+        }
+        
+        private Object writable(Object node) {
+            if (!(node instanceof Map || node instanceof List) || owned.contains(node)) {
+                return node;
+            }
+            Object copy = YamlNodes.shallowCopy(node);
+            owned.add(copy);
+            return copy;
+        }
+    }
+}
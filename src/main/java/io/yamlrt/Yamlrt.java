@@ -3,9 +3,16 @@ package io.yamlrt;
 import io.yamlrt.core.*;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * yamlrt - YAML Round-Trip Library (ruamel.yaml style)
@@ -32,12 +39,27 @@ import java.util.*;
  *   yaml.save(new File("config.yaml"));
  *   String output = yaml.dump();
  */
-public class Yamlrt {
+public class Yamlrt implements ReadableYaml {
     
     private YamlParser parser;
     private YamlWriter writer;
     private CommentedMap<String, Object> root;
     
+    // Parsed path segments and typed conversions, keyed by path string
+    private static final int PATH_CACHE_LIMIT = 4096;
+    private final Map<String, CachedPath> pathCache = new ConcurrentHashMap<>();
+    
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    
+    // Shared by all load(File) calls (null unless setParseCache was called)
+    private static volatile ParseCache parseCache;
+    
+    // Structurally shared version history (null unless enableVersioning was called)
+    private VersionHistory history;
+    
+    // ${...} resolution on reads (null unless enableInterpolation was called)
+    private volatile Interpolator interpolator;
+    
     public Yamlrt() {
         this.parser = new YamlParser();
         this.writer = new YamlWriter();
@@ -58,10 +80,38 @@ public class Yamlrt {
      * Load YAML from file (static factory)
      */
     public static Yamlrt load(File file) throws IOException {
+        ParseCache cache = parseCache;
+        if (cache != null) {
+            Yamlrt instance = new Yamlrt();
+            instance.root = cache.load(file.toPath());
+            return instance;
+        }
         String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
         return load(content);
     }
     
+    /**
+     * Opt-in on-disk snapshot cache for load(File); null turns it off
+     */
+    public static void setParseCache(ParseCache cache) {
+        parseCache = cache;
+    }
+    
+    public static ParseCache getParseCache() {
+        return parseCache;
+    }
+    
+    /**
+     * Load a binary snapshot written by saveSnapshot() (no YAML text is scanned)
+     */
+    public static Yamlrt loadSnapshot(File file) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            Yamlrt instance = new Yamlrt();
+            instance.root = BinarySnapshot.read(in);
+            return instance;
+        }
+    }
+    
     /**
      * Create empty Yamlrt instance
      */
@@ -78,7 +128,7 @@ public class Yamlrt {
      * For new code, prefer static Yamlrt.load(yaml)
      */
     public CommentedMap<String, Object> loadYaml(String yaml) {
-        this.root = parser.parse(yaml);
+        setRoot(parser.parse(yaml));
         return root;
     }
     
@@ -87,218 +137,457 @@ public class Yamlrt {
     /**
      * Get value by path (e.g., "server.host", "Services[0].ServiceName")
      */
+    @Override
     public Object get(String path) {
-        return getByPath(root, path);
+        CachedPath cached = cachedPath(path);
+        return interpolate(cached, YamlPath.get(root, cached.segments));
     }
     
     /**
-     * Get value by path with default
+     * Get value by path as written in the document (no ${...} resolution)
      */
-    public Object get(String path, Object defaultValue) {
-        Object value = get(path);
-        return value != null ? value : defaultValue;
+    public Object getRaw(String path) {
+        return YamlPath.get(root, cachedPath(path).segments);
     }
     
     /**
-     * Get String value by path
+     * Get typed view of the value at path (conversions cached until the value changes)
      */
-    public String getString(String path) {
-        Object value = get(path);
-        return value != null ? String.valueOf(value) : null;
+    @Override
+    public TypedValue getTyped(String path) {
+        return typed(path);
     }
     
+    // ==================== Setter Methods (Path Notation) ====================
+    
     /**
-     * Get String value by path with default
+     * Set value by path (e.g., "server.port", "Services[0].Airline")
      */
-    public String getString(String path, String defaultValue) {
-        String value = getString(path);
-        return value != null ? value : defaultValue;
+    public void set(String path, Object value) {
+        setByPath(root, path, value, null);
+        if (history != null) {
+            history.record(b -> b.set(path, value));
+        }
+        fireChange(Collections.singletonList(path));
     }
     
+    // ==================== Transactions ====================
+    
     /**
-     * Get int value by path
+     * Apply several edits as one unit
+     * 
+     *   yaml.transaction(tx -> {
+     *       tx.set("server.port", 9090);
+     *       tx.remove("old.config");
+     *   });
+     * 
+     * Edits are buffered and applied in order after the body returns.
+     * If any path cannot be reached, every applied edit is rolled back
+     * (values, key order and comment slots) and IllegalArgumentException is thrown.
+     * Listeners are notified once with all edited paths.
      */
-    public int getInt(String path) {
-        Object value = get(path);
-        if (value instanceof Number) {
-            return ((Number) value).intValue();
-        }
-        if (value instanceof String) {
-            return Integer.parseInt((String) value);
-        }
-        throw new IllegalArgumentException("Cannot convert to int: " + path);
+    public void transaction(Consumer<Transaction> body) {
+        Transaction tx = new Transaction();
+        body.accept(tx);
+        apply(tx);
     }
     
     /**
-     * Get int value by path with default
+     * Apply a buffered transaction (all or nothing)
      */
-    public int getInt(String path, int defaultValue) {
+    void apply(Transaction tx) {
+        if (tx.isEmpty()) return;
+        
+        Deque<Runnable> undo = new ArrayDeque<>();
         try {
-            Object value = get(path);
-            if (value == null) return defaultValue;
-            if (value instanceof Number) {
-                return ((Number) value).intValue();
+            for (Transaction.Edit edit : tx.edits()) {
+                if (edit.remove) {
+                    removeByPath(root, edit.path, undo);
+                } else {
+                    setByPath(root, edit.path, edit.value, undo);
+                }
             }
-            if (value instanceof String) {
-                return Integer.parseInt((String) value);
+        } catch (RuntimeException e) {
+            // Undo actions are stacked: most recent first
+            while (!undo.isEmpty()) {
+                undo.pop().run();
             }
-        } catch (Exception e) {
-            // ignore
+            throw e;
         }
-        return defaultValue;
+        if (history != null) {
+            history.record(b -> {
+                for (Transaction.Edit edit : tx.edits()) {
+                    if (edit.remove) {
+                        b.remove(edit.path);
+                    } else {
+                        b.set(edit.path, edit.value);
+                    }
+                }
+            });
+        }
+        fireChange(tx.paths());
+    }
+    
+    // ==================== Patches ====================
+    
+    /**
+     * Apply a JSON Patch (RFC 6902) in place, keeping comments on untouched keys
+     * 
+     *   yaml.applyJsonPatch(List.of(
+     *       Map.of("op", "replace", "path", "/server/port", "value", 9090),
+     *       Map.of("op", "add", "path", "/Services/-", "value", service)));
+     * 
+     * Paths are JSON Pointers. All or nothing: if an operation fails (including
+     * "test"), every applied operation is rolled back and IllegalArgumentException
+     * is thrown. Records one version and notifies listeners once.
+     */
+    public void applyJsonPatch(List<? extends Map<String, ?>> operations) {
+        recordPatch(YamlPatch.applyJsonPatch(root, operations));
     }
     
     /**
-     * Get long value by path
+     * Apply a JSON Merge Patch (RFC 7396) in place, keeping comments on untouched keys
+     * 
+     * null removes a key, nested maps are merged, any other value replaces.
+     * Keys whose value is already equal are not touched.
      */
-    public long getLong(String path) {
-        Object value = get(path);
-        if (value instanceof Number) {
-            return ((Number) value).longValue();
+    public void applyMergePatch(Map<String, ?> patch) {
+        if (patch == null) {
+            throw new IllegalArgumentException("Merge patch for a document must be a mapping");
         }
-        if (value instanceof String) {
-            return Long.parseLong((String) value);
+        recordPatch(YamlPatch.applyMergePatch(root, patch));
+    }
+    
+    private void recordPatch(List<List<Object>> touched) {
+        if (touched.isEmpty()) return;
+        List<List<Object>> covering = YamlPatch.covering(touched);
+        if (history != null) {
+            history.record(b -> {
+                for (List<Object> segments : covering) {
+                    Object value = YamlPatch.valueAt(root, segments);
+                    if (value == YamlPatch.MISSING) {
+                        b.remove(YamlPath.format(segments));
+                    } else {
+                        b.set(YamlPath.format(segments), value);
+                    }
+                }
+            });
         }
-        throw new IllegalArgumentException("Cannot convert to long: " + path);
+        fireChange(YamlPatch.paths(covering));
     }
     
+    // ==================== Interpolation ====================
+    
     /**
-     * Get long value by path with default
+     * Resolve ${ENV_VAR} and ${other.path} references in string values on read
+     * 
+     *   url: jdbc:postgresql://${db.host}:${DB_PORT:-5432}/app
+     * 
+     * Names that are not paths of this document are read from the environment.
+     * Each string is parsed once; resolved values are memoized and only the
+     * values depending on an edited path are recomputed. dump() and save()
+     * keep the raw ${...} text (see getRaw). Direct changes to the root map
+     * are not tracked: call enableInterpolation again after them.
+     * @throws IllegalArgumentException on read, for an unresolved or circular reference;
+     *         getters with a default throw too (a broken reference is not a missing
+     *         value: write ${NAME:-default} to make a variable optional)
      */
-    public long getLong(String path, long defaultValue) {
-        try {
-            Object value = get(path);
-            if (value == null) return defaultValue;
-            if (value instanceof Number) {
-                return ((Number) value).longValue();
-            }
-            if (value instanceof String) {
-                return Long.parseLong((String) value);
+    public void enableInterpolation() {
+        enableInterpolation(System::getenv);
+    }
+    
+    /**
+     * Resolve references, looking up non-path names with variables (null if undefined)
+     */
+    public void enableInterpolation(Function<String, String> variables) {
+        this.interpolator = new Interpolator(variables);
+    }
+    
+    public void disableInterpolation() {
+        this.interpolator = null;
+    }
+    
+    // ==================== Change Listeners ====================
+    
+    /**
+     * Register listener called after set/remove/transaction
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    private void fireChange(List<String> paths) {
+        Interpolator interp = interpolator;
+        if (interp != null) {
+            List<String> keys = new ArrayList<>(paths.size());
+            for (String path : paths) {
+                keys.add(cachedPath(path).key());
             }
-        } catch (Exception e) {
-            // ignore
+            interp.invalidate(keys);
+        }
+        for (ChangeListener listener : listeners) {
+            listener.onChange(paths);
         }
-        return defaultValue;
+    }
+    
+    // ==================== Dump / Save Methods ====================
+    
+    /**
+     * Render top-level sections in parallel on the common ForkJoin pool
+     * (for multi-MB documents; output is identical to sequential mode)
+     */
+    public void setParallelDump(boolean parallel) {
+        writer.setParallel(parallel ? ForkJoinPool.commonPool() : null);
     }
     
     /**
-     * Get double value by path
+     * Dump to YAML string
      */
-    public double getDouble(String path) {
-        Object value = get(path);
-        if (value instanceof Number) {
-            return ((Number) value).doubleValue();
+    public String dump() {
+        if (root == null) {
+            throw new IllegalStateException("No YAML loaded. Call load() first.");
         }
-        if (value instanceof String) {
-            return Double.parseDouble((String) value);
+        writer.setDocumentMarker(root.hasDocumentMarker());
+        return writer.write(root);
+    }
+    
+    /**
+     * Stream YAML to a Writer (flushed, not closed)
+     */
+    public void dump(Writer out) throws IOException {
+        if (root == null) {
+            throw new IllegalStateException("No YAML loaded. Call load() first.");
         }
-        throw new IllegalArgumentException("Cannot convert to double: " + path);
+        writer.setDocumentMarker(root.hasDocumentMarker());
+        writer.write(root, out);
     }
     
     /**
-     * Get double value by path with default
+     * Dump as UTF-8 bytes, encoded directly (no intermediate String)
      */
-    public double getDouble(String path, double defaultValue) {
-        try {
-            Object value = get(path);
-            if (value == null) return defaultValue;
-            if (value instanceof Number) {
-                return ((Number) value).doubleValue();
-            }
-            if (value instanceof String) {
-                return Double.parseDouble((String) value);
-            }
-        } catch (Exception e) {
-            // ignore
+    public byte[] dumpBytes() {
+        if (root == null) {
+            throw new IllegalStateException("No YAML loaded. Call load() first.");
         }
-        return defaultValue;
+        writer.setDocumentMarker(root.hasDocumentMarker());
+        return writer.writeBytes(root);
     }
     
     /**
-     * Get boolean value by path
+     * Stream YAML as UTF-8 bytes to a channel (not closed)
      */
-    public boolean getBoolean(String path) {
-        Object value = get(path);
-        if (value instanceof Boolean) {
-            return (Boolean) value;
+    public void dump(WritableByteChannel channel) throws IOException {
+        if (root == null) {
+            throw new IllegalStateException("No YAML loaded. Call load() first.");
         }
-        if (value instanceof String) {
-            return Boolean.parseBoolean((String) value);
+        writer.setDocumentMarker(root.hasDocumentMarker());
+        writer.write(root, channel);
+    }
+    
+    /**
+     * Stream YAML to an OutputStream as UTF-8 (flushed, not closed)
+     */
+    public void dump(OutputStream out) throws IOException {
+        dump(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Canonical compact YAML: no comments, sorted keys, fixed quoting and layout
+     * (equal data gives equal text, whatever the source formatting)
+     */
+    public String dumpCanonical() {
+        if (root == null) {
+            throw new IllegalStateException("No YAML loaded. Call load() first.");
         }
-        throw new IllegalArgumentException("Cannot convert to boolean: " + path);
+        return CanonicalWriter.write(root);
     }
     
     /**
-     * Get boolean value by path with default
+     * Hex SHA-256 of the canonical form, streamed into the digest without building the text
      */
-    public boolean getBoolean(String path, boolean defaultValue) {
-        try {
-            Object value = get(path);
-            if (value == null) return defaultValue;
-            if (value instanceof Boolean) {
-                return (Boolean) value;
-            }
-            if (value instanceof String) {
-                return Boolean.parseBoolean((String) value);
-            }
-        } catch (Exception e) {
-            // ignore
+    public String contentHash() {
+        if (root == null) {
+            throw new IllegalStateException("No YAML loaded. Call load() first.");
         }
-        return defaultValue;
+        return CanonicalWriter.contentHash(root);
     }
     
     /**
-     * Get List value by path
+     * 64-bit hash of the values, cached per subtree: after an edit only the
+     * containers on the edited path are rehashed (see MerkleHash)
      */
-    @SuppressWarnings("unchecked")
-    public List<Object> getList(String path) {
-        Object value = get(path);
-        if (value instanceof List) {
-            return (List<Object>) value;
+    public long treeHash() {
+        return treeHash(false);
+    }
+    
+    /**
+     * Like treeHash(), optionally covering comments and blank lines too
+     */
+    public long treeHash(boolean includeComments) {
+        if (root == null) {
+            throw new IllegalStateException("No YAML loaded. Call load() first.");
         }
-        return null;
+        return includeComments ? MerkleHash.withComments(root) : MerkleHash.of(root);
     }
     
     /**
-     * Get Map value by path
+     * Save to file (streamed, no intermediate String)
      */
-    @SuppressWarnings("unchecked")
-    public Map<String, Object> getMap(String path) {
-        Object value = get(path);
-        if (value instanceof Map) {
-            return (Map<String, Object>) value;
+    public void save(File file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            dump(out);
         }
-        return null;
     }
     
-    // ==================== Setter Methods (Path Notation) ====================
+    /**
+     * Save through a temp file renamed over the target (see SaveOptions)
+     * 
+     * @return false if skipIfUnchanged found identical content and nothing was written
+     */
+    public boolean save(File file, SaveOptions options) throws IOException {
+        if (options.isSkipIfUnchanged()) {
+            byte[] content = dumpBytes();
+            if (AtomicFiles.hasContent(file.toPath(), content)) {
+                return false;
+            }
+            AtomicFiles.replace(file.toPath(), options.isForce(), ch -> AtomicFiles.writeFully(ch, content));
+        } else {
+            if (root == null) {
+                throw new IllegalStateException("No YAML loaded. Call load() first.");
+            }
+            AtomicFiles.replace(file.toPath(), options.isForce(), this::dump);
+        }
+        return true;
+    }
     
     /**
-     * Set value by path (e.g., "server.port", "Services[0].Airline")
+     * Append one item to a top-level block sequence that is the last block in the file,
+     * without loading or rewriting the rest of the file
+     * 
+     * Only the file tail up to the target key is read; the item is rendered with the
+     * existing item indent and line ending and written at the end of the file.
+     * Throws IllegalStateException if the key is not the last block or not a block sequence,
+     * or if a top-level comment follows its last item.
      */
-    public void set(String path, Object value) {
-        setByPath(root, path, value);
+    public static void appendToSequence(String path, File file, Object item) throws IOException {
+        SequenceAppender.append(file.toPath(), path, item);
     }
     
-    // ==================== Dump / Save Methods ====================
+    /**
+     * Replace one scalar in a file in place, using the parser's source offsets
+     * 
+     * Only the value's byte range is rewritten when the new text has the same length;
+     * otherwise only the bytes from the value to the end of the file. Comments and
+     * formatting elsewhere are untouched. Throws IllegalArgumentException if the
+     * path does not hold a block scalar (e.g. a container or a flow-style item),
+     * and MalformedInputException if the file is not valid UTF-8.
+     */
+    public static void patch(File file, String path, Object value) throws IOException {
+        FilePatcher.patch(file.toPath(), path, value);
+    }
     
     /**
-     * Dump to YAML string
+     * Save the parsed tree, comments and formatting included, as a binary snapshot
+     * (written through a temp file and renamed over the target)
      */
-    public String dump() {
+    public void saveSnapshot(File file) throws IOException {
         if (root == null) {
             throw new IllegalStateException("No YAML loaded. Call load() first.");
         }
-        writer.setDocumentMarker(root.hasDocumentMarker());
-        return writer.write(root);
+        AtomicFiles.replace(file.toPath(), false, ch -> BinarySnapshot.write(root, Channels.newOutputStream(ch)));
     }
     
     /**
-     * Save to file
+     * Save the values (no comments) in the random-access format read by MappedYaml.open()
+     * (written through a temp file and renamed over the target, so readers that
+     * already mapped the old file are not disturbed)
      */
-    public void save(File file) throws IOException {
-        String content = dump();
-        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+    public void saveMapped(File file) throws IOException {
+        if (root == null) {
+            throw new IllegalStateException("No YAML loaded. Call load() first.");
+        }
+        AtomicFiles.replace(file.toPath(), false, ch -> MappedSnapshot.write(root, Channels.newOutputStream(ch)));
+    }
+    
+    // ==================== Snapshots ====================
+    
+    /**
+     * Deeply immutable copy of the current document, safe to share between threads
+     */
+    public YamlSnapshot freeze() {
+        if (root == null) {
+            throw new IllegalStateException("No YAML loaded. Call load() first.");
+        }
+        return YamlSnapshot.of(root);
+    }
+    
+    // ==================== Versions ====================
+    
+    /**
+     * Keep the last maxVersions versions of this document.
+     * 
+     * Every set/remove/transaction (and setRoot) records a new version that shares
+     * all unchanged subtrees with the previous one. Edits made directly on
+     * getRoot() are not recorded.
+     */
+    public void enableVersioning(int maxVersions) {
+        this.history = new VersionHistory(maxVersions, freeze());
+    }
+    
+    public VersionHistory getVersionHistory() {
+        return history;
+    }
+    
+    /**
+     * Current version number
+     */
+    public int currentVersion() {
+        return requireHistory().latestVersion();
+    }
+    
+    /**
+     * Get a retained version as an immutable snapshot
+     */
+    public YamlSnapshot version(int n) {
+        return requireHistory().get(n);
+    }
+    
+    /**
+     * Changes from version 'from' to version 'to': values, key order and comments
+     * (shared subtrees are skipped, so cost follows the size of the edits)
+     */
+    public List<YamlDiff.Change> diff(int from, int to) {
+        return YamlDiff.diff(version(from).getRoot(), version(to).getRoot());
+    }
+    
+    /**
+     * Make version n current again (recorded as a new version)
+     */
+    @SuppressWarnings("unchecked")
+    public void rollbackTo(int n) {
+        YamlSnapshot target = version(n);
+        List<YamlDiff.Change> changes = YamlDiff.diff(history.latest().getRoot(), target.getRoot());
+        this.root = (CommentedMap<String, Object>) YamlNodes.deepCopy(target.getRoot());
+        history.push(target);
+        
+        List<String> paths = new ArrayList<>(changes.size());
+        for (YamlDiff.Change change : changes) {
+            paths.add(change.getPath());
+        }
+        if (!paths.isEmpty()) {
+            fireChange(Collections.unmodifiableList(paths));
+        }
+    }
+    
+    private VersionHistory requireHistory() {
+        if (history == null) {
+            throw new IllegalStateException("Versioning is not enabled. Call enableVersioning() first.");
+        }
+        return history;
     }
     
     // ==================== Root Access ====================
@@ -315,6 +604,11 @@ public class Yamlrt {
      */
     public void setRoot(CommentedMap<String, Object> root) {
         this.root = root;
+        Interpolator interp = interpolator;
+        if (interp != null) interp.clear();
+        if (history != null) {
+            history.push(YamlSnapshot.of(root));
+        }
     }
     
     // ==================== Utility Methods ====================
@@ -327,112 +621,86 @@ public class Yamlrt {
         return yamlrt.dump();
     }
     
-    /**
-     * Check if path exists
-     */
-    public boolean exists(String path) {
-        return get(path) != null;
-    }
-    
     /**
      * Remove value by path
      */
     public void remove(String path) {
-        removeByPath(root, path);
+        if (removeByPath(root, path, null)) {
+            if (history != null) {
+                history.record(b -> b.remove(path));
+            }
+            fireChange(Collections.singletonList(path));
+        }
     }
     
     // ==================== Path Resolution (Internal) ====================
     
     /**
-     * Parse path into segments
-     * "server.host" -> ["server", "host"]
-     * "Services[0].ServiceName" -> ["Services", 0, "ServiceName"]
+     * Get cached path entry (parsed segments + last typed conversion)
      */
-    private List<Object> parsePath(String path) {
-        List<Object> segments = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
-        
-        for (int i = 0; i < path.length(); i++) {
-            char c = path.charAt(i);
-            
-            if (c == '.') {
-                if (current.length() > 0) {
-                    segments.add(current.toString());
-                    current = new StringBuilder();
-                }
-            } else if (c == '[') {
-                if (current.length() > 0) {
-                    segments.add(current.toString());
-                    current = new StringBuilder();
-                }
-                // Find closing bracket
-                int end = path.indexOf(']', i);
-                if (end > i + 1) {
-                    String indexStr = path.substring(i + 1, end);
-                    try {
-                        segments.add(Integer.parseInt(indexStr));
-                    } catch (NumberFormatException e) {
-                        // Treat as string key (for map access like ["key"])
-                        segments.add(indexStr);
-                    }
-                    i = end;
-                }
-            } else if (c == ']') {
-                // Skip, already handled
-            } else {
-                current.append(c);
+    private CachedPath cachedPath(String path) {
+        CachedPath cached = pathCache.get(path);
+        if (cached == null) {
+            if (pathCache.size() >= PATH_CACHE_LIMIT) {
+                pathCache.clear();
             }
+            cached = new CachedPath(YamlPath.parse(path));
+            pathCache.put(path, cached);
         }
-        
-        if (current.length() > 0) {
-            segments.add(current.toString());
+        return cached;
+    }
+    
+    /**
+     * Resolve path and reuse the cached conversion while the value is the same object
+     */
+    private TypedValue typed(String path) {
+        CachedPath cached = cachedPath(path);
+        Object value = interpolate(cached, YamlPath.get(root, cached.segments));
+        TypedValue typed = cached.typed;
+        if (typed == null || typed.getSource() != value) {
+            typed = TypedValue.of(value);
+            cached.typed = typed;
         }
-        
-        return segments;
+        return typed;
     }
     
     /**
-     * Get value by path from container
+     * Parsed path with its last typed conversion
      */
-    @SuppressWarnings("unchecked")
-    private Object getByPath(Object container, String path) {
-        List<Object> segments = parsePath(path);
-        Object current = container;
+    private static final class CachedPath {
+        final List<Object> segments;
+        volatile TypedValue typed;
+        private volatile String key;
         
-        for (Object segment : segments) {
-            if (current == null) return null;
-            
-            if (segment instanceof Integer) {
-                int index = (Integer) segment;
-                if (current instanceof List) {
-                    List<?> list = (List<?>) current;
-                    if (index >= 0 && index < list.size()) {
-                        current = list.get(index);
-                    } else {
-                        return null;
-                    }
-                } else {
-                    return null;
-                }
-            } else {
-                String key = (String) segment;
-                if (current instanceof Map) {
-                    current = ((Map<String, Object>) current).get(key);
-                } else {
-                    return null;
-                }
-            }
+        CachedPath(List<Object> segments) {
+            this.segments = segments;
         }
         
-        return current;
+        /**
+         * Normalized path notation
+         */
+        String key() {
+            String k = key;
+            if (k == null) {
+                k = YamlPath.format(segments);
+                key = k;
+            }
+            return k;
+        }
+    }
+    
+    private Object interpolate(CachedPath cached, Object value) {
+        Interpolator interp = interpolator;
+        return interp != null ? interp.resolve(root, cached.key(), value) : value;
     }
     
     /**
      * Set value by path in container
+     * @param undo if not null, receives one undo action per mutation (in application order)
      */
     @SuppressWarnings("unchecked")
-    private void setByPath(Object container, String path, Object value) {
-        List<Object> segments = parsePath(path);
+    private void setByPath(Object container, String path, Object value, Deque<Runnable> undo) {
+        List<Object> segments = cachedPath(path).segments;
         Object current = container;
         
         // Navigate to parent
@@ -462,7 +730,7 @@ public class Yamlrt {
                         } else {
                             next = new CommentedMap<>();
                         }
-                        map.put(key, next);
+                        putWithUndo(map, key, next, undo);
                     }
                 }
             }
@@ -480,6 +748,18 @@ public class Yamlrt {
             int index = (Integer) lastSegment;
             if (current instanceof List) {
                 List<Object> list = (List<Object>) current;
+                if (undo != null) {
+                    int oldSize = list.size();
+                    Object oldValue = index < oldSize ? list.get(index) : null;
+                    undo.push(() -> {
+                        if (index < oldSize) {
+                            list.set(index, oldValue);
+                        }
+                        while (list.size() > oldSize) {
+                            list.remove(list.size() - 1);
+                        }
+                    });
+                }
                 while (list.size() <= index) {
                     list.add(null);
                 }
@@ -490,19 +770,36 @@ public class Yamlrt {
         } else {
             String key = (String) lastSegment;
             if (current instanceof Map) {
-                ((Map<String, Object>) current).put(key, value);
+                putWithUndo((Map<String, Object>) current, key, value, undo);
             } else {
                 throw new IllegalArgumentException("Cannot set key on non-map: " + path);
             }
         }
     }
     
+    /**
+     * Put into map, recording how to restore the previous entry
+     */
+    static void putWithUndo(Map<String, Object> map, String key, Object value, Deque<Runnable> undo) {
+        if (undo != null) {
+            if (map.containsKey(key)) {
+                Object oldValue = map.get(key);
+                undo.push(() -> map.put(key, oldValue));
+            } else {
+                undo.push(() -> map.remove(key));
+            }
+        }
+        map.put(key, value);
+    }
+    
     /**
      * Remove value by path
+     * @param undo if not null, receives one undo action per mutation (in application order)
+     * @return true if something was removed
      */
     @SuppressWarnings("unchecked")
-    private void removeByPath(Object container, String path) {
-        List<Object> segments = parsePath(path);
+    private boolean removeByPath(Object container, String path, Deque<Runnable> undo) {
+        List<Object> segments = cachedPath(path).segments;
         Object current = container;
         
         // Navigate to parent
@@ -516,21 +813,21 @@ public class Yamlrt {
                     if (index >= 0 && index < list.size()) {
                         current = list.get(index);
                     } else {
-                        return;
+                        return false;
                     }
                 } else {
-                    return;
+                    return false;
                 }
             } else {
                 String key = (String) segment;
                 if (current instanceof Map) {
                     current = ((Map<String, Object>) current).get(key);
                 } else {
-                    return;
+                    return false;
                 }
             }
             
-            if (current == null) return;
+            if (current == null) return false;
         }
         
         // Remove at final segment
@@ -539,16 +836,72 @@ public class Yamlrt {
         if (lastSegment instanceof Integer) {
             int index = (Integer) lastSegment;
             if (current instanceof List) {
-                List<?> list = (List<?>) current;
+                List<Object> list = (List<Object>) current;
                 if (index >= 0 && index < list.size()) {
-                    ((List<?>) current).remove(index);
+                    if (undo != null) {
+                        Object oldValue = list.get(index);
+                        Comment.CommentSlot oldSlot = (list instanceof CommentedList)
+                                ? ((CommentedList<Object>) list).ca().getSlot(index) : null;
+                        undo.push(() -> {
+                            list.add(index, oldValue);
+                            if (oldSlot != null) {
+                                ((CommentedList<Object>) list).ca().setSlot(index, oldSlot);
+                            }
+                        });
+                    }
+                    list.remove(index);
+                    return true;
                 }
             }
         } else {
             String key = (String) lastSegment;
-            if (current instanceof Map) {
-                ((Map<?, ?>) current).remove(key);
+            if (current instanceof Map && ((Map<String, Object>) current).containsKey(key)) {
+                Map<String, Object> map = (Map<String, Object>) current;
+                if (undo != null) {
+                    Object oldValue = map.get(key);
+                    int position = indexOfKey(map, key);
+                    Comment.CommentSlot oldSlot = (map instanceof CommentedMap)
+                            ? ((CommentedMap<String, Object>) map).ca().getSlot(key) : null;
+                    undo.push(() -> {
+                        reinsert(map, position, key, oldValue);
+                        if (oldSlot != null) {
+                            ((CommentedMap<String, Object>) map).ca().setSlot(key, oldSlot);
+                        }
+                    });
+                }
+                map.remove(key);
+                return true;
             }
         }
+        return false;
+    }
+    
+    static int indexOfKey(Map<String, Object> map, String key) {
+        int position = 0;
+        for (String k : map.keySet()) {
+            if (k.equals(key)) return position;
+            position++;
+        }
+        return position;
+    }
+    
+    /**
+     * Re-insert a key at its original position (LinkedHashMap keeps insertion order)
+     */
+    static void reinsert(Map<String, Object> map, int position, String key, Object value) {
+        List<Map.Entry<String, Object>> tail = new ArrayList<>();
+        int i = 0;
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            if (i++ >= position) {
+                tail.add(new AbstractMap.SimpleEntry<>(entry));
+            }
+        }
+        for (Map.Entry<String, Object> entry : tail) {
+            map.remove(entry.getKey());
+        }
+        map.put(key, value);
+        for (Map.Entry<String, Object> entry : tail) {
+            map.put(entry.getKey(), entry.getValue());
+        }
     }
 }
@@ -0,0 +1,429 @@
+package io.yamlrt.core;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Compact binary form of a parsed tree, comments included
+ *
+ * Everything the writer needs is stored, so a tree read back dumps to the
+ * same text as the original without scanning any YAML:
+ * - values (null, Boolean, Integer, Long, Double, Float, BigInteger, BigDecimal, String)
+ * - CommentedMap / CommentedList attributes (flow style, detectedIndent,
+ *   originalIndent, document marker, trailing newline, line/col)
+ * - the full Comment table: container, slot and end tokens, plus the source
+ *   text of each scalar (SourceSpan), so unchanged values are still copied verbatim
+ *
+ * Layout: "YRTB", format version, then one tagged node. Integers are varints,
+ * strings are a byte length plus UTF-8. Plain Map / List values are written
+ * as Commented containers. Other value types are rejected.
+ *
+ * Usage:
+ *   BinarySnapshot.write(root, out);
+ *   CommentedMap<String, Object> copy = BinarySnapshot.read(in);
+ */
+public final class BinarySnapshot {
+    
+    private static final int MAGIC = 0x59525442;  // "YRTB"
+    private static final int VERSION = 1;
+    
+    private static final int T_NULL = 0;
+    private static final int T_TRUE = 1;
+    private static final int T_FALSE = 2;
+    private static final int T_INT = 3;
+    private static final int T_LONG = 4;
+    private static final int T_DOUBLE = 5;
+    private static final int T_FLOAT = 6;
+    private static final int T_BIG_INTEGER = 7;
+    private static final int T_BIG_DECIMAL = 8;
+    private static final int T_STRING = 9;
+    private static final int T_MAP = 10;
+    private static final int T_LIST = 11;
+    
+    // Container flags
+    private static final int F_FLOW = 1;
+    private static final int F_DOCUMENT_MARKER = 2;
+    private static final int F_TRAILING_NEWLINE = 4;
+    
+    // Optional slot parts
+    private static final int S_KEY_EOL = 1;
+    private static final int S_VALUE_EOL = 2;
+    private static final int S_SPAN = 4;
+    
+    private BinarySnapshot() {}
+    
+    // ==================== Write ====================
+    
+    public static void write(CommentedMap<String, Object> root, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        writeVarInt(data, VERSION);
+        writeNode(data, root);
+        data.flush();
+    }
+    
+    public static byte[] toBytes(CommentedMap<String, Object> root) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(root, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static void writeNode(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(T_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? T_TRUE : T_FALSE);
+        } else if (value instanceof Integer) {
+            out.writeByte(T_INT);
+            writeVarLong(out, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.writeByte(T_LONG);
+            writeVarLong(out, zigZag((Long) value));
+        } else if (value instanceof Double) {
+            out.writeByte(T_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(T_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof BigInteger) {
+            out.writeByte(T_BIG_INTEGER);
+            writeString(out, value.toString());
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(T_BIG_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof String) {
+            out.writeByte(T_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Map) {
+            writeMap(out, (Map<Object, Object>) value);
+        } else if (value instanceof List) {
+            writeList(out, (List<Object>) value);
+        } else {
+            throw new IllegalArgumentException("Unsupported value type in snapshot: " + value.getClass().getName());
+        }
+    }
+    
+    private static void writeMap(DataOutputStream out, Map<Object, Object> map) throws IOException {
+        out.writeByte(T_MAP);
+        CommentedMap<?, ?> cm = (map instanceof CommentedMap) ? (CommentedMap<?, ?>) map : null;
+        int flags = 0;
+        if (cm == null || cm.hasTrailingNewline()) flags |= F_TRAILING_NEWLINE;
+        if (cm != null && cm.isFlowStyle()) flags |= F_FLOW;
+        if (cm != null && cm.hasDocumentMarker()) flags |= F_DOCUMENT_MARKER;
+        out.writeByte(flags);
+        writeVarInt(out, cm != null ? cm.getDetectedIndent() : 2);
+        writeVarLong(out, zigZag(cm != null ? cm.getLine() : -1));
+        writeVarLong(out, zigZag(cm != null ? cm.getCol() : -1));
+        writeComment(out, cm != null ? cm.ca() : null, map::get);
+        
+        writeVarInt(out, map.size());
+        for (Map.Entry<Object, Object> entry : YamlNodes.entries(map)) {
+            writeNode(out, entry.getKey());
+            writeNode(out, entry.getValue());
+        }
+    }
+    
+    private static void writeList(DataOutputStream out, List<Object> list) throws IOException {
+        out.writeByte(T_LIST);
+        CommentedList<?> cl = (list instanceof CommentedList) ? (CommentedList<?>) list : null;
+        out.writeByte(cl != null && cl.isFlowStyle() ? F_FLOW : 0);
+        writeVarLong(out, zigZag(cl != null ? cl.getOriginalIndent() : -1));
+        writeVarLong(out, zigZag(cl != null ? cl.getLine() : -1));
+        writeVarLong(out, zigZag(cl != null ? cl.getCol() : -1));
+        writeComment(out, cl != null ? cl.ca() : null, key -> itemAt(list, key));
+        
+        writeVarInt(out, list.size());
+        for (Object item : list) {
+            writeNode(out, item);
+        }
+    }
+    
+    /**
+     * @param values current value per slot key; a span is kept only while it still matches
+     */
+    private static void writeComment(DataOutputStream out, Comment ca, Function<Object, Object> values)
+            throws IOException {
+        if (ca == null) {
+            writeToken(out, null);
+            writeVarInt(out, 0);
+            writeVarInt(out, 0);
+            writeVarInt(out, 0);
+            return;
+        }
+        writeToken(out, ca.getContainerEol());
+        writeTokens(out, ca.getContainerPre());
+        
+        // Read-only view: getItems() on a mutable table would mark it dirty
+        Map<Object, Comment.CommentSlot> items = ca.items();
+        int slots = 0;
+        for (Comment.CommentSlot slot : items.values()) {
+            if (slot != null) slots++;
+        }
+        writeVarInt(out, slots);
+        for (Map.Entry<Object, Comment.CommentSlot> entry : items.entrySet()) {
+            if (entry.getValue() == null) continue;
+            writeNode(out, entry.getKey());
+            writeSlot(out, entry.getValue(), values.apply(entry.getKey()));
+        }
+        writeTokens(out, ca.getEnd());
+    }
+    
+    private static void writeSlot(DataOutputStream out, Comment.CommentSlot slot, Object value) throws IOException {
+        SourceSpan span = slot.getValueSpan();
+        if (span != null && !span.matches(value)) span = null;
+        int parts = 0;
+        if (slot.getKeyEol() != null) parts |= S_KEY_EOL;
+        if (slot.getValueEol() != null) parts |= S_VALUE_EOL;
+        if (span != null) parts |= S_SPAN;
+        out.writeByte(parts);
+        
+        if (slot.getKeyEol() != null) writeToken(out, slot.getKeyEol());
+        writeTokens(out, slot.getKeyPre());
+        if (slot.getValueEol() != null) writeToken(out, slot.getValueEol());
+        writeTokens(out, slot.getValuePre());
+        if (span != null) writeString(out, span.getText());
+    }
+    
+    private static void writeTokens(DataOutputStream out, List<CommentToken> tokens) throws IOException {
+        writeVarInt(out, tokens.size());
+        for (CommentToken token : tokens) {
+            writeToken(out, token);
+        }
+    }
+    
+    private static void writeToken(DataOutputStream out, CommentToken token) throws IOException {
+        if (token == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(token.getValue() != null ? 1 : 2);
+        if (token.getValue() != null) writeString(out, token.getValue());
+        writeVarLong(out, zigZag(token.getColumn()));
+        writeVarLong(out, zigZag(token.getLine()));
+    }
+    
+    // ==================== Read ====================
+    
+    /**
+     * Read a snapshot; the stream is read to the end first, so that every declared
+     * length can be checked against the bytes actually there before allocating
+     */
+    public static CommentedMap<String, Object> read(InputStream in) throws IOException {
+        return fromBytes(in.readAllBytes());
+    }
+    
+    @SuppressWarnings("unchecked")
+    public static CommentedMap<String, Object> fromBytes(byte[] bytes) throws IOException {
+        // available() of a byte array stream is exactly the number of unread bytes
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a yamlrt snapshot");
+        }
+        int version = readVarInt(data);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        Object root = readNode(data);
+        if (!(root instanceof CommentedMap)) {
+            throw new IOException("Snapshot root is not a mapping");
+        }
+        return (CommentedMap<String, Object>) root;
+    }
+    
+    private static Object readNode(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case T_NULL: return null;
+            case T_TRUE: return Boolean.TRUE;
+            case T_FALSE: return Boolean.FALSE;
+            case T_INT: return (int) unZigZag(readVarLong(in));
+            case T_LONG: return unZigZag(readVarLong(in));
+            case T_DOUBLE: return in.readDouble();
+            case T_FLOAT: return in.readFloat();
+            case T_BIG_INTEGER: return new BigInteger(readString(in));
+            case T_BIG_DECIMAL: return new BigDecimal(readString(in));
+            case T_STRING: return readString(in);
+            case T_MAP: return readMap(in);
+            case T_LIST: return readList(in);
+            default: throw new IOException("Corrupt snapshot: unknown tag " + tag);
+        }
+    }
+    
+    private static CommentedMap<Object, Object> readMap(DataInputStream in) throws IOException {
+        CommentedMap<Object, Object> map = new CommentedMap<>();
+        int flags = in.readUnsignedByte();
+        map.setFlowStyle((flags & F_FLOW) != 0);
+        map.setDocumentMarker((flags & F_DOCUMENT_MARKER) != 0);
+        map.setTrailingNewline((flags & F_TRAILING_NEWLINE) != 0);
+        map.setDetectedIndent(readVarInt(in));
+        map.setLine((int) unZigZag(readVarLong(in)));
+        map.setCol((int) unZigZag(readVarLong(in)));
+        Map<Object, String> spans = readComment(in, map.ca());
+        
+        int size = readVarInt(in);
+        for (int i = 0; i < size; i++) {
+            Object key = readNode(in);
+            map.put(key, readNode(in));
+        }
+        attachSpans(map.ca(), spans, map::get);
+        return map;
+    }
+    
+    private static CommentedList<Object> readList(DataInputStream in) throws IOException {
+        CommentedList<Object> list = new CommentedList<>();
+        list.setFlowStyle((in.readUnsignedByte() & F_FLOW) != 0);
+        list.setOriginalIndent((int) unZigZag(readVarLong(in)));
+        list.setLine((int) unZigZag(readVarLong(in)));
+        list.setCol((int) unZigZag(readVarLong(in)));
+        Map<Object, String> spans = readComment(in, list.ca());
+        
+        // Every item takes at least one byte
+        int size = readLength(in);
+        list.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readNode(in));
+        }
+        attachSpans(list.ca(), spans, key -> itemAt(list, key));
+        return list;
+    }
+    
+    /**
+     * Fill the comment table; returns the scalar source texts by slot key
+     * (attached once the values exist, since spans match by identity)
+     */
+    private static Map<Object, String> readComment(DataInputStream in, Comment ca) throws IOException {
+        CommentToken eol = readToken(in);
+        if (eol != null) ca.setContainerEol(eol);
+        for (int i = readVarInt(in); i > 0; i--) {
+            ca.addContainerPre(readToken(in));
+        }
+        
+        Map<Object, String> spans = null;
+        for (int i = readVarInt(in); i > 0; i--) {
+            Object key = readNode(in);
+            Comment.CommentSlot slot = ca.getOrCreateSlot(key);
+            String spanText = readSlot(in, slot);
+            if (spanText != null) {
+                if (spans == null) spans = new HashMap<>();
+                spans.put(key, spanText);
+            }
+        }
+        
+        for (int i = readVarInt(in); i > 0; i--) {
+            ca.addEnd(readToken(in));
+        }
+        return spans;
+    }
+    
+    private static String readSlot(DataInputStream in, Comment.CommentSlot slot) throws IOException {
+        int parts = in.readUnsignedByte();
+        if ((parts & S_KEY_EOL) != 0) slot.setKeyEol(readToken(in));
+        for (int i = readVarInt(in); i > 0; i--) {
+            slot.addKeyPre(readToken(in));
+        }
+        if ((parts & S_VALUE_EOL) != 0) slot.setValueEol(readToken(in));
+        for (int i = readVarInt(in); i > 0; i--) {
+            slot.addValuePre(readToken(in));
+        }
+        return (parts & S_SPAN) != 0 ? readString(in) : null;
+    }
+    
+    private static void attachSpans(Comment ca, Map<Object, String> spans,
+                                    Function<Object, Object> values) {
+        if (spans == null) return;
+        for (Map.Entry<Object, String> entry : spans.entrySet()) {
+            String text = entry.getValue();
+            Object value = values.apply(entry.getKey());
+            ca.getSlot(entry.getKey()).setValueSpan(new SourceSpan(text, 0, text.length(), value));
+        }
+    }
+    
+    private static Object itemAt(List<?> list, Object key) {
+        if (!(key instanceof Integer)) return null;
+        int index = (Integer) key;
+        return (index >= 0 && index < list.size()) ? list.get(index) : null;
+    }
+    
+    private static CommentToken readToken(DataInputStream in) throws IOException {
+        int kind = in.readUnsignedByte();
+        if (kind == 0) return null;
+        String value = (kind == 1) ? readString(in) : null;
+        int column = (int) unZigZag(readVarLong(in));
+        int line = (int) unZigZag(readVarLong(in));
+        return new CommentToken(value, line, column);
+    }
+    
+    // ==================== Primitives ====================
+    
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+    
+    private static int readVarInt(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Corrupt snapshot: bad length " + value);
+        }
+        return (int) value;
+    }
+    
+    /**
+     * Length of something still to be read: never more than the unread bytes
+     * (a corrupt length must not turn into a huge allocation)
+     */
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        int remaining = in.available();
+        if (length > remaining) {
+            throw new IOException("Corrupt snapshot: length " + length + " exceeds the " + remaining + " bytes left");
+        }
+        return length;
+    }
+    
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+    
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Corrupt snapshot: varint too long");
+    }
+    
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
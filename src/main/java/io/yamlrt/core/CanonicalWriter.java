@@ -0,0 +1,224 @@
+package io.yamlrt.core;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Canonical compact YAML: the same data always gives the same bytes
+ *
+ * - no comments, blank lines, document marker or source formatting
+ * - mapping keys sorted (String order of the key text)
+ * - block style everywhere; empty containers as {} / []
+ * - strings always double-quoted, control characters escaped; numbers,
+ *   booleans and null bare
+ * - two-space indent, "\n" line endings, trailing newline
+ *
+ * Nested containers under a sequence item start on their own line ("-" then
+ * the content indented), so the layout never depends on the previous line.
+ *
+ * Usage:
+ *   String text = CanonicalWriter.write(root);
+ *   String hash = CanonicalWriter.contentHash(root);   // hex SHA-256
+ */
+public final class CanonicalWriter {
+    
+    private static final int INDENT = 2;
+    private static final int DIGEST_BUFFER_SIZE = 4096;
+    private static final Comparator<Map.Entry<?, ?>> KEY_ORDER =
+            Comparator.comparing(e -> String.valueOf(e.getKey()));
+    private static final String SPACES = "                                ";
+    private static final String HEX = "0123456789abcdef";
+    
+    private final YamlSink output;
+    
+    private CanonicalWriter(YamlSink output) {
+        this.output = output;
+    }
+    
+    public static String write(Map<?, ?> root) {
+        StringBuilder sb = new StringBuilder();
+        render(root, new YamlSink.StringSink("\n", sb));
+        return sb.toString();
+    }
+    
+    /**
+     * Stream the canonical UTF-8 bytes into the digest (no text is built) and return the hash
+     */
+    public static byte[] digest(Map<?, ?> root, MessageDigest digest) {
+        digest.reset();
+        render(root, new YamlSink.ByteSink("\n", new byte[DIGEST_BUFFER_SIZE], new DigestChannel(digest)));
+        return digest.digest();
+    }
+    
+    /**
+     * Hex SHA-256 of the canonical bytes
+     */
+    public static String contentHash(Map<?, ?> root) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        return HexFormat.of().formatHex(digest(root, sha256));
+    }
+    
+    private static void render(Map<?, ?> root, YamlSink sink) {
+        CanonicalWriter writer = new CanonicalWriter(sink);
+        if (root.isEmpty()) {
+            sink.append("{}").newline();
+        } else {
+            writer.writeMapping(root, 0);
+        }
+        sink.finish(true);
+    }
+    
+    private void writeMapping(Map<?, ?> map, int indent) {
+        for (Map.Entry<?, ?> entry : sortedEntries(map)) {
+            indent(indent);
+            writeKey(String.valueOf(entry.getKey()));
+            output.append(':');
+            writeValue(entry.getValue(), indent);
+        }
+    }
+    
+    private void writeSequence(List<?> list, int indent) {
+        for (Object item : list) {
+            indent(indent);
+            output.append('-');
+            writeValue(item, indent);
+        }
+    }
+    
+    /**
+     * Rest of the line after "key:" or "-", then any nested block
+     */
+    private void writeValue(Object value, int indent) {
+        if (value instanceof Map && !((Map<?, ?>) value).isEmpty()) {
+            output.newline();
+            writeMapping((Map<?, ?>) value, indent + INDENT);
+        } else if (value instanceof List && !((List<?>) value).isEmpty()) {
+            output.newline();
+            writeSequence((List<?>) value, indent + INDENT);
+        } else {
+            output.append(' ');
+            writeScalar(value);
+            output.newline();
+        }
+    }
+    
+    private void writeScalar(Object value) {
+        if (value == null) {
+            output.append("null");
+        } else if (value instanceof Map) {
+            output.append("{}");
+        } else if (value instanceof List) {
+            output.append("[]");
+        } else if (value instanceof Boolean || value instanceof Number) {
+            output.append(value.toString());
+        } else {
+            writeQuoted(value.toString());
+        }
+    }
+    
+    private void writeKey(String key) {
+        if (isPlainKey(key)) {
+            output.append(key);
+        } else {
+            writeQuoted(key);
+        }
+    }
+    
+    /**
+     * Keys made of letters, digits, '_', '-' and '.' only (not starting with '-')
+     */
+    private static boolean isPlainKey(String key) {
+        int len = key.length();
+        if (len == 0 || key.charAt(0) == '-') return false;
+        for (int i = 0; i < len; i++) {
+            char c = key.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-' && c != '.') return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Double-quoted scalar on one line: every character below 0x20 is escaped
+     */
+    private void writeQuoted(String str) {
+        output.append('"');
+        int len = str.length();
+        int runStart = 0;
+        for (int i = 0; i < len; i++) {
+            char c = str.charAt(i);
+            String escape;
+            switch (c) {
+                case '\\': escape = "\\\\"; break;
+                case '"': escape = "\\\""; break;
+                case '\n': escape = "\\n"; break;
+                case '\r': escape = "\\r"; break;
+                case '\t': escape = "\\t"; break;
+                default:
+                    if (c >= 0x20) continue;
+                    escape = "\\u00" + HEX.charAt(c >> 4) + HEX.charAt(c & 0xF);
+            }
+            output.append(str, runStart, i).append(escape);
+            runStart = i + 1;
+        }
+        output.append(str, runStart, len).append('"');
+    }
+    
+    private void indent(int indent) {
+        for (; indent > SPACES.length(); indent -= SPACES.length()) {
+            output.append(SPACES);
+        }
+        output.append(SPACES, 0, indent);
+    }
+    
+    /**
+     * Entries in key order; the map's own order is used when it is already sorted
+     */
+    private static Collection<? extends Map.Entry<?, ?>> sortedEntries(Map<?, ?> map) {
+        Set<? extends Map.Entry<?, ?>> entries = YamlNodes.entries(map);
+        String previous = null;
+        for (Map.Entry<?, ?> entry : entries) {
+            String key = String.valueOf(entry.getKey());
+            if (previous != null && previous.compareTo(key) > 0) {
+                List<Map.Entry<?, ?>> sorted = new ArrayList<>(entries);
+                sorted.sort(KEY_ORDER);
+                return sorted;
+            }
+            previous = key;
+        }
+        return entries;
+    }
+    
+    /**
+     * Channel view of a MessageDigest, so ByteSink can feed it directly
+     */
+    private static final class DigestChannel implements WritableByteChannel {
+        private final MessageDigest digest;
+        
+        DigestChannel(MessageDigest digest) {
+            this.digest = digest;
+        }
+        
+        @Override
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            digest.update(src);
+            return n;
+        }
+        
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+        
+        @Override
+        public void close() {}
+    }
+}
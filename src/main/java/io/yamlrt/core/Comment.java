@@ -12,21 +12,39 @@ import java.util.*;
  * 
  * Blank lines are stored as CommentToken with empty value ("")
  */
-public class Comment {
+public class Comment implements DirtyTracker {
     
     // Container-level comment: [eol, pre_list]
     private CommentToken containerEol = null;
-    private List<CommentToken> containerPre = new ArrayList<>();
+    private TokenList containerPre = new TokenList(this);
     
     // Per-item comments: key -> [key_eol, key_pre, value_eol, value_pre]
     // For sequences: index -> [item_eol, item_pre, null, null]
     private Map<Object, CommentSlot> items = new LinkedHashMap<>();
     
     // End of document comments
-    private List<CommentToken> end = new ArrayList<>();
+    private TokenList end = new TokenList(this);
+    
+    // Read-only once frozen (see CommentedMap.freeze())
+    private boolean frozen = false;
+    
+    // Render state of the container this comment belongs to
+    private DirtyTracker owner;
     
     public Comment() {}
     
+    void setOwner(DirtyTracker owner) {
+        this.owner = owner;
+    }
+    
+    /**
+     * Report a change to the owning container (clears its cached output)
+     */
+    @Override
+    public void markDirty() {
+        if (owner != null) owner.markDirty();
+    }
+    
     // ==================== Container-level ====================
     
     public CommentToken getContainerEol() {
@@ -34,14 +52,16 @@ public class Comment {
     }
     
     public void setContainerEol(CommentToken token) {
-        this.containerEol = token;
+        checkMutable();
+        this.containerEol = attach(token);
     }
     
     public List<CommentToken> getContainerPre() {
-        return containerPre;
+        return frozen ? Collections.unmodifiableList(containerPre) : containerPre;
     }
     
     public void addContainerPre(CommentToken token) {
+        checkMutable();
         containerPre.add(token);
     }
     
@@ -52,24 +72,44 @@ public class Comment {
     }
     
     public CommentSlot getOrCreateSlot(Object key) {
-        return items.computeIfAbsent(key, k -> new CommentSlot());
+        CommentSlot slot = items.get(key);
+        if (slot == null) {
+            checkMutable();
+            slot = new CommentSlot();
+            slot.owner = this;
+            items.put(key, slot);
+        }
+        return slot;
     }
     
     public void setSlot(Object key, CommentSlot slot) {
+        checkMutable();
+        if (slot != null && !slot.frozen) slot.owner = this;
         items.put(key, slot);
     }
     
     public Map<Object, CommentSlot> getItems() {
+        if (frozen) return Collections.unmodifiableMap(items);
+        // The live table may be modified by the caller
+        markDirty();
+        return items;
+    }
+    
+    /**
+     * Item table for internal read-only iteration (no change tracking)
+     */
+    Map<Object, CommentSlot> items() {
         return items;
     }
     
     // ==================== End comments ====================
     
     public List<CommentToken> getEnd() {
-        return end;
+        return frozen ? Collections.unmodifiableList(end) : end;
     }
     
     public void addEnd(CommentToken token) {
+        checkMutable();
         end.add(token);
     }
     
@@ -79,6 +119,7 @@ public class Comment {
      * Shift indices for sequence operations
      */
     public void shiftIndicesUp(int fromIndex) {
+        checkMutable();
         Map<Object, CommentSlot> newItems = new LinkedHashMap<>();
         for (Map.Entry<Object, CommentSlot> entry : items.entrySet()) {
             Object key = entry.getKey();
@@ -97,6 +138,7 @@ public class Comment {
     }
     
     public void shiftIndicesDown(int fromIndex) {
+        checkMutable();
         Map<Object, CommentSlot> newItems = new LinkedHashMap<>();
         for (Map.Entry<Object, CommentSlot> entry : items.entrySet()) {
             Object key = entry.getKey();
@@ -115,6 +157,64 @@ public class Comment {
         items = newItems;
     }
     
+    // ==================== Copy / Freeze ====================
+    
+    /**
+     * Copy the item table and comment lists; slots and tokens are shared
+     */
+    public Comment shallowCopy() {
+        Comment copy = new Comment();
+        copy.containerEol = containerEol;
+        copy.containerPre = new TokenList(copy, containerPre);
+        copy.items = new LinkedHashMap<>(items);
+        copy.end = new TokenList(copy, end);
+        return copy;
+    }
+    
+    /**
+     * Copy everything, including slots and tokens
+     */
+    public Comment deepCopy() {
+        Comment copy = new Comment();
+        copy.containerEol = copy.attach(CommentToken.copyOf(containerEol));
+        copy.containerPre = new TokenList(copy, CommentToken.copyAll(containerPre));
+        for (Map.Entry<Object, CommentSlot> entry : items.entrySet()) {
+            CommentSlot slot = entry.getValue().deepCopy();
+            slot.owner = copy;
+            copy.items.put(entry.getKey(), slot);
+        }
+        copy.end = new TokenList(copy, CommentToken.copyAll(end));
+        return copy;
+    }
+    
+    /**
+     * Make this comment, its slots and tokens read-only
+     */
+    public void freeze() {
+        if (frozen) return;
+        frozen = true;
+        if (containerEol != null) containerEol.freeze();
+        for (CommentToken token : containerPre) token.freeze();
+        for (CommentSlot slot : items.values()) slot.freeze();
+        for (CommentToken token : end) token.freeze();
+    }
+    
+    public boolean isFrozen() {
+        return frozen;
+    }
+    
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Comment is frozen (read-only)");
+        }
+        markDirty();
+    }
+    
+    private CommentToken attach(CommentToken token) {
+        if (token != null) token.setOwner(this);
+        return token;
+    }
+    
     @Override
     public String toString() {
         return "Comment{containerEol=" + containerEol + 
@@ -129,28 +229,73 @@ public class Comment {
      * [1]: key/item PRE comments (including blank lines)
      * [2]: value EOL comment (for maps)
      * [3]: value PRE comments (for maps)
+     * plus the source span of a scalar value (map value or sequence item)
      */
-    public static class CommentSlot {
+    public static class CommentSlot implements DirtyTracker {
         private CommentToken keyEol = null;
-        private List<CommentToken> keyPre = new ArrayList<>();
+        private TokenList keyPre = new TokenList(this);
         private CommentToken valueEol = null;
-        private List<CommentToken> valuePre = new ArrayList<>();
+        private TokenList valuePre = new TokenList(this);
+        private SourceSpan valueSpan = null;  // original text of a scalar value
+        private boolean frozen = false;
+        private Comment owner;
         
         public CommentToken getKeyEol() { return keyEol; }
-        public void setKeyEol(CommentToken token) { this.keyEol = token; }
+        public void setKeyEol(CommentToken token) { checkMutable(); this.keyEol = attach(token); }
         
-        public List<CommentToken> getKeyPre() { return keyPre; }
-        public void addKeyPre(CommentToken token) { keyPre.add(token); }
+        public List<CommentToken> getKeyPre() { return frozen ? Collections.unmodifiableList(keyPre) : keyPre; }
+        public void addKeyPre(CommentToken token) { checkMutable(); keyPre.add(token); }
         
         public CommentToken getValueEol() { return valueEol; }
-        public void setValueEol(CommentToken token) { this.valueEol = token; }
+        public void setValueEol(CommentToken token) { checkMutable(); this.valueEol = attach(token); }
+        
+        public List<CommentToken> getValuePre() { return frozen ? Collections.unmodifiableList(valuePre) : valuePre; }
+        public void addValuePre(CommentToken token) { checkMutable(); valuePre.add(token); }
         
-        public List<CommentToken> getValuePre() { return valuePre; }
-        public void addValuePre(CommentToken token) { valuePre.add(token); }
+        public SourceSpan getValueSpan() { return valueSpan; }
+        public void setValueSpan(SourceSpan span) { checkMutable(); this.valueSpan = span; }
         
         public boolean hasKeyPre() { return !keyPre.isEmpty(); }
         public boolean hasValuePre() { return !valuePre.isEmpty(); }
         
+        public CommentSlot deepCopy() {
+            CommentSlot copy = new CommentSlot();
+            copy.keyEol = copy.attach(CommentToken.copyOf(keyEol));
+            copy.keyPre = new TokenList(copy, CommentToken.copyAll(keyPre));
+            copy.valueEol = copy.attach(CommentToken.copyOf(valueEol));
+            copy.valuePre = new TokenList(copy, CommentToken.copyAll(valuePre));
+            copy.valueSpan = valueSpan;  // immutable, shared
+            return copy;
+        }
+        
+        public void freeze() {
+            if (frozen) return;
+            frozen = true;
+            if (keyEol != null) keyEol.freeze();
+            for (CommentToken token : keyPre) token.freeze();
+            if (valueEol != null) valueEol.freeze();
+            for (CommentToken token : valuePre) token.freeze();
+        }
+        
+        public boolean isFrozen() { return frozen; }
+        
+        @Override
+        public void markDirty() {
+            if (owner != null) owner.markDirty();
+        }
+        
+        private void checkMutable() {
+            if (frozen) {
+                throw new UnsupportedOperationException("CommentSlot is frozen (read-only)");
+            }
+            markDirty();
+        }
+        
+        private CommentToken attach(CommentToken token) {
+            if (token != null) token.setOwner(this);
+            return token;
+        }
+        
         @Override
         public String toString() {
             return "[keyEol=" + keyEol + ", keyPre=" + keyPre + 
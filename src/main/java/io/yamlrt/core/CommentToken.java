@@ -1,5 +1,8 @@
 package io.yamlrt.core;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Comment Token (ruamel.yaml style)
  * 
@@ -12,6 +15,8 @@ public class CommentToken {
     private String value;
     private int column;
     private int line;
+    private boolean frozen = false;
+    private DirtyTracker owner;  // slot or Comment holding this token
     
     public CommentToken(String value, int column) {
         this.value = value;
@@ -47,6 +52,7 @@ public class CommentToken {
     }
     
     public void setValue(String value) {
+        checkMutable();
         this.value = value;
     }
     
@@ -55,6 +61,7 @@ public class CommentToken {
     }
     
     public void setColumn(int column) {
+        checkMutable();
         this.column = column;
     }
     
@@ -63,6 +70,7 @@ public class CommentToken {
     }
     
     public void setLine(int line) {
+        checkMutable();
         this.line = line;
     }
     
@@ -92,6 +100,39 @@ public class CommentToken {
         return trimmed;
     }
     
+    // ==================== Copy / Freeze ====================
+    
+    public static CommentToken copyOf(CommentToken token) {
+        return token != null ? new CommentToken(token.value, token.line, token.column) : null;
+    }
+    
+    public static List<CommentToken> copyAll(List<CommentToken> tokens) {
+        List<CommentToken> copy = new ArrayList<>(tokens.size());
+        for (CommentToken token : tokens) {
+            copy.add(copyOf(token));
+        }
+        return copy;
+    }
+    
+    public void freeze() {
+        frozen = true;
+    }
+    
+    void setOwner(DirtyTracker owner) {
+        if (!frozen) this.owner = owner;
+    }
+    
+    public boolean isFrozen() {
+        return frozen;
+    }
+    
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("CommentToken is frozen (read-only)");
+        }
+        if (owner != null) owner.markDirty();
+    }
+    
     @Override
     public String toString() {
         if (isBlankLine()) {
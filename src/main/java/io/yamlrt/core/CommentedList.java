@@ -1,6 +1,8 @@
 package io.yamlrt.core;
 
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * CommentedList (ruamel.yaml style CommentedSeq)
@@ -8,12 +10,17 @@ import java.util.*;
  * - Based on ArrayList
  * - Comment object for comment/blank line management
  * - Access via ca property
+ * - freeze() makes the list, its comments and all nested containers read-only
+ * - every change (items, comments, attributes) marks the list and its
+ *   rendered ancestors dirty, so YamlWriter can reuse output of clean subtrees
  */
 public class CommentedList<E> extends ArrayList<E> {
     
     private Comment ca = new Comment();  // comment attribute
     private boolean flowStyle = false;
     private int originalIndent = -1;  // preserve original indent
+    private boolean frozen = false;
+    private final RenderState renderState = new RenderState();
     
     // Line/Column info
     private int line = -1;
@@ -21,10 +28,12 @@ public class CommentedList<E> extends ArrayList<E> {
     
     public CommentedList() {
         super();
+        ca.setOwner(renderState);
     }
     
     public CommentedList(Collection<? extends E> c) {
         super(c);
+        ca.setOwner(renderState);
     }
     
     // ==================== Comment Attribute (ca) ====================
@@ -78,6 +87,7 @@ public class CommentedList<E> extends ArrayList<E> {
     
     public void setOriginalIndent(int indent) {
         this.originalIndent = indent;
+        markDirty();
     }
     
     // ==================== Flow style ====================
@@ -88,6 +98,7 @@ public class CommentedList<E> extends ArrayList<E> {
     
     public void setFlowStyle(boolean flowStyle) {
         this.flowStyle = flowStyle;
+        markDirty();
     }
     
     // ==================== Line/Col ====================
@@ -108,26 +119,182 @@ public class CommentedList<E> extends ArrayList<E> {
         this.col = col;
     }
     
+    // ==================== Copy / Freeze ====================
+    
+    /**
+     * Copy this level only: items are shared, comment table is copied
+     */
+    public CommentedList<E> shallowCopy() {
+        CommentedList<E> copy = new CommentedList<>(this);
+        copy.copyAttributes(this, ca.shallowCopy());
+        return copy;
+    }
+    
+    /**
+     * Copy this level only: items are shared, comments are copied too
+     * (the copy's comments can change without affecting this list)
+     */
+    public CommentedList<E> shallowCopyWithComments() {
+        CommentedList<E> copy = new CommentedList<>(this);
+        copy.copyAttributes(this, ca.deepCopy());
+        return copy;
+    }
+    
+    void copyAttributes(CommentedList<?> from, Comment comment) {
+        this.ca = comment;
+        comment.setOwner(renderState);
+        this.flowStyle = from.flowStyle;
+        this.originalIndent = from.originalIndent;
+        this.line = from.line;
+        this.col = from.col;
+    }
+    
+    /**
+     * Make this list, its comments and all nested values read-only (in place).
+     * Plain Map/List items are replaced by frozen Commented copies.
+     */
+    @SuppressWarnings("unchecked")
+    public void freeze() {
+        if (frozen) return;
+        markDirty();
+        for (int i = 0; i < size(); i++) {
+            super.set(i, (E) YamlNodes.freeze(get(i)));
+        }
+        ca.freeze();
+        frozen = true;
+    }
+    
+    public boolean isFrozen() {
+        return frozen;
+    }
+    
+    // ==================== Dirty tracking ====================
+    
+    /**
+     * True if the list changed since it was last written (frozen lists never change)
+     */
+    public boolean isDirty() {
+        return !frozen && renderState.isDirty();
+    }
+    
+    /**
+     * Drop cached output of this list and its rendered ancestors
+     */
+    public void markDirty() {
+        renderState.markDirty();
+    }
+    
+    RenderState renderState() {
+        return renderState;
+    }
+    
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("CommentedList is frozen (read-only)");
+        }
+        renderState.markDirty();
+    }
+    
     // ==================== List operations with comment handling ====================
     
     @Override
     public void add(int index, E element) {
+        checkMutable();
         ca.shiftIndicesUp(index);
         super.add(index, element);
     }
     
     @Override
     public E remove(int index) {
+        checkMutable();
         ca.shiftIndicesDown(index);
         return super.remove(index);
     }
     
     @Override
     public void clear() {
+        checkMutable();
         ca = new Comment();
+        ca.setOwner(renderState);
         super.clear();
     }
     
+    // ==================== List operations (read-only check) ====================
+    
+    @Override
+    public boolean add(E element) {
+        checkMutable();
+        return super.add(element);
+    }
+    
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        checkMutable();
+        return super.addAll(c);
+    }
+    
+    @Override
+    public boolean addAll(int index, Collection<? extends E> c) {
+        checkMutable();
+        return super.addAll(index, c);
+    }
+    
+    @Override
+    public E set(int index, E element) {
+        checkMutable();
+        return super.set(index, element);
+    }
+    
+    @Override
+    public boolean remove(Object o) {
+        checkMutable();
+        return super.remove(o);
+    }
+    
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        checkMutable();
+        return super.removeAll(c);
+    }
+    
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        checkMutable();
+        return super.retainAll(c);
+    }
+    
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        checkMutable();
+        return super.removeIf(filter);
+    }
+    
+    @Override
+    public void replaceAll(UnaryOperator<E> operator) {
+        checkMutable();
+        super.replaceAll(operator);
+    }
+    
+    @Override
+    public void sort(Comparator<? super E> c) {
+        checkMutable();
+        super.sort(c);
+    }
+    
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        checkMutable();
+        super.removeRange(fromIndex, toIndex);
+    }
+    
+    @Override
+    public List<E> subList(int fromIndex, int toIndex) {
+        if (frozen) return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+        // Sub-list writes may bypass the overrides above
+        markDirty();
+        return super.subList(fromIndex, toIndex);
+    }
+    
     // ==================== Legacy compatibility ====================
     
     @Deprecated
@@ -1,6 +1,8 @@
 package io.yamlrt.core;
 
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * CommentedMap (ruamel.yaml style)
@@ -8,6 +10,9 @@ import java.util.*;
  * - Based on LinkedHashMap for order preservation
  * - Comment object for comment/blank line management
  * - Access via ca property (comment attribute)
+ * - freeze() makes the map, its comments and all nested containers read-only
+ * - every change (entries, comments, attributes) marks the map and its
+ *   rendered ancestors dirty, so YamlWriter can reuse output of clean subtrees
  */
 public class CommentedMap<K, V> extends LinkedHashMap<K, V> {
     
@@ -16,6 +21,8 @@ public class CommentedMap<K, V> extends LinkedHashMap<K, V> {
     private int detectedIndent = 2;
     private boolean hasDocumentMarker = false;
     private boolean hasTrailingNewline = true;  // Default: most files have trailing newline
+    private boolean frozen = false;
+    private final RenderState renderState = new RenderState();
     
     // Line/Column info
     private int line = -1;
@@ -23,10 +30,12 @@ public class CommentedMap<K, V> extends LinkedHashMap<K, V> {
     
     public CommentedMap() {
         super();
+        ca.setOwner(renderState);
     }
     
     public CommentedMap(Map<? extends K, ? extends V> m) {
         super(m);
+        ca.setOwner(renderState);
     }
     
     // ==================== Comment Attribute (ca) ====================
@@ -80,6 +89,7 @@ public class CommentedMap<K, V> extends LinkedHashMap<K, V> {
     
     public void setDocumentMarker(boolean hasMarker) {
         this.hasDocumentMarker = hasMarker;
+        markDirty();
     }
     
     // ==================== Flow style ====================
@@ -90,6 +100,7 @@ public class CommentedMap<K, V> extends LinkedHashMap<K, V> {
     
     public void setFlowStyle(boolean flowStyle) {
         this.flowStyle = flowStyle;
+        markDirty();
     }
     
     // ==================== Indent ====================
@@ -100,6 +111,7 @@ public class CommentedMap<K, V> extends LinkedHashMap<K, V> {
     
     public void setDetectedIndent(int indent) {
         this.detectedIndent = indent;
+        markDirty();
     }
     
     // ==================== Trailing Newline ====================
@@ -110,6 +122,7 @@ public class CommentedMap<K, V> extends LinkedHashMap<K, V> {
     
     public void setTrailingNewline(boolean hasTrailingNewline) {
         this.hasTrailingNewline = hasTrailingNewline;
+        markDirty();
     }
     
     // ==================== Line/Col ====================
@@ -130,6 +143,237 @@ public class CommentedMap<K, V> extends LinkedHashMap<K, V> {
         this.col = col;
     }
     
+    // ==================== Copy / Freeze ====================
+    
+    /**
+     * Copy this level only: entries are shared, comment table is copied
+     */
+    public CommentedMap<K, V> shallowCopy() {
+        CommentedMap<K, V> copy = new CommentedMap<>();
+        copy.putAll(this);
+        copy.copyAttributes(this, ca.shallowCopy());
+        return copy;
+    }
+    
+    /**
+     * Copy this level only: entries are shared, comments are copied too
+     * (the copy's comments can change without affecting this map)
+     */
+    public CommentedMap<K, V> shallowCopyWithComments() {
+        CommentedMap<K, V> copy = new CommentedMap<>();
+        copy.putAll(this);
+        copy.copyAttributes(this, ca.deepCopy());
+        return copy;
+    }
+    
+    void copyAttributes(CommentedMap<?, ?> from, Comment comment) {
+        this.ca = comment;
+        comment.setOwner(renderState);
+        this.flowStyle = from.flowStyle;
+        this.detectedIndent = from.detectedIndent;
+        this.hasDocumentMarker = from.hasDocumentMarker;
+        this.hasTrailingNewline = from.hasTrailingNewline;
+        this.line = from.line;
+        this.col = from.col;
+    }
+    
+    /**
+     * Make this map, its comments and all nested values read-only (in place).
+     * Plain Map/List values are replaced by frozen Commented copies.
+     */
+    @SuppressWarnings("unchecked")
+    public void freeze() {
+        if (frozen) return;
+        markDirty();
+        for (Map.Entry<K, V> entry : super.entrySet()) {
+            entry.setValue((V) YamlNodes.freeze(entry.getValue()));
+        }
+        ca.freeze();
+        frozen = true;
+    }
+    
+    public boolean isFrozen() {
+        return frozen;
+    }
+    
+    // ==================== Dirty tracking ====================
+    
+    /**
+     * True if the map changed since it was last written (frozen maps never change)
+     */
+    public boolean isDirty() {
+        return !frozen && renderState.isDirty();
+    }
+    
+    /**
+     * Drop cached output of this map and its rendered ancestors
+     */
+    public void markDirty() {
+        renderState.markDirty();
+    }
+    
+    RenderState renderState() {
+        return renderState;
+    }
+    
+    /**
+     * Entry view without change tracking (for read-only internal iteration)
+     */
+    Set<Map.Entry<K, V>> entries() {
+        return super.entrySet();
+    }
+    
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("CommentedMap is frozen (read-only)");
+        }
+        renderState.markDirty();
+    }
+    
+    // ==================== Map operations (read-only check) ====================
+    
+    @Override
+    public V put(K key, V value) {
+        checkMutable();
+        return super.put(key, value);
+    }
+    
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        checkMutable();
+        super.putAll(m);
+    }
+    
+    @Override
+    public V remove(Object key) {
+        checkMutable();
+        return super.remove(key);
+    }
+    
+    @Override
+    public boolean remove(Object key, Object value) {
+        checkMutable();
+        return super.remove(key, value);
+    }
+    
+    @Override
+    public void clear() {
+        checkMutable();
+        super.clear();
+    }
+    
+    @Override
+    public V putIfAbsent(K key, V value) {
+        checkMutable();
+        return super.putIfAbsent(key, value);
+    }
+    
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        checkMutable();
+        return super.replace(key, oldValue, newValue);
+    }
+    
+    @Override
+    public V replace(K key, V value) {
+        checkMutable();
+        return super.replace(key, value);
+    }
+    
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        checkMutable();
+        super.replaceAll(function);
+    }
+    
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        checkMutable();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+    
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkMutable();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+    
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        checkMutable();
+        return super.compute(key, remappingFunction);
+    }
+    
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        checkMutable();
+        return super.merge(key, value, remappingFunction);
+    }
+    
+    @Override
+    public Set<K> keySet() {
+        if (frozen) return Collections.unmodifiableSet(super.keySet());
+        return new AbstractSet<K>() {
+            @Override public Iterator<K> iterator() { return trackedIterator(Map.Entry::getKey); }
+            @Override public int size() { return CommentedMap.this.size(); }
+            @Override public boolean contains(Object o) { return containsKey(o); }
+            @Override public void clear() { CommentedMap.this.clear(); }
+        };
+    }
+    
+    @Override
+    public Collection<V> values() {
+        if (frozen) return Collections.unmodifiableCollection(super.values());
+        return new AbstractCollection<V>() {
+            @Override public Iterator<V> iterator() { return trackedIterator(Map.Entry::getValue); }
+            @Override public int size() { return CommentedMap.this.size(); }
+            @Override public boolean contains(Object o) { return containsValue(o); }
+            @Override public void clear() { CommentedMap.this.clear(); }
+        };
+    }
+    
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (frozen) return Collections.unmodifiableSet(super.entrySet());
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override public Iterator<Map.Entry<K, V>> iterator() { return trackedIterator(TrackedEntry::new); }
+            @Override public int size() { return CommentedMap.this.size(); }
+            @Override public boolean contains(Object o) { return entries().contains(o); }
+            @Override public void clear() { CommentedMap.this.clear(); }
+        };
+    }
+    
+    /**
+     * Iterator over the entries whose remove() goes through change tracking
+     */
+    private <T> Iterator<T> trackedIterator(Function<Map.Entry<K, V>, T> mapper) {
+        Iterator<Map.Entry<K, V>> it = super.entrySet().iterator();
+        return new Iterator<T>() {
+            @Override public boolean hasNext() { return it.hasNext(); }
+            @Override public T next() { return mapper.apply(it.next()); }
+            @Override public void remove() { checkMutable(); it.remove(); }
+        };
+    }
+    
+    /**
+     * Entry whose setValue() goes through change tracking
+     */
+    private final class TrackedEntry extends AbstractMap.SimpleEntry<K, V> {
+        private final Map.Entry<K, V> entry;
+        
+        TrackedEntry(Map.Entry<K, V> entry) {
+            super(entry);
+            this.entry = entry;
+        }
+        
+        @Override
+        public V setValue(V value) {
+            checkMutable();
+            super.setValue(value);
+            return entry.setValue(value);
+        }
+    }
+    
     // ==================== Legacy compatibility ====================
     
     @Deprecated
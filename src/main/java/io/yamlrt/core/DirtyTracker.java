@@ -0,0 +1,10 @@
+package io.yamlrt.core;
+
+/**
+ * Receives in-place change notifications
+ * (token -> slot -> Comment -> container -> ancestors)
+ */
+interface DirtyTracker {
+    
+    void markDirty();
+}
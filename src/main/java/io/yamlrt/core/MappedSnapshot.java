@@ -0,0 +1,440 @@
+package io.yamlrt.core;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Random-access binary form of a tree's values, read in place from a buffer
+ *
+ * Unlike BinarySnapshot (a stream that is decoded into a full tree), every
+ * node here is reached through fixed-width offsets, so a lookup touches only
+ * the bytes on its path. Intended for a memory-mapped file shared by many
+ * processes: the data lives in the OS page cache, not on each heap.
+ *
+ * Layout (big-endian): "YRTM", version, root offset, then nodes
+ * - scalar: tag + fixed-width value, or length + UTF-8 bytes
+ * - map: tag, count, count x (key offset, value offset) in document order,
+ *   then (count > LINEAR_SCAN_LIMIT) the entry indices sorted by key bytes
+ * - list: tag, count, count x value offset
+ * Children precede their parent; equal strings (keys above all) are stored once.
+ *
+ * Only values are kept (no comments or formatting); keys are read back as
+ * strings. Containers are returned as read-only Map / List views over the
+ * buffer; reads never change the buffer's position, so a view may be shared
+ * between threads.
+ *
+ * Usage:
+ *   MappedSnapshot.write(root, out);
+ *   MappedSnapshot snapshot = MappedSnapshot.open(buffer);
+ *   Object port = snapshot.get(YamlPath.parse("server.port"));
+ */
+public final class MappedSnapshot {
+    
+    private static final int MAGIC = 0x5952544D;  // "YRTM"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    
+    // Maps up to this size are searched linearly (no sorted index is stored)
+    private static final int LINEAR_SCAN_LIMIT = 8;
+    
+    private static final byte T_NULL = 0;
+    private static final byte T_TRUE = 1;
+    private static final byte T_FALSE = 2;
+    private static final byte T_INT = 3;
+    private static final byte T_LONG = 4;
+    private static final byte T_DOUBLE = 5;
+    private static final byte T_FLOAT = 6;
+    private static final byte T_BIG_INTEGER = 7;
+    private static final byte T_BIG_DECIMAL = 8;
+    private static final byte T_STRING = 9;
+    private static final byte T_MAP = 10;
+    private static final byte T_LIST = 11;
+    
+    private static final Comparator<byte[]> KEY_ORDER = Arrays::compareUnsigned;
+    
+    private final ByteBuffer buffer;
+    private final int root;
+    
+    private MappedSnapshot(ByteBuffer buffer, int root) {
+        this.buffer = buffer;
+        this.root = root;
+    }
+    
+    // ==================== Write ====================
+    
+    public static void write(Map<?, ?> root, OutputStream out) throws IOException {
+        out.write(toBytes(root));
+    }
+    
+    public static byte[] toBytes(Map<?, ?> root) {
+        Encoder encoder = new Encoder();
+        encoder.putInt(MAGIC);
+        encoder.putInt(VERSION);
+        encoder.putInt(0);
+        int rootOffset = encoder.writeNode(root);
+        encoder.setInt(8, rootOffset);
+        return encoder.toByteArray();
+    }
+    
+    private static final class Encoder {
+        private byte[] bytes = new byte[4096];
+        private int size;
+        
+        private final Map<String, Integer> strings = new HashMap<>();
+        private int nullOffset = -1;
+        private int trueOffset = -1;
+        private int falseOffset = -1;
+        
+        int writeNode(Object value) {
+            if (value == null) {
+                if (nullOffset < 0) nullOffset = tagged(T_NULL);
+                return nullOffset;
+            }
+            if (value instanceof Boolean) {
+                if ((Boolean) value) {
+                    if (trueOffset < 0) trueOffset = tagged(T_TRUE);
+                    return trueOffset;
+                }
+                if (falseOffset < 0) falseOffset = tagged(T_FALSE);
+                return falseOffset;
+            }
+            if (value instanceof String) {
+                return writeString(T_STRING, (String) value);
+            }
+            if (value instanceof Map) {
+                return writeMap((Map<?, ?>) value);
+            }
+            if (value instanceof List) {
+                return writeList((List<?>) value);
+            }
+            int offset;
+            if (value instanceof Integer) {
+                offset = tagged(T_INT);
+                putInt((Integer) value);
+            } else if (value instanceof Long) {
+                offset = tagged(T_LONG);
+                putLong((Long) value);
+            } else if (value instanceof Double) {
+                offset = tagged(T_DOUBLE);
+                putLong(Double.doubleToRawLongBits((Double) value));
+            } else if (value instanceof Float) {
+                offset = tagged(T_FLOAT);
+                putInt(Float.floatToRawIntBits((Float) value));
+            } else if (value instanceof BigInteger) {
+                offset = writeString(T_BIG_INTEGER, value.toString());
+            } else if (value instanceof BigDecimal) {
+                offset = writeString(T_BIG_DECIMAL, value.toString());
+            } else {
+                throw new IllegalArgumentException("Unsupported value type in snapshot: " + value.getClass().getName());
+            }
+            return offset;
+        }
+        
+        private int writeString(byte tag, String str) {
+            if (tag == T_STRING) {
+                Integer existing = strings.get(str);
+                if (existing != null) return existing;
+            }
+            byte[] utf8 = str.getBytes(StandardCharsets.UTF_8);
+            int offset = tagged(tag);
+            putInt(utf8.length);
+            putBytes(utf8);
+            if (tag == T_STRING) strings.put(str, offset);
+            return offset;
+        }
+        
+        private int writeMap(Map<?, ?> map) {
+            int count = map.size();
+            int[] keys = new int[count];
+            int[] values = new int[count];
+            byte[][] keyBytes = count > LINEAR_SCAN_LIMIT ? new byte[count][] : null;
+            int i = 0;
+            for (Map.Entry<?, ?> entry : YamlNodes.entries(map)) {
+                String key = String.valueOf(entry.getKey());
+                keys[i] = writeString(T_STRING, key);
+                values[i] = writeNode(entry.getValue());
+                if (keyBytes != null) keyBytes[i] = key.getBytes(StandardCharsets.UTF_8);
+                i++;
+            }
+            
+            int offset = tagged(T_MAP);
+            putInt(count);
+            for (i = 0; i < count; i++) {
+                putInt(keys[i]);
+                putInt(values[i]);
+            }
+            if (keyBytes != null) {
+                Integer[] order = new Integer[count];
+                for (i = 0; i < count; i++) order[i] = i;
+                Arrays.sort(order, (a, b) -> KEY_ORDER.compare(keyBytes[a], keyBytes[b]));
+                for (Integer index : order) putInt(index);
+            }
+            return offset;
+        }
+        
+        private int writeList(List<?> list) {
+            int count = list.size();
+            int[] values = new int[count];
+            int i = 0;
+            for (Object item : list) {
+                values[i++] = writeNode(item);
+            }
+            
+            int offset = tagged(T_LIST);
+            putInt(count);
+            for (int value : values) putInt(value);
+            return offset;
+        }
+        
+        private int tagged(byte tag) {
+            int offset = size;
+            ensure(1);
+            bytes[size++] = tag;
+            return offset;
+        }
+        
+        void putInt(int value) {
+            ensure(4);
+            setInt(size, value);
+            size += 4;
+        }
+        
+        void setInt(int at, int value) {
+            bytes[at] = (byte) (value >>> 24);
+            bytes[at + 1] = (byte) (value >>> 16);
+            bytes[at + 2] = (byte) (value >>> 8);
+            bytes[at + 3] = (byte) value;
+        }
+        
+        private void putLong(long value) {
+            putInt((int) (value >>> 32));
+            putInt((int) value);
+        }
+        
+        private void putBytes(byte[] src) {
+            ensure(src.length);
+            System.arraycopy(src, 0, bytes, size, src.length);
+            size += src.length;
+        }
+        
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                long needed = (long) size + extra;
+                if (needed > Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("Tree too large for a mapped snapshot (2 GB limit)");
+                }
+                bytes = Arrays.copyOf(bytes, (int) Math.max(needed, Math.min(Integer.MAX_VALUE - 8L, 2L * bytes.length)));
+            }
+        }
+        
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+    
+    // ==================== Read ====================
+    
+    /**
+     * View over a buffer holding a snapshot (the buffer is not copied)
+     */
+    public static MappedSnapshot open(ByteBuffer buffer) throws IOException {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        if (view.limit() < HEADER_SIZE || view.getInt(0) != MAGIC) {
+            throw new IOException("Not a mapped yamlrt snapshot");
+        }
+        int version = view.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported mapped snapshot version: " + version);
+        }
+        int root = view.getInt(8);
+        if (root < HEADER_SIZE || root >= view.limit() || view.get(root) != T_MAP) {
+            throw new IOException("Corrupt mapped snapshot: bad root offset " + root);
+        }
+        return new MappedSnapshot(view, root);
+    }
+    
+    /**
+     * Root mapping as a read-only view
+     */
+    public Map<String, Object> getRoot() {
+        return new MappedMap(root);
+    }
+    
+    /**
+     * Value at path segments (null if not reachable); containers are returned as views
+     */
+    public Object get(List<Object> segments) {
+        int node = root;
+        for (int i = 0, n = segments.size(); i < n; i++) {
+            Object segment = segments.get(i);
+            byte tag = buffer.get(node);
+            if (segment instanceof Integer) {
+                int index = (Integer) segment;
+                if (tag != T_LIST || index < 0 || index >= buffer.getInt(node + 1)) return null;
+                node = buffer.getInt(node + 5 + 4 * index);
+            } else {
+                if (tag != T_MAP) return null;
+                node = find(node, String.valueOf(segment));
+                if (node < 0) return null;
+            }
+        }
+        return decode(node);
+    }
+    
+    /**
+     * Value node offset for key in the map at offset, or -1
+     */
+    private int find(int map, String key) {
+        byte[] target = key.getBytes(StandardCharsets.UTF_8);
+        int count = buffer.getInt(map + 1);
+        int entries = map + 5;
+        if (count <= LINEAR_SCAN_LIMIT) {
+            for (int i = 0; i < count; i++) {
+                if (compareKey(buffer.getInt(entries + 8 * i), target) == 0) {
+                    return buffer.getInt(entries + 8 * i + 4);
+                }
+            }
+            return -1;
+        }
+        
+        int order = entries + 8 * count;
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = entries + 8 * buffer.getInt(order + 4 * mid);
+            int cmp = compareKey(buffer.getInt(entry), target);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return buffer.getInt(entry + 4);
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Compare the string node at offset with target bytes (unsigned, like the sorted index)
+     */
+    private int compareKey(int node, byte[] target) {
+        int len = buffer.getInt(node + 1);
+        int start = node + 5;
+        int common = Math.min(len, target.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(buffer.get(start + i), target[i]);
+            if (cmp != 0) return cmp;
+        }
+        return Integer.compare(len, target.length);
+    }
+    
+    private Object decode(int node) {
+        switch (buffer.get(node)) {
+            case T_NULL: return null;
+            case T_TRUE: return Boolean.TRUE;
+            case T_FALSE: return Boolean.FALSE;
+            case T_INT: return buffer.getInt(node + 1);
+            case T_LONG: return buffer.getLong(node + 1);
+            case T_DOUBLE: return buffer.getDouble(node + 1);
+            case T_FLOAT: return buffer.getFloat(node + 1);
+            case T_BIG_INTEGER: return new BigInteger(string(node));
+            case T_BIG_DECIMAL: return new BigDecimal(string(node));
+            case T_STRING: return string(node);
+            case T_MAP: return new MappedMap(node);
+            case T_LIST: return new MappedList(node);
+            default: throw new IllegalStateException("Corrupt mapped snapshot: bad tag at offset " + node);
+        }
+    }
+    
+    private String string(int node) {
+        byte[] utf8 = new byte[buffer.getInt(node + 1)];
+        buffer.get(node + 5, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+    
+    // ==================== Views ====================
+    
+    /**
+     * Read-only map over a map node; entries are decoded on access
+     */
+    private final class MappedMap extends AbstractMap<String, Object> {
+        private final int node;
+        
+        MappedMap(int node) {
+            this.node = node;
+        }
+        
+        @Override
+        public int size() {
+            return buffer.getInt(node + 1);
+        }
+        
+        @Override
+        public Object get(Object key) {
+            if (!(key instanceof String)) return null;
+            int value = find(node, (String) key);
+            return value < 0 ? null : decode(value);
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && find(node, (String) key) >= 0;
+        }
+        
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return MappedMap.this.size();
+                }
+                
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int index;
+                        
+                        @Override
+                        public boolean hasNext() {
+                            return index < size();
+                        }
+                        
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            int entry = node + 5 + 8 * index++;
+                            return new SimpleImmutableEntry<>(string(buffer.getInt(entry)), decode(buffer.getInt(entry + 4)));
+                        }
+                    };
+                }
+            };
+        }
+    }
+    
+    /**
+     * Read-only list over a list node; items are decoded on access
+     */
+    private final class MappedList extends AbstractList<Object> implements RandomAccess {
+        private final int node;
+        
+        MappedList(int node) {
+            this.node = node;
+        }
+        
+        @Override
+        public int size() {
+            return buffer.getInt(node + 1);
+        }
+        
+        @Override
+        public Object get(int index) {
+            Objects.checkIndex(index, size());
+            return decode(buffer.getInt(node + 5 + 4 * index));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package io.yamlrt.core;
+
+import java.util.*;
+
+/**
+ * 64-bit subtree hashes, cached on each CommentedMap / CommentedList
+ *
+ * - a container's hash is computed from its children's hashes and kept in its
+ *   RenderState; a mutation drops the cached hash of the container and of its
+ *   linked ancestors only (the same propagation that drops cached output)
+ * - equal values give equal hashes (map key order is ignored, as in Map.equals);
+ *   equal hashes mean equal values with overwhelming probability
+ * - withComments() also covers comment and blank-line tokens and key order,
+ *   so equal hashes mean the same document layout
+ * - subtrees holding plain Map/List values are recomputed on every call,
+ *   since changes to those are not reported
+ *
+ * Not a cryptographic or persistent hash (see CanonicalWriter.contentHash for that).
+ * Hashing links parents the way rendering does, so it must not overlap
+ * mutations of the same tree; frozen trees may be hashed from any thread.
+ *
+ * Usage:
+ *   if (MerkleHash.of(before.get("server")) == MerkleHash.of(after.get("server"))) skip();
+ */
+public final class MerkleHash {
+    
+    private static final long NULL_HASH = 0x6A09E667F3BCC908L;
+    private static final long MAP_SEED = 0xBB67AE8584CAA73BL;
+    private static final long LIST_SEED = 0x3C6EF372FE94F82BL;
+    private static final long COMMENT_SEED = 0xA54FF53A5F1D36F1L;
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+    
+    private final boolean withComments;
+    private boolean untracked;  // plain Map/List hashed since the last store
+    
+    private MerkleHash(boolean withComments) {
+        this.withComments = withComments;
+    }
+    
+    /**
+     * Hash of the values in the subtree
+     */
+    public static long of(Object value) {
+        long cached = cached(value, false);
+        return cached != 0 ? cached : new MerkleHash(false).hash(value, null);
+    }
+    
+    /**
+     * Hash of the values and comments in the subtree
+     */
+    public static long withComments(Object value) {
+        long cached = cached(value, true);
+        return cached != 0 ? cached : new MerkleHash(true).hash(value, null);
+    }
+    
+    private static long cached(Object value, boolean withComments) {
+        RenderState state = renderState(value);
+        return state != null ? state.hash(withComments) : 0;
+    }
+    
+    private long hash(Object value, RenderState parent) {
+        RenderState state = renderState(value);
+        if (state == null) {
+            if (value instanceof Map || value instanceof List) untracked = true;
+            return compute(value, parent);
+        }
+        if (parent != null && !YamlNodes.isFrozen(value)) {
+            state.linkParent(parent);
+        }
+        long cached = state.hash(withComments);
+        if (cached != 0) return cached;
+        
+        boolean savedUntracked = untracked;
+        untracked = false;
+        long hash = compute(value, state);
+        if (!untracked) state.storeHash(withComments, hash);
+        untracked |= savedUntracked;
+        return hash;
+    }
+    
+    /**
+     * @param state nearest tracked container, linked as parent of tracked children
+     */
+    private long compute(Object value, RenderState state) {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            Comment ca = (value instanceof CommentedMap) ? ((CommentedMap<?, ?>) value).ca() : null;
+            // Values: sum of entry hashes, independent of key order; with comments: chained in order
+            long sum = 0;
+            long ordered = MAP_SEED;
+            for (Map.Entry<?, ?> entry : YamlNodes.entries(map)) {
+                long entryHash = scalar(entry.getKey()) * MULTIPLIER + hash(entry.getValue(), state);
+                if (withComments && ca != null) entryHash = entryHash * MULTIPLIER + slotHash(ca.items().get(entry.getKey()));
+                entryHash = mix(entryHash);
+                sum += entryHash;
+                ordered = mix(ordered * MULTIPLIER + entryHash);
+            }
+            long hash = withComments ? mix(ordered + map.size()) : mix(MAP_SEED + sum + map.size());
+            return withComments && ca != null ? nonZero(mix(hash * MULTIPLIER + containerHash(ca))) : nonZero(hash);
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            Comment ca = (value instanceof CommentedList) ? ((CommentedList<?>) value).ca() : null;
+            long hash = LIST_SEED;
+            int index = 0;
+            for (Object item : list) {
+                long itemHash = hash(item, state);
+                if (withComments && ca != null) itemHash = itemHash * MULTIPLIER + slotHash(ca.items().get(index));
+                hash = mix(hash * MULTIPLIER + itemHash);
+                index++;
+            }
+            hash = mix(hash + list.size());
+            return withComments && ca != null ? nonZero(mix(hash * MULTIPLIER + containerHash(ca))) : nonZero(hash);
+        }
+        return scalar(value);
+    }
+    
+    // ==================== Scalars ====================
+    
+    private static long scalar(Object value) {
+        if (value == null) return NULL_HASH;
+        long bits;
+        if (value instanceof String) {
+            bits = string((String) value);
+        } else if (value instanceof Long) {
+            bits = (Long) value;
+        } else if (value instanceof Integer) {
+            bits = (Integer) value;
+        } else if (value instanceof Double) {
+            bits = Double.doubleToLongBits((Double) value);
+        } else if (value instanceof Float) {
+            bits = Float.floatToIntBits((Float) value);
+        } else if (value instanceof Boolean) {
+            bits = (Boolean) value ? 1 : 2;
+        } else {
+            bits = value.hashCode();
+        }
+        // Type in the hash: 1 and 1L and "1" differ, as in equals()
+        return mix(string(value.getClass().getName()) * MULTIPLIER + bits);
+    }
+    
+    private static long string(String str) {
+        long hash = str.length();
+        for (int i = 0, n = str.length(); i < n; i++) {
+            hash = hash * 31 + str.charAt(i);
+        }
+        return mix(hash);
+    }
+    
+    // ==================== Comments ====================
+    
+    private static long containerHash(Comment ca) {
+        long hash = COMMENT_SEED;
+        hash = mix(hash * MULTIPLIER + tokenHash(ca.getContainerEol()));
+        hash = mix(hash * MULTIPLIER + tokensHash(ca.getContainerPre()));
+        return mix(hash * MULTIPLIER + tokensHash(ca.getEnd()));
+    }
+    
+    private static long slotHash(Comment.CommentSlot slot) {
+        if (slot == null) return COMMENT_SEED;
+        long hash = COMMENT_SEED;
+        hash = mix(hash * MULTIPLIER + tokensHash(slot.getKeyPre()));
+        hash = mix(hash * MULTIPLIER + tokenHash(slot.getKeyEol()));
+        hash = mix(hash * MULTIPLIER + tokensHash(slot.getValuePre()));
+        return mix(hash * MULTIPLIER + tokenHash(slot.getValueEol()));
+    }
+    
+    private static long tokensHash(List<CommentToken> tokens) {
+        long hash = tokens.size();
+        for (CommentToken token : tokens) {
+            hash = mix(hash * MULTIPLIER + tokenHash(token));
+        }
+        return hash;
+    }
+    
+    private static long tokenHash(CommentToken token) {
+        return token == null ? NULL_HASH : string(token.getValue());
+    }
+    
+    // ==================== Helpers ====================
+    
+    /**
+     * 64-bit finalizer (MurmurHash3 fmix64)
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    // 0 marks "not computed" in RenderState
+    private static long nonZero(long hash) {
+        return hash != 0 ? hash : 1;
+    }
+    
+    private static RenderState renderState(Object value) {
+        if (value instanceof CommentedMap) return ((CommentedMap<?, ?>) value).renderState();
+        if (value instanceof CommentedList) return ((CommentedList<?>) value).renderState();
+        return null;
+    }
+}
@@ -0,0 +1,112 @@
+package io.yamlrt.core;
+
+import java.util.Arrays;
+
+/**
+ * Dirty flag, parent links and cached output of one container (used by YamlWriter)
+ *
+ * - every mutation marks the container dirty and drops its cached output
+ * - the mark is passed up to all linked parents; a dirty node always has
+ *   dirty parents, so propagation stops at the first one already dirty
+ * - parents are linked by the writer while rendering, so every ancestor
+ *   that may hold cached output is reachable
+ * - frozen containers never change: they are always clean and never linked
+ *
+ * Mutations and dumps of a mutable tree must not overlap (same contract as
+ * the containers themselves). Cached output is published through a volatile
+ * field (hashes through volatile longs, 0 = not computed), so concurrent
+ * dumps and hashes of frozen snapshots may share them.
+ * Parallel dumps hand results back through ForkJoinTask.join(), which
+ * publishes the flags and links set by worker threads.
+ */
+final class RenderState implements DirtyTracker {
+    
+    private static final RenderState[] NO_PARENTS = new RenderState[0];
+    
+    private boolean dirty = true;
+    private RenderState[] parents = NO_PARENTS;
+    private volatile Rendered cache;
+    private volatile long valueHash;
+    private volatile long fullHash;
+    
+    /**
+     * Rendered text plus the writer settings it was produced with
+     */
+    static final class Rendered {
+        final String text;
+        final String key;
+        
+        Rendered(String text, String key) {
+            this.text = text;
+            this.key = key;
+        }
+    }
+    
+    @Override
+    public void markDirty() {
+        boolean propagate = !dirty || valueHash != 0 || fullHash != 0;
+        dirty = true;
+        cache = null;
+        valueHash = 0;
+        fullHash = 0;
+        if (!propagate) return;
+        for (RenderState parent : parents) {
+            parent.markDirty();
+        }
+    }
+    
+    boolean isDirty() {
+        return dirty;
+    }
+    
+    void markClean() {
+        dirty = false;
+    }
+    
+    // Synchronized: parallel section rendering may reach a shared container twice
+    synchronized void linkParent(RenderState parent) {
+        for (RenderState p : parents) {
+            if (p == parent) return;
+        }
+        parents = Arrays.copyOf(parents, parents.length + 1);
+        parents[parents.length - 1] = parent;
+    }
+    
+    synchronized void unlinkParent(RenderState parent) {
+        for (int i = 0; i < parents.length; i++) {
+            if (parents[i] == parent) {
+                RenderState[] rest = Arrays.copyOf(parents, parents.length - 1);
+                System.arraycopy(parents, i + 1, rest, i, parents.length - i - 1);
+                parents = rest;
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Cached text rendered with the same settings, or null
+     */
+    String cached(String key) {
+        Rendered r = cache;
+        return (r != null && r.key.equals(key)) ? r.text : null;
+    }
+    
+    void store(String key, String text) {
+        cache = new Rendered(text, key);
+    }
+    
+    /**
+     * Cached subtree hash (values only, or values and comments), or 0
+     */
+    long hash(boolean withComments) {
+        return withComments ? fullHash : valueHash;
+    }
+    
+    void storeHash(boolean withComments, long hash) {
+        if (withComments) {
+            fullHash = hash;
+        } else {
+            valueHash = hash;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.yamlrt.core;
+
+/**
+ * Original source range of a scalar value (ruamel.yaml style lc info)
+ *
+ * - source: the whole document text (shared, never copied)
+ * - start / end: offsets of the value text after "key:" or "- "
+ *   (leading spacing kept, comment and trailing whitespace excluded)
+ * - value: the object parsed from that text
+ *
+ * The writer copies the range verbatim while the slot still holds
+ * the identical parsed object; any replaced value is rendered normally.
+ */
+public final class SourceSpan {
+    
+    private final String source;
+    private final int start;
+    private final int end;
+    private final Object value;
+    
+    public SourceSpan(String source, int start, int end, Object value) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.value = value;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public int getStart() {
+        return start;
+    }
+    
+    public int getEnd() {
+        return end;
+    }
+    
+    public String getText() {
+        return source.substring(start, end);
+    }
+    
+    /**
+     * True while the given value is the very object parsed from this range
+     */
+    public boolean matches(Object current) {
+        return current == value;
+    }
+    
+    @Override
+    public String toString() {
+        return "SourceSpan{" + start + ".." + end + " '" + getText() + "'}";
+    }
+}
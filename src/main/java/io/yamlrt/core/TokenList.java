@@ -0,0 +1,133 @@
+package io.yamlrt.core;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Comment token list that reports changes to its owner (Comment or CommentSlot)
+ * and makes added tokens report their own changes there too
+ */
+final class TokenList extends ArrayList<CommentToken> {
+    
+    private DirtyTracker owner;
+    
+    TokenList(DirtyTracker owner) {
+        this.owner = owner;
+    }
+    
+    TokenList(DirtyTracker owner, Collection<CommentToken> tokens) {
+        super(tokens);
+        setOwner(owner);
+    }
+    
+    void setOwner(DirtyTracker owner) {
+        this.owner = owner;
+        for (CommentToken token : this) {
+            token.setOwner(owner);
+        }
+    }
+    
+    private void changed() {
+        owner.markDirty();
+    }
+    
+    private CommentToken attach(CommentToken token) {
+        if (token != null) token.setOwner(owner);
+        return token;
+    }
+    
+    @Override
+    public boolean add(CommentToken token) {
+        changed();
+        return super.add(attach(token));
+    }
+    
+    @Override
+    public void add(int index, CommentToken token) {
+        changed();
+        super.add(index, attach(token));
+    }
+    
+    @Override
+    public boolean addAll(Collection<? extends CommentToken> c) {
+        changed();
+        c.forEach(this::attach);
+        return super.addAll(c);
+    }
+    
+    @Override
+    public boolean addAll(int index, Collection<? extends CommentToken> c) {
+        changed();
+        c.forEach(this::attach);
+        return super.addAll(index, c);
+    }
+    
+    @Override
+    public CommentToken set(int index, CommentToken token) {
+        changed();
+        return super.set(index, attach(token));
+    }
+    
+    @Override
+    public CommentToken remove(int index) {
+        changed();
+        return super.remove(index);
+    }
+    
+    @Override
+    public boolean remove(Object o) {
+        changed();
+        return super.remove(o);
+    }
+    
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        changed();
+        return super.removeAll(c);
+    }
+    
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        changed();
+        return super.retainAll(c);
+    }
+    
+    @Override
+    public boolean removeIf(Predicate<? super CommentToken> filter) {
+        changed();
+        return super.removeIf(filter);
+    }
+    
+    @Override
+    public void replaceAll(UnaryOperator<CommentToken> operator) {
+        changed();
+        super.replaceAll(operator);
+        forEach(this::attach);
+    }
+    
+    @Override
+    public void sort(Comparator<? super CommentToken> c) {
+        changed();
+        super.sort(c);
+    }
+    
+    @Override
+    public void clear() {
+        changed();
+        super.clear();
+    }
+    
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        changed();
+        super.removeRange(fromIndex, toIndex);
+    }
+    
+    @Override
+    public List<CommentToken> subList(int fromIndex, int toIndex) {
+        // Sub-list writes may bypass the overrides above
+        changed();
+        return super.subList(fromIndex, toIndex);
+    }
+}
@@ -0,0 +1,170 @@
+package io.yamlrt.core;
+
+/**
+ * Typed view of a scalar value (converted once, reused until the value changes)
+ *
+ * - int / long / double / boolean conversions are computed eagerly, without exceptions
+ * - each conversion reports validity via isXxx() instead of throwing
+ * - Number -> int/long/double, Boolean -> boolean, String -> all four (strict syntax)
+ */
+public final class TypedValue {
+    
+    private static final TypedValue NULL = new TypedValue(null);
+    
+    private final Object source;
+    
+    private boolean intValid;
+    private int intValue;
+    private boolean longValid;
+    private long longValue;
+    private boolean doubleValid;
+    private double doubleValue;
+    private boolean booleanValid;
+    private boolean booleanValue;
+    
+    private TypedValue(Object source) {
+        this.source = source;
+    }
+    
+    /**
+     * Convert a value once into all supported primitive forms
+     */
+    public static TypedValue of(Object value) {
+        if (value == null) return NULL;
+        
+        TypedValue typed = new TypedValue(value);
+        if (value instanceof Boolean) {
+            typed.booleanValid = true;
+            typed.booleanValue = (Boolean) value;
+        } else if (value instanceof Number) {
+            Number number = (Number) value;
+            typed.intValid = true;
+            typed.intValue = number.intValue();
+            typed.longValid = true;
+            typed.longValue = number.longValue();
+            typed.doubleValid = true;
+            typed.doubleValue = number.doubleValue();
+        } else if (value instanceof String) {
+            typed.convertString((String) value);
+        }
+        return typed;
+    }
+    
+    private void convertString(String str) {
+        // Boolean.parseBoolean never fails
+        booleanValid = true;
+        booleanValue = Boolean.parseBoolean(str);
+        
+        if (parseLong(str)) {
+            longValid = true;
+            if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) {
+                intValid = true;
+                intValue = (int) longValue;
+            }
+        }
+        
+        if (isDecimal(str)) {
+            doubleValid = true;
+            doubleValue = Double.parseDouble(str);
+        }
+    }
+    
+    /**
+     * Same syntax as Long.parseLong (optional sign, decimal digits), without exceptions
+     */
+    private boolean parseLong(String str) {
+        int len = str.length();
+        if (len == 0) return false;
+        
+        int i = 0;
+        boolean negative = false;
+        char first = str.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (len == 1) return false;
+        }
+        
+        // Accumulate negatively to cover Long.MIN_VALUE
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multMin = limit / 10;
+        long result = 0;
+        for (; i < len; i++) {
+            int digit = str.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return false;
+            if (result < multMin) return false;
+            result *= 10;
+            if (result < limit + digit) return false;
+            result -= digit;
+        }
+        longValue = negative ? result : -result;
+        return true;
+    }
+    
+    /**
+     * Decimal syntax accepted by Double.parseDouble (surrounding whitespace, sign,
+     * digits, fraction, exponent, NaN/Infinity, f/d suffix). Hex floats are rejected.
+     */
+    private static boolean isDecimal(String str) {
+        int len = str.length();
+        int i = 0;
+        while (i < len && str.charAt(i) <= ' ') i++;
+        while (len > i && str.charAt(len - 1) <= ' ') len--;
+        if (i == len) return false;
+        
+        char c = str.charAt(i);
+        if (c == '+' || c == '-') i++;
+        
+        String rest = str.substring(i, len);
+        if (rest.equals("NaN") || rest.equals("Infinity")) return true;
+        
+        int digits = 0;
+        while (i < len && str.charAt(i) >= '0' && str.charAt(i) <= '9') { i++; digits++; }
+        if (i < len && str.charAt(i) == '.') {
+            i++;
+            while (i < len && str.charAt(i) >= '0' && str.charAt(i) <= '9') { i++; digits++; }
+        }
+        if (digits == 0) return false;
+        
+        if (i < len && (str.charAt(i) == 'e' || str.charAt(i) == 'E')) {
+            i++;
+            if (i < len && (str.charAt(i) == '+' || str.charAt(i) == '-')) i++;
+            int expDigits = 0;
+            while (i < len && str.charAt(i) >= '0' && str.charAt(i) <= '9') { i++; expDigits++; }
+            if (expDigits == 0) return false;
+        }
+        
+        if (i < len) {
+            c = str.charAt(i);
+            if (c == 'f' || c == 'F' || c == 'd' || c == 'D') i++;
+        }
+        return i == len;
+    }
+    
+    // ==================== Accessors ====================
+    
+    public Object getSource() {
+        return source;
+    }
+    
+    public boolean isNull() {
+        return source == null;
+    }
+    
+    public boolean isInt() { return intValid; }
+    public int getInt() { return intValue; }
+    
+    public boolean isLong() { return longValid; }
+    public long getLong() { return longValue; }
+    
+    public boolean isDouble() { return doubleValid; }
+    public double getDouble() { return doubleValue; }
+    
+    public boolean isBoolean() { return booleanValid; }
+    public boolean getBoolean() { return booleanValue; }
+    
+    @Override
+    public String toString() {
+        return "TypedValue{" + source + "}";
+    }
+}
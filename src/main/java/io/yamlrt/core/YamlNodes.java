@@ -0,0 +1,159 @@
+package io.yamlrt.core;
+
+import java.util.*;
+
+/**
+ * Copy / freeze helpers for CommentedMap / CommentedList trees
+ *
+ * - deepCopy: fully mutable copy (comments included)
+ * - frozenCopy: read-only copy; already-frozen subtrees are shared, not copied
+ * - shallowCopy: copy one container level (children shared)
+ *
+ * Plain Map / List values are converted to CommentedMap / CommentedList.
+ * Scalars (String, Number, Boolean, ...) are treated as immutable and shared.
+ */
+public final class YamlNodes {
+    
+    private YamlNodes() {}
+    
+    /**
+     * Deep copy into mutable Commented containers (comments copied too)
+     */
+    @SuppressWarnings("unchecked")
+    public static Object deepCopy(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> map = (Map<Object, Object>) value;
+            CommentedMap<Object, Object> copy = new CommentedMap<>();
+            for (Map.Entry<Object, Object> entry : entries(map)) {
+                copy.put(entry.getKey(), deepCopy(entry.getValue()));
+            }
+            if (map instanceof CommentedMap) {
+                CommentedMap<Object, Object> src = (CommentedMap<Object, Object>) map;
+                copy.copyAttributes(src, src.ca().deepCopy());
+            }
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            CommentedList<Object> copy = new CommentedList<>();
+            for (Object item : list) {
+                copy.add(deepCopy(item));
+            }
+            if (list instanceof CommentedList) {
+                CommentedList<Object> src = (CommentedList<Object>) list;
+                copy.copyAttributes(src, src.ca().deepCopy());
+            }
+            return copy;
+        }
+        return value;
+    }
+    
+    /**
+     * Read-only copy that never aliases mutable nodes; frozen subtrees are shared
+     */
+    @SuppressWarnings("unchecked")
+    public static Object frozenCopy(Object value) {
+        if (isFrozen(value)) {
+            return value;
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> map = (Map<Object, Object>) value;
+            CommentedMap<Object, Object> copy = new CommentedMap<>();
+            for (Map.Entry<Object, Object> entry : entries(map)) {
+                copy.put(entry.getKey(), frozenCopy(entry.getValue()));
+            }
+            if (map instanceof CommentedMap) {
+                CommentedMap<Object, Object> src = (CommentedMap<Object, Object>) map;
+                copy.copyAttributes(src, src.ca().deepCopy());
+            }
+            copy.freeze();
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            CommentedList<Object> copy = new CommentedList<>();
+            for (Object item : list) {
+                copy.add(frozenCopy(item));
+            }
+            if (list instanceof CommentedList) {
+                CommentedList<Object> src = (CommentedList<Object>) list;
+                copy.copyAttributes(src, src.ca().deepCopy());
+            }
+            copy.freeze();
+            return copy;
+        }
+        return value;
+    }
+    
+    /**
+     * Freeze Commented containers in place; plain Map/List become frozen copies
+     */
+    public static Object freeze(Object value) {
+        if (value instanceof CommentedMap) {
+            ((CommentedMap<?, ?>) value).freeze();
+            return value;
+        }
+        if (value instanceof CommentedList) {
+            ((CommentedList<?>) value).freeze();
+            return value;
+        }
+        if (value instanceof Map || value instanceof List) {
+            return frozenCopy(value);
+        }
+        return value;
+    }
+    
+    /**
+     * Mutable copy of one container level (children shared); scalars returned as is
+     */
+    @SuppressWarnings("unchecked")
+    public static Object shallowCopy(Object value) {
+        if (value instanceof CommentedMap) {
+            return ((CommentedMap<Object, Object>) value).shallowCopy();
+        }
+        if (value instanceof CommentedList) {
+            return ((CommentedList<Object>) value).shallowCopy();
+        }
+        if (value instanceof Map) {
+            return new CommentedMap<>((Map<Object, Object>) value);
+        }
+        if (value instanceof List) {
+            return new CommentedList<>((List<Object>) value);
+        }
+        return value;
+    }
+    
+    /**
+     * Stop a discarded container from receiving its children's change reports
+     * (for views that hold other trees' nodes, e.g. a merged overlay mapping)
+     */
+    public static void release(Object container) {
+        RenderState state = renderState(container);
+        if (state == null) return;
+        Collection<?> children = (container instanceof Map) ? ((Map<?, ?>) container).values() : (List<?>) container;
+        for (Object child : children) {
+            RenderState childState = renderState(child);
+            if (childState != null) childState.unlinkParent(state);
+        }
+    }
+    
+    private static RenderState renderState(Object value) {
+        if (value instanceof CommentedMap) return ((CommentedMap<?, ?>) value).renderState();
+        if (value instanceof CommentedList) return ((CommentedList<?>) value).renderState();
+        return null;
+    }
+    
+    /**
+     * Entries of a map for read-only iteration (skips CommentedMap change tracking)
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> Set<Map.Entry<K, V>> entries(Map<K, V> map) {
+        return (map instanceof CommentedMap) ? ((CommentedMap<K, V>) map).entries() : map.entrySet();
+    }
+    
+    public static boolean isFrozen(Object value) {
+        if (value instanceof CommentedMap) return ((CommentedMap<?, ?>) value).isFrozen();
+        if (value instanceof CommentedList) return ((CommentedList<?>) value).isFrozen();
+        return false;
+    }
+}
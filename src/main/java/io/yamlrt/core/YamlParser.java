@@ -15,7 +15,9 @@ public class YamlParser {
     private static final Pattern DOCUMENT_START_PATTERN = Pattern.compile("^---.*$");
     private static final Pattern DOCUMENT_END_PATTERN = Pattern.compile("^\\.\\.\\.\\s*$");
     
+    private String source;
     private List<String> lines;
+    private int[] lineOffsets;  // source offset of each line start
     private int currentLine;
     private int detectedIndent = 2;
     
@@ -40,16 +42,32 @@ public class YamlParser {
         String value;
         String comment;
         int commentColumn;  // Original column position of comment
+        int valueStart;     // value range within the split string
+        int valueEnd;
         
-        ValueAndComment(String value, String comment, int commentColumn) {
+        ValueAndComment(String value, String comment, int commentColumn, int valueStart, int valueEnd) {
             this.value = value;
             this.comment = comment;
             this.commentColumn = commentColumn;
+            this.valueStart = valueStart;
+            this.valueEnd = valueEnd;
         }
     }
     
     public CommentedMap<String, Object> parse(String yaml) {
-        this.lines = Arrays.asList(yaml.split("\n", -1));
+        List<String> split = Arrays.asList(yaml.split("\n", -1));
+        // The empty element after a final "\n" is the trailing newline, not a blank line
+        if (yaml.endsWith("\n")) {
+            split = split.subList(0, split.size() - 1);
+        }
+        this.source = yaml;
+        this.lines = split;
+        this.lineOffsets = new int[split.size()];
+        int offset = 0;
+        for (int i = 0; i < split.size(); i++) {
+            lineOffsets[i] = offset;
+            offset += split.get(i).length() + 1;
+        }
         this.currentLine = 0;
         this.pendingTokens.clear();
         
@@ -137,10 +155,7 @@ public class YamlParser {
                 String key = kvMatcher.group(2).trim();
                 String rest = kvMatcher.group(3);
                 
-                // Calculate the column where value starts (after "key: ")
-                int keyEndCol = indent + key.length() + 1; // +1 for ':'
-                
-                ValueAndComment vac = splitValueAndComment(rest, keyEndCol);
+                ValueAndComment vac = splitValueAndComment(rest, kvMatcher.start(3));
                 String valueStr = vac.value;
                 String inlineComment = vac.comment;
                 int commentColumn = vac.commentColumn;
@@ -155,10 +170,14 @@ public class YamlParser {
                     slot.setValueEol(new CommentToken(inlineComment, commentColumn));
                 }
                 
+                int valueLine = currentLine;
                 currentLine++;
                 log("parseMapping: key='" + key + "' valueStr='" + valueStr + "'");
                 
                 Object value = parseValue(valueStr, indent);
+                if (!valueStr.isEmpty()) {
+                    recordSpan(slot, valueLine, kvMatcher.end(2) + 1, kvMatcher.start(3) + vac.valueEnd, value);
+                }
                 map.put(key, value);
                 continue;
             }
@@ -252,9 +271,10 @@ public class YamlParser {
                 }
                 pendingTokens.clear();
                 
+                int itemLine = currentLine;
                 currentLine++;
                 
-                Object item = parseListItem(afterDash, listIndent, line);
+                Object item = parseListItem(afterDash, listMatcher.start(2), listIndent, itemLine, slot);
                 list.add(item);
                 itemIndex++;
                 log("parseSequence: added item " + (itemIndex-1) + ", continuing...");
@@ -267,11 +287,13 @@ public class YamlParser {
         log("parseSequence END");
     }
     
-    private Object parseListItem(String afterDash, int dashIndent, String originalLine) {
-        // Calculate column where content starts (after "- ")
-        int contentStartCol = dashIndent + 2;
-        
-        ValueAndComment vac = splitValueAndComment(afterDash, contentStartCol);
+    /**
+     * @param afterDashCol column where afterDash starts in the original line
+     * @param itemSlot comment slot of this item in the parent sequence
+     */
+    private Object parseListItem(String afterDash, int afterDashCol, int dashIndent, int itemLine,
+                                 Comment.CommentSlot itemSlot) {
+        ValueAndComment vac = splitValueAndComment(afterDash, afterDashCol);
         String content = vac.value;
         String inlineComment = vac.comment;
         
@@ -280,21 +302,15 @@ public class YamlParser {
         Matcher kvMatcher = KEY_VALUE_PATTERN.matcher(content);
         if (kvMatcher.matches()) {
             String firstKey = kvMatcher.group(2).trim();
-            String firstValueStr = kvMatcher.group(3).trim();
-            
-            // Calculate column for first key's value
-            int firstKeyEndCol = contentStartCol + firstKey.length() + 1;
-            ValueAndComment firstVac = splitValueAndComment(firstValueStr, firstKeyEndCol);
-            String firstVal = firstVac.value;
-            String firstComment = firstVac.comment;
-            int firstCommentCol = firstVac.commentColumn;
+            String firstVal = kvMatcher.group(3).trim();
             
             CommentedMap<String, Object> itemMap = new CommentedMap<>();
             itemMap.setDetectedIndent(detectedIndent);
             
-            if (firstComment != null) {
-                Comment.CommentSlot slot = itemMap.ca().getOrCreateSlot(firstKey);
-                slot.setValueEol(new CommentToken(firstComment, firstCommentCol));
+            // The line comment belongs to the first key ("- key: value  # comment")
+            Comment.CommentSlot firstSlot = itemMap.ca().getOrCreateSlot(firstKey);
+            if (inlineComment != null) {
+                firstSlot.setValueEol(new CommentToken(inlineComment, vac.commentColumn));
             }
             
             Object firstValue;
@@ -302,6 +318,9 @@ public class YamlParser {
                 firstValue = parseNestedValue(dashIndent + detectedIndent);
             } else {
                 firstValue = parseScalar(firstVal);
+                int contentCol = afterDashCol + vac.valueStart;
+                recordSpan(firstSlot, itemLine, contentCol + kvMatcher.end(2) + 1,
+                        contentCol + kvMatcher.end(3), firstValue);
             }
             itemMap.put(firstKey, firstValue);
             
@@ -313,8 +332,14 @@ public class YamlParser {
             return itemMap;
         }
         
+        if (inlineComment != null) {
+            itemSlot.setKeyEol(new CommentToken(inlineComment, vac.commentColumn));
+        }
+        
         if (!content.isEmpty()) {
-            return parseScalar(content);
+            Object item = parseScalar(content);
+            recordSpan(itemSlot, itemLine, afterDashCol, afterDashCol + vac.valueEnd, item);
+            return item;
         }
         
         return parseNestedValue(dashIndent + detectedIndent);
@@ -363,8 +388,7 @@ public class YamlParser {
                 String key = kvMatcher.group(2).trim();
                 String rest = kvMatcher.group(3);
                 
-                int keyEndCol = indent + key.length() + 1;
-                ValueAndComment vac = splitValueAndComment(rest, keyEndCol);
+                ValueAndComment vac = splitValueAndComment(rest, kvMatcher.start(3));
                 String valueStr = vac.value;
                 String comment = vac.comment;
                 int commentCol = vac.commentColumn;
@@ -379,6 +403,7 @@ public class YamlParser {
                     slot.setValueEol(new CommentToken(comment, commentCol));
                 }
                 
+                int valueLine = currentLine;
                 currentLine++;
                 log("parseMapInListItem: key='" + key + "'");
                 
@@ -387,6 +412,7 @@ public class YamlParser {
                     value = parseNestedValue(contentIndent);
                 } else {
                     value = parseScalar(valueStr);
+                    recordSpan(slot, valueLine, kvMatcher.end(2) + 1, kvMatcher.start(3) + vac.valueEnd, value);
                 }
                 map.put(key, value);
                 continue;
@@ -463,36 +489,55 @@ public class YamlParser {
         return indent;
     }
     
+    /**
+     * Remember the source text of a scalar value so an unchanged value is written back verbatim.
+     * Flow collections are mutable in place and always re-rendered.
+     * 
+     * @param startCol column right after "key:" / "- " (leading spacing is part of the span)
+     * @param endCol column after the last value character
+     */
+    private void recordSpan(Comment.CommentSlot slot, int line, int startCol, int endCol, Object value) {
+        if (value instanceof Map || value instanceof List || startCol >= endCol) {
+            return;
+        }
+        int lineStart = lineOffsets[line];
+        slot.setValueSpan(new SourceSpan(source, lineStart + startCol, lineStart + endCol, value));
+    }
+    
     /**
      * Split value and inline comment, preserving the original column position of the comment
      * 
-     * @param str The string after "key: " or "- "
+     * @param str The string after "key:" or "- "
      * @param startCol The column where str starts in the original line
-     * @return ValueAndComment with value, comment, and comment's column position
+     * @return ValueAndComment with value, comment, comment's column and the value range within str
      */
     private ValueAndComment splitValueAndComment(String str, int startCol) {
         if (str == null || str.isEmpty()) {
-            return new ValueAndComment("", null, -1);
+            return new ValueAndComment("", null, -1, 0, 0);
         }
         
         boolean inSingle = false, inDouble = false;
+        int end = str.length();
+        String comment = null;
+        int commentColumn = -1;
         
         for (int i = 0; i < str.length(); i++) {
             char c = str.charAt(i);
             if (c == '\'' && !inDouble) inSingle = !inSingle;
             else if (c == '"' && !inSingle) inDouble = !inDouble;
             else if (c == '#' && !inSingle && !inDouble) {
-                String value = str.substring(0, i).trim();
-                String comment = str.substring(i).trim();
-                // Calculate actual column: startCol + position in str
-                // But we need to account for leading space after ":"
-                // The actual column is where '#' appears in the original line
-                int commentColumn = startCol + i + 1; // +1 for space after ':'
-                return new ValueAndComment(value, comment, commentColumn);
+                comment = str.substring(i).trim();
+                // The column where '#' appears in the original line
+                commentColumn = startCol + i;
+                end = i;
+                break;
             }
         }
         
-        return new ValueAndComment(str.trim(), null, -1);
+        int start = 0;
+        while (start < end && str.charAt(start) <= ' ') start++;
+        while (end > start && str.charAt(end - 1) <= ' ') end--;
+        return new ValueAndComment(str.substring(start, end), comment, commentColumn, start, end);
     }
     
     private Object parseScalar(String value) {
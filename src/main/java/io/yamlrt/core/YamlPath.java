@@ -0,0 +1,110 @@
+package io.yamlrt.core;
+
+import java.util.*;
+
+/**
+ * Path notation helpers ("server.host", "Services[0].ServiceName")
+ */
+public final class YamlPath {
+    
+    private YamlPath() {}
+    
+    /**
+     * Parse path into segments
+     * "server.host" -> ["server", "host"]
+     * "Services[0].ServiceName" -> ["Services", 0, "ServiceName"]
+     */
+    public static List<Object> parse(String path) {
+        List<Object> segments = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            
+            if (c == '.') {
+                if (current.length() > 0) {
+                    segments.add(current.toString());
+                    current = new StringBuilder();
+                }
+            } else if (c == '[') {
+                if (current.length() > 0) {
+                    segments.add(current.toString());
+                    current = new StringBuilder();
+                }
+                // Find closing bracket
+                int end = path.indexOf(']', i);
+                if (end > i + 1) {
+                    String indexStr = path.substring(i + 1, end);
+                    try {
+                        segments.add(Integer.parseInt(indexStr));
+                    } catch (NumberFormatException e) {
+                        // Treat as string key (for map access like ["key"])
+                        segments.add(indexStr);
+                    }
+                    i = end;
+                }
+            } else if (c == ']') {
+                // Skip, already handled
+            } else {
+                current.append(c);
+            }
+        }
+        
+        if (current.length() > 0) {
+            segments.add(current.toString());
+        }
+        
+        return Collections.unmodifiableList(segments);
+    }
+    
+    /**
+     * Get value by path segments from container (null if not reachable)
+     */
+    @SuppressWarnings("unchecked")
+    public static Object get(Object container, List<Object> segments) {
+        Object current = container;
+        
+        for (int i = 0, n = segments.size(); i < n; i++) {
+            Object segment = segments.get(i);
+            if (current == null) return null;
+            
+            if (segment instanceof Integer) {
+                int index = (Integer) segment;
+                if (current instanceof List) {
+                    List<?> list = (List<?>) current;
+                    if (index >= 0 && index < list.size()) {
+                        current = list.get(index);
+                    } else {
+                        return null;
+                    }
+                } else {
+                    return null;
+                }
+            } else {
+                if (current instanceof Map) {
+                    current = ((Map<String, Object>) current).get(segment);
+                } else {
+                    return null;
+                }
+            }
+        }
+        
+        return current;
+    }
+    
+    /**
+     * Format segments back into path notation
+     */
+    public static String format(List<Object> segments) {
+        StringBuilder sb = new StringBuilder();
+        for (Object segment : segments) {
+            if (segment instanceof Integer) {
+                sb.append('[').append(segment).append(']');
+            } else {
+                if (sb.length() > 0) sb.append('.');
+                sb.append(segment);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,298 @@
+package io.yamlrt.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Output target for YamlWriter
+ * 
+ * Line endings are deferred: newline() only marks one as pending and it is
+ * written before the next output. finish() then decides whether the last
+ * one is written, so the trailing-newline choice never revisits the output.
+ * 
+ * The sink also tracks the current column, so EOL comments can be aligned
+ * without rendering the value a second time.
+ */
+abstract class YamlSink {
+    
+    private final String lineEnding;
+    private boolean pendingNewline = false;
+    private int column = 0;
+    
+    YamlSink(String lineEnding) {
+        this.lineEnding = lineEnding;
+    }
+    
+    final YamlSink append(String str) {
+        if (pendingNewline) writeNewline();
+        write(str);
+        column += str.length();
+        return this;
+    }
+    
+    /**
+     * Append str[start, end) without creating a substring
+     */
+    final YamlSink append(String str, int start, int end) {
+        if (start == end) return this;
+        if (pendingNewline) writeNewline();
+        write(str, start, end);
+        column += end - start;
+        return this;
+    }
+    
+    final YamlSink append(char c) {
+        if (pendingNewline) writeNewline();
+        write(c);
+        column++;
+        return this;
+    }
+    
+    final YamlSink newline() {
+        if (pendingNewline) writeNewline();
+        pendingNewline = true;
+        column = 0;
+        return this;
+    }
+    
+    /**
+     * Append complete lines rendered by another sink (text ends with a line ending);
+     * the last line ending stays pending, as if written through newline()
+     */
+    final YamlSink appendLines(String text) {
+        if (text.isEmpty()) return this;
+        int end = text.endsWith(lineEnding) ? text.length() - lineEnding.length() : text.length();
+        append(text, 0, end);
+        return newline();
+    }
+    
+    /**
+     * Column of the next character on the current line
+     */
+    final int column() {
+        return column;
+    }
+    
+    /**
+     * Write the last pending line ending only if the document keeps a trailing newline
+     */
+    final void finish(boolean trailingNewline) {
+        if (pendingNewline && trailingNewline) writeNewline();
+        pendingNewline = false;
+        column = 0;
+        flush();
+    }
+    
+    private void writeNewline() {
+        pendingNewline = false;
+        write(lineEnding);
+    }
+    
+    protected abstract void write(String str);
+    
+    protected abstract void write(String str, int start, int end);
+    
+    protected abstract void write(char c);
+    
+    protected void flush() {}
+    
+    // ==================== Implementations ====================
+    
+    /**
+     * In-memory output (write() returning String)
+     */
+    static final class StringSink extends YamlSink {
+        private final StringBuilder sb;
+        
+        StringSink(String lineEnding, StringBuilder sb) {
+            super(lineEnding);
+            this.sb = sb;
+        }
+        
+        @Override
+        protected void write(String str) {
+            sb.append(str);
+        }
+        
+        @Override
+        protected void write(String str, int start, int end) {
+            sb.append(str, start, end);
+        }
+        
+        @Override
+        protected void write(char c) {
+            sb.append(c);
+        }
+    }
+    
+    /**
+     * Streams to a Writer through a fixed-size char buffer (owned by the caller, reusable).
+     * IOExceptions are wrapped in UncheckedIOException and unwrapped by YamlWriter.
+     */
+    static final class WriterSink extends YamlSink {
+        private final Writer out;
+        private final char[] buf;
+        private int pos = 0;
+        
+        WriterSink(String lineEnding, Writer out, char[] buf) {
+            super(lineEnding);
+            this.out = out;
+            this.buf = buf;
+        }
+        
+        @Override
+        protected void write(String str) {
+            write(str, 0, str.length());
+        }
+        
+        @Override
+        protected void write(String str, int start, int end) {
+            int off = start;
+            while (off < end) {
+                if (pos == buf.length) drain();
+                int n = Math.min(end - off, buf.length - pos);
+                str.getChars(off, off + n, buf, pos);
+                pos += n;
+                off += n;
+            }
+        }
+        
+        @Override
+        protected void write(char c) {
+            if (pos == buf.length) drain();
+            buf[pos++] = c;
+        }
+        
+        @Override
+        protected void flush() {
+            drain();
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        
+        private void drain() {
+            if (pos == 0) return;
+            try {
+                out.write(buf, 0, pos);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pos = 0;
+        }
+    }
+    
+    /**
+     * Encodes straight to UTF-8 into a byte buffer (no intermediate String).
+     * 
+     * - channel == null: the buffer grows and holds the whole document (buffer()/size())
+     * - otherwise the buffer is drained to the channel whenever it fills up
+     * 
+     * Strings are staged through a small char[] and encoded with the JDK UTF-8
+     * encoder (intrinsified ASCII loop). Unpaired surrogates are written as '?',
+     * like String.getBytes(UTF_8).
+     */
+    static final class ByteSink extends YamlSink {
+        private static final int CHUNK_SIZE = 256;
+        
+        private final WritableByteChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final char[] chars = new char[CHUNK_SIZE];
+        private final CharBuffer in = CharBuffer.wrap(chars);
+        private ByteBuffer out;
+        
+        ByteSink(String lineEnding, byte[] buf, WritableByteChannel channel) {
+            super(lineEnding);
+            this.out = ByteBuffer.wrap(buf);
+            this.channel = channel;
+        }
+        
+        @Override
+        protected void write(String str) {
+            write(str, 0, str.length());
+        }
+        
+        @Override
+        protected void write(String str, int start, int end) {
+            while (start < end) {
+                int n = Math.min(end - start, chars.length);
+                // Keep a surrogate pair in one chunk
+                if (n < end - start && Character.isHighSurrogate(str.charAt(start + n - 1))) n--;
+                str.getChars(start, start + n, chars, 0);
+                encode(n);
+                start += n;
+            }
+        }
+        
+        @Override
+        protected void write(char c) {
+            if (c < 0x80 && out.hasRemaining()) {
+                out.put((byte) c);
+            } else {
+                chars[0] = c;
+                encode(1);
+            }
+        }
+        
+        private void encode(int len) {
+            in.clear().limit(len);
+            while (encoder.encode(in, out, false).isOverflow()) {
+                makeRoom();
+            }
+            if (in.hasRemaining()) {
+                // Trailing high surrogate without its pair
+                if (!out.hasRemaining()) makeRoom();
+                out.put((byte) '?');
+            }
+        }
+        
+        private void makeRoom() {
+            if (channel != null) {
+                drain();
+            } else {
+                byte[] grown = Arrays.copyOf(out.array(), Math.max(out.capacity() * 2, 16));
+                out = ByteBuffer.wrap(grown).position(out.position());
+            }
+        }
+        
+        @Override
+        protected void flush() {
+            if (channel != null) drain();
+        }
+        
+        private void drain() {
+            out.flip();
+            try {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            out.clear();
+        }
+        
+        /**
+         * Current buffer (may have been grown) and the number of bytes written to it
+         */
+        byte[] buffer() {
+            return out.array();
+        }
+        
+        int size() {
+            return out.position();
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package io.yamlrt.core;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * YAML Writer (ruamel.yaml round-trip style)
@@ -11,13 +17,44 @@ import java.util.*;
  * 3. preserve original indent
  * 4. compact block sequence (- key: value)
  * 5. preserve exact blank line count
+ * 
+ * Output cache:
+ * - the whole document and each top-level section are cached on their container
+ * - a cache is reused while the container is clean (see RenderState); only
+ *   dirty sections are rendered again
+ * - rendering links every nested container to its parent, so later changes
+ *   reach the cached ancestors
+ * - plain Map/List values do not report changes; output containing them is not cached
  */
 public class YamlWriter {
     
-    private StringBuilder output;
+    private static final int BUFFER_SIZE = 8192;
+    
+    // Reused output buffers are dropped after dumps larger than this
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+    
+    // Cached indent / padding strings
+    private static final String[] INDENTS = new String[128];
+    static {
+        for (int i = 0; i < INDENTS.length; i++) {
+            INDENTS[i] = " ".repeat(i);
+        }
+    }
+    
+    private YamlSink output;
+    private StringBuilder stringBuffer;
+    private char[] streamBuffer;
+    private byte[] byteBuffer;
+    private byte[] channelBuffer;
     private int indentSize = 2;
     private String lineEnding = "\n";
     private boolean hasDocumentMarker = false;
+    private ForkJoinPool pool;  // parallel section rendering (null: sequential)
+    
+    // Per-dump render state
+    private RenderState parentState;  // container being rendered
+    private int depth;                 // nesting of block containers below the root
+    private boolean untracked;         // plain Map/List written since the last capture
     
     public YamlWriter() {}
     
@@ -29,13 +66,117 @@ public class YamlWriter {
         this.hasDocumentMarker = hasMarker;
     }
     
+    /**
+     * Render top-level sections in parallel on the given pool (null: sequential).
+     * Output is identical to sequential mode.
+     */
+    public void setParallel(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
     public String write(CommentedMap<String, Object> root) {
-        output = new StringBuilder();
+        String key = documentKey(root);
+        String cached = cachedText(root, root.renderState(), key);
+        if (cached != null) return cached;
+        
+        StringBuilder sb = stringBuffer;
+        stringBuffer = null;
+        if (sb == null) sb = new StringBuilder(1024);
+        
+        write(root, new YamlSink.StringSink(lineEnding, sb));
+        String result = sb.toString();
+        if (!untracked) root.renderState().store(key, result);
+        
+        if (sb.capacity() <= MAX_RETAINED_CAPACITY) {
+            sb.setLength(0);
+            stringBuffer = sb;
+        }
+        return result;
+    }
+    
+    /**
+     * Stream the document to a Writer through a fixed-size buffer
+     * (the Writer is flushed, not closed)
+     */
+    public void write(CommentedMap<String, Object> root, Writer out) throws IOException {
+        if (streamBuffer == null) streamBuffer = new char[BUFFER_SIZE];
+        try {
+            writeCachedOrRender(root, new YamlSink.WriterSink(lineEnding, out, streamBuffer));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Encode the document straight to UTF-8 bytes (no intermediate String)
+     */
+    public byte[] writeBytes(CommentedMap<String, Object> root) {
+        byte[] buf = byteBuffer;
+        byteBuffer = null;
+        if (buf == null) buf = new byte[BUFFER_SIZE];
+        
+        YamlSink.ByteSink sink = new YamlSink.ByteSink(lineEnding, buf, null);
+        writeCachedOrRender(root, sink);
+        byte[] result = Arrays.copyOf(sink.buffer(), sink.size());
+        
+        if (sink.buffer().length <= MAX_RETAINED_CAPACITY) {
+            byteBuffer = sink.buffer();
+        }
+        return result;
+    }
+    
+    /**
+     * Stream the document as UTF-8 to a channel through a fixed-size byte buffer
+     * (the channel is not closed)
+     */
+    public void write(CommentedMap<String, Object> root, WritableByteChannel channel) throws IOException {
+        if (channelBuffer == null) channelBuffer = new byte[BUFFER_SIZE];
+        try {
+            writeCachedOrRender(root, new YamlSink.ByteSink(lineEnding, channelBuffer, channel));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Render one scalar exactly as it would appear after "key: " in block context
+     */
+    public String formatScalar(Object value) {
+        if (value instanceof Map || value instanceof List) {
+            throw new IllegalArgumentException("Not a scalar: " + value.getClass().getSimpleName());
+        }
+        StringBuilder sb = new StringBuilder();
+        YamlSink saved = output;
+        output = new YamlSink.StringSink(lineEnding, sb);
+        try {
+            writeScalar(value);
+        } finally {
+            output = saved;
+        }
+        return sb.toString();
+    }
+    
+    private void writeCachedOrRender(CommentedMap<String, Object> root, YamlSink sink) {
+        String cached = cachedText(root, root.renderState(), documentKey(root));
+        if (cached != null) {
+            sink.append(cached);
+            sink.finish(false);
+        } else {
+            write(root, sink);
+        }
+    }
+    
+    private void write(CommentedMap<String, Object> root, YamlSink sink) {
+        output = sink;
         this.indentSize = root.getDetectedIndent();
+        parentState = null;
+        depth = 0;
+        untracked = false;
+        RenderState saved = enter(root);
         
         // Document marker
         if (hasDocumentMarker || root.hasDocumentMarker()) {
-            output.append("---").append(lineEnding);
+            output.append("---").newline();
         }
         
         // Container pre-comments
@@ -44,21 +185,21 @@ public class YamlWriter {
         }
         
         // Main content
-        writeMapping(root, 0);
+        if (pool != null && root.size() > 1) {
+            writeSectionsParallel(root);
+        } else {
+            writeMapping(root, 0);
+        }
         
         // End comments
         for (CommentToken token : root.ca().getEnd()) {
             writeCommentToken(token, 0);
         }
         
-        String result = output.toString();
-        
-        // Handle trailing newline based on original
-        if (!root.hasTrailingNewline() && result.endsWith(lineEnding)) {
-            result = result.substring(0, result.length() - lineEnding.length());
-        }
-        
-        return result;
+        // Last line ending is written only if the original had one
+        output.finish(root.hasTrailingNewline());
+        output = null;
+        leave(root, saved);
     }
     
     /**
@@ -66,75 +207,84 @@ public class YamlWriter {
      */
     @SuppressWarnings("unchecked")
     private void writeMapping(Map<String, Object> map, int indent) {
-        String indentStr = spaces(indent);
         Comment ca = (map instanceof CommentedMap) ? ((CommentedMap<String, Object>) map).ca() : null;
         
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
+        for (Map.Entry<String, Object> entry : YamlNodes.entries(map)) {
             String key = entry.getKey();
-            Object value = entry.getValue();
-            
             Comment.CommentSlot slot = (ca != null) ? ca.getSlot(key) : null;
-            
-            // Pre-comments (blank lines and block comments before key)
-            if (slot != null) {
-                for (CommentToken token : slot.getKeyPre()) {
-                    writeCommentToken(token, indent);
-                }
+            writeMappingEntry(key, entry.getValue(), slot, indent);
+        }
+    }
+    
+    /**
+     * Write one "key: value" entry with its pre-comments
+     */
+    private void writeMappingEntry(String key, Object value, Comment.CommentSlot slot, int indent) {
+        // Pre-comments (blank lines and block comments before key)
+        if (slot != null) {
+            for (CommentToken token : slot.getKeyPre()) {
+                writeCommentToken(token, indent);
             }
-            
-            // Key
-            output.append(indentStr).append(key).append(":");
-            
-            // Value with EOL comment
-            CommentToken eolComment = (slot != null) ? slot.getValueEol() : null;
-            writeValue(value, indent, eolComment, key.length() + indent + 1);
         }
+        
+        // Key
+        output.append(spaces(indent)).append(key).append(":");
+        
+        // Value with EOL comment
+        writeValue(value, indent, slot);
     }
     
     /**
      * Write a value after "key:"
-     * @param keyEndCol column position after "key:"
      */
     @SuppressWarnings("unchecked")
-    private void writeValue(Object value, int keyIndent, CommentToken eolComment, int keyEndCol) {
-        if (value == null) {
-            appendEolComment(eolComment, keyEndCol);
-            output.append(lineEnding);
+    private void writeValue(Object value, int keyIndent, Comment.CommentSlot slot) {
+        CommentToken eolComment = (slot != null) ? slot.getValueEol() : null;
+        SourceSpan span = unchangedSpan(slot, value);
+        if (span != null) {
+            appendSpan(span);
+            appendEolComment(eolComment);
+            output.newline();
+        } else if (value == null) {
+            appendEolComment(eolComment);
+            output.newline();
         } else if (value instanceof CommentedMap) {
             CommentedMap<String, Object> mapValue = (CommentedMap<String, Object>) value;
             if (mapValue.isFlowStyle()) {
-                output.append(" ").append(formatFlowMapping(mapValue));
-                appendEolComment(eolComment, keyEndCol + 1 + formatFlowMapping(mapValue).length());
-                output.append(lineEnding);
+                output.append(' ');
+                writeFlowMapping(mapValue);
+                appendEolComment(eolComment);
+                output.newline();
             } else {
-                appendEolComment(eolComment, keyEndCol);
-                output.append(lineEnding);
-                writeMapping(mapValue, keyIndent + indentSize);
+                appendEolComment(eolComment);
+                output.newline();
+                writeNested(mapValue, keyIndent + indentSize, false);
             }
         } else if (value instanceof CommentedList) {
             CommentedList<Object> listValue = (CommentedList<Object>) value;
             if (listValue.isFlowStyle()) {
-                output.append(" ").append(formatFlowSequence(listValue));
-                appendEolComment(eolComment, keyEndCol + 1 + formatFlowSequence(listValue).length());
-                output.append(lineEnding);
+                output.append(' ');
+                writeFlowSequence(listValue);
+                appendEolComment(eolComment);
+                output.newline();
             } else {
-                appendEolComment(eolComment, keyEndCol);
-                output.append(lineEnding);
-                writeSequence(listValue, keyIndent);
+                appendEolComment(eolComment);
+                output.newline();
+                writeNested(listValue, keyIndent, false);
             }
         } else if (value instanceof Map) {
-            appendEolComment(eolComment, keyEndCol);
-            output.append(lineEnding);
-            writeMapping((Map<String, Object>) value, keyIndent + indentSize);
+            appendEolComment(eolComment);
+            output.newline();
+            writeNested((Map<String, Object>) value, keyIndent + indentSize, false);
         } else if (value instanceof List) {
-            appendEolComment(eolComment, keyEndCol);
-            output.append(lineEnding);
-            writeSequence((List<Object>) value, keyIndent);
+            appendEolComment(eolComment);
+            output.newline();
+            writeNested((List<Object>) value, keyIndent, false);
         } else {
-            String scalar = formatScalar(value);
-            output.append(" ").append(scalar);
-            appendEolComment(eolComment, keyEndCol + 1 + scalar.length());
-            output.append(lineEnding);
+            output.append(' ');
+            writeScalar(value);
+            appendEolComment(eolComment);
+            output.newline();
         }
     }
     
@@ -166,21 +316,29 @@ public class YamlWriter {
                 }
             }
             
-            // Item
-            if (item == null) {
+            // Item (unchanged scalars are copied from the source)
+            SourceSpan span = unchangedSpan(slot, item);
+            if (span != null) {
+                output.append(indentStr).append("- ");
+                appendSpan(span);
+                appendEolComment(slot.getKeyEol());
+                output.newline();
+            } else if (item == null) {
                 output.append(indentStr).append("-");
-                appendEolComment(slot != null ? slot.getKeyEol() : null, listIndent + 1);
-                output.append(lineEnding);
+                appendEolComment(slot != null ? slot.getKeyEol() : null);
+                output.newline();
             } else if (item instanceof Map) {
+                RenderState saved = enter(item);
                 writeListMapItem((Map<String, Object>) item, listIndent);
+                leave(item, saved);
             } else if (item instanceof List) {
-                output.append(indentStr).append("-").append(lineEnding);
-                writeSequence((List<Object>) item, listIndent);
+                output.append(indentStr).append("-").newline();
+                writeNested(item, listIndent, false);
             } else {
-                String scalar = formatScalar(item);
-                output.append(indentStr).append("- ").append(scalar);
-                appendEolComment(slot != null ? slot.getKeyEol() : null, listIndent + 2 + scalar.length());
-                output.append(lineEnding);
+                output.append(indentStr).append("- ");
+                writeScalar(item);
+                appendEolComment(slot != null ? slot.getKeyEol() : null);
+                output.newline();
             }
         }
     }
@@ -199,7 +357,7 @@ public class YamlWriter {
         
         boolean firstKey = true;
         
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
+        for (Map.Entry<String, Object> entry : YamlNodes.entries(map)) {
             String key = entry.getKey();
             Object value = entry.getValue();
             
@@ -208,9 +366,7 @@ public class YamlWriter {
             if (firstKey) {
                 // First key: "- key:"
                 output.append(dashIndentStr).append("- ").append(key).append(":");
-                CommentToken eolComment = (slot != null) ? slot.getValueEol() : null;
-                int keyEndCol = listIndent + 2 + key.length() + 1;
-                writeValueCompact(value, listIndent + indentSize, eolComment, keyEndCol);
+                writeValueCompact(value, listIndent + indentSize, slot);
                 firstKey = false;
             } else {
                 // Pre-comments for subsequent keys
@@ -222,9 +378,7 @@ public class YamlWriter {
                 
                 // Subsequent keys: "  key:"
                 output.append(contentIndentStr).append(key).append(":");
-                CommentToken eolComment = (slot != null) ? slot.getValueEol() : null;
-                int keyEndCol = listIndent + indentSize + key.length() + 1;
-                writeValueCompact(value, listIndent + indentSize, eolComment, keyEndCol);
+                writeValueCompact(value, listIndent + indentSize, slot);
             }
         }
     }
@@ -234,45 +388,53 @@ public class YamlWriter {
      * NO extra blank line at the end
      */
     @SuppressWarnings("unchecked")
-    private void writeValueCompact(Object value, int keyIndent, CommentToken eolComment, int keyEndCol) {
-        if (value == null) {
-            appendEolComment(eolComment, keyEndCol);
-            output.append(lineEnding);
+    private void writeValueCompact(Object value, int keyIndent, Comment.CommentSlot slot) {
+        CommentToken eolComment = (slot != null) ? slot.getValueEol() : null;
+        SourceSpan span = unchangedSpan(slot, value);
+        if (span != null) {
+            appendSpan(span);
+            appendEolComment(eolComment);
+            output.newline();
+        } else if (value == null) {
+            appendEolComment(eolComment);
+            output.newline();
         } else if (value instanceof CommentedMap) {
             CommentedMap<String, Object> mapValue = (CommentedMap<String, Object>) value;
             if (mapValue.isFlowStyle()) {
-                output.append(" ").append(formatFlowMapping(mapValue));
-                appendEolComment(eolComment, keyEndCol + 1 + formatFlowMapping(mapValue).length());
-                output.append(lineEnding);
+                output.append(' ');
+                writeFlowMapping(mapValue);
+                appendEolComment(eolComment);
+                output.newline();
             } else {
-                appendEolComment(eolComment, keyEndCol);
-                output.append(lineEnding);
-                writeMappingCompact(mapValue, keyIndent + indentSize);
+                appendEolComment(eolComment);
+                output.newline();
+                writeNested(mapValue, keyIndent + indentSize, true);
             }
         } else if (value instanceof CommentedList) {
             CommentedList<Object> listValue = (CommentedList<Object>) value;
             if (listValue.isFlowStyle()) {
-                output.append(" ").append(formatFlowSequence(listValue));
-                appendEolComment(eolComment, keyEndCol + 1 + formatFlowSequence(listValue).length());
-                output.append(lineEnding);
+                output.append(' ');
+                writeFlowSequence(listValue);
+                appendEolComment(eolComment);
+                output.newline();
             } else {
-                appendEolComment(eolComment, keyEndCol);
-                output.append(lineEnding);
-                writeSequenceCompact(listValue, keyIndent);
+                appendEolComment(eolComment);
+                output.newline();
+                writeNested(listValue, keyIndent, true);
             }
         } else if (value instanceof Map) {
-            appendEolComment(eolComment, keyEndCol);
-            output.append(lineEnding);
-            writeMappingCompact((Map<String, Object>) value, keyIndent + indentSize);
+            appendEolComment(eolComment);
+            output.newline();
+            writeNested((Map<String, Object>) value, keyIndent + indentSize, true);
         } else if (value instanceof List) {
-            appendEolComment(eolComment, keyEndCol);
-            output.append(lineEnding);
-            writeSequenceCompact((List<Object>) value, keyIndent);
+            appendEolComment(eolComment);
+            output.newline();
+            writeNested((List<Object>) value, keyIndent, true);
         } else {
-            String scalar = formatScalar(value);
-            output.append(" ").append(scalar);
-            appendEolComment(eolComment, keyEndCol + 1 + scalar.length());
-            output.append(lineEnding);
+            output.append(' ');
+            writeScalar(value);
+            appendEolComment(eolComment);
+            output.newline();
         }
     }
     
@@ -284,7 +446,7 @@ public class YamlWriter {
         String indentStr = spaces(indent);
         Comment ca = (map instanceof CommentedMap) ? ((CommentedMap<String, Object>) map).ca() : null;
         
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
+        for (Map.Entry<String, Object> entry : YamlNodes.entries(map)) {
             String key = entry.getKey();
             Object value = entry.getValue();
             
@@ -298,9 +460,7 @@ public class YamlWriter {
             }
             
             output.append(indentStr).append(key).append(":");
-            CommentToken eolComment = (slot != null) ? slot.getValueEol() : null;
-            int keyEndCol = indent + key.length() + 1;
-            writeValueCompact(value, indent, eolComment, keyEndCol);
+            writeValueCompact(value, indent, slot);
         }
     }
     
@@ -331,20 +491,28 @@ public class YamlWriter {
                 }
             }
             
-            if (item == null) {
+            SourceSpan span = unchangedSpan(slot, item);
+            if (span != null) {
+                output.append(indentStr).append("- ");
+                appendSpan(span);
+                appendEolComment(slot.getKeyEol());
+                output.newline();
+            } else if (item == null) {
                 output.append(indentStr).append("-");
-                appendEolComment(slot != null ? slot.getKeyEol() : null, listIndent + 1);
-                output.append(lineEnding);
+                appendEolComment(slot != null ? slot.getKeyEol() : null);
+                output.newline();
             } else if (item instanceof Map) {
+                RenderState saved = enter(item);
                 writeListMapItemCompact((Map<String, Object>) item, listIndent);
+                leave(item, saved);
             } else if (item instanceof List) {
-                output.append(indentStr).append("-").append(lineEnding);
-                writeSequenceCompact((List<Object>) item, listIndent);
+                output.append(indentStr).append("-").newline();
+                writeNested(item, listIndent, true);
             } else {
-                String scalar = formatScalar(item);
-                output.append(indentStr).append("- ").append(scalar);
-                appendEolComment(slot != null ? slot.getKeyEol() : null, listIndent + 2 + scalar.length());
-                output.append(lineEnding);
+                output.append(indentStr).append("- ");
+                writeScalar(item);
+                appendEolComment(slot != null ? slot.getKeyEol() : null);
+                output.newline();
             }
         }
     }
@@ -361,7 +529,7 @@ public class YamlWriter {
         
         boolean firstKey = true;
         
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
+        for (Map.Entry<String, Object> entry : YamlNodes.entries(map)) {
             String key = entry.getKey();
             Object value = entry.getValue();
             
@@ -369,9 +537,7 @@ public class YamlWriter {
             
             if (firstKey) {
                 output.append(dashIndentStr).append("- ").append(key).append(":");
-                CommentToken eolComment = (slot != null) ? slot.getValueEol() : null;
-                int keyEndCol = listIndent + 2 + key.length() + 1;
-                writeValueCompact(value, listIndent + indentSize, eolComment, keyEndCol);
+                writeValueCompact(value, listIndent + indentSize, slot);
                 firstKey = false;
             } else {
                 if (slot != null) {
@@ -381,32 +547,194 @@ public class YamlWriter {
                 }
                 
                 output.append(contentIndentStr).append(key).append(":");
-                CommentToken eolComment = (slot != null) ? slot.getValueEol() : null;
-                int keyEndCol = listIndent + indentSize + key.length() + 1;
-                writeValueCompact(value, listIndent + indentSize, eolComment, keyEndCol);
+                writeValueCompact(value, listIndent + indentSize, slot);
             }
         }
     }
     
+    // ==================== Parallel sections ====================
+    
+    /**
+     * Rendered top-level entry and whether it contained untracked values
+     */
+    private static final class Section {
+        final String text;
+        final boolean untracked;
+        
+        Section(String text, boolean untracked) {
+            this.text = text;
+            this.untracked = untracked;
+        }
+    }
+    
+    /**
+     * Render each top-level entry (pre-comments, key line, value) into its own buffer
+     * on the pool, then append the buffers in document order
+     */
+    private void writeSectionsParallel(CommentedMap<String, Object> root) {
+        Comment ca = root.ca();
+        RenderState rootState = root.renderState();
+        List<ForkJoinTask<Section>> tasks = new ArrayList<>(root.size());
+        for (Map.Entry<String, Object> entry : YamlNodes.entries(root)) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            Comment.CommentSlot slot = ca.getSlot(key);
+            tasks.add(pool.submit(() -> fork(rootState).renderSection(key, value, slot)));
+        }
+        
+        for (ForkJoinTask<Section> task : tasks) {
+            Section section = task.join();
+            untracked |= section.untracked;
+            output.appendLines(section.text);
+        }
+    }
+    
+    /**
+     * Writer for one section task, with this writer's settings
+     */
+    private YamlWriter fork(RenderState rootState) {
+        YamlWriter section = new YamlWriter(indentSize);
+        section.lineEnding = lineEnding;
+        section.parentState = rootState;
+        return section;
+    }
+    
+    private Section renderSection(String key, Object value, Comment.CommentSlot slot) {
+        StringBuilder sb = new StringBuilder();
+        output = new YamlSink.StringSink(lineEnding, sb);
+        writeMappingEntry(key, value, slot, 0);
+        output.finish(true);
+        return new Section(sb.toString(), untracked);
+    }
+    
+    // ==================== Output cache ====================
+    
+    /**
+     * Write a nested block container; top-level sections reuse their cached output while clean
+     * @param indent mapping indent, or parent indent for sequences
+     */
+    @SuppressWarnings("unchecked")
+    private void writeNested(Object container, int indent, boolean compact) {
+        RenderState state = renderState(container);
+        boolean cacheable = depth == 0 && state != null;
+        String key = null;
+        if (cacheable) {
+            key = sectionKey(container instanceof Map, indent, compact);
+            String cached = cachedText(container, state, key);
+            if (cached != null) {
+                if (!YamlNodes.isFrozen(container)) state.linkParent(parentState);
+                output.appendLines(cached);
+                return;
+            }
+        }
+        
+        YamlSink savedOutput = output;
+        boolean savedUntracked = untracked;
+        StringBuilder capture = null;
+        if (cacheable) {
+            // Render the section on its own, then replay it into the real output
+            capture = new StringBuilder();
+            output = new YamlSink.StringSink(lineEnding, capture);
+            untracked = false;
+        }
+        YamlSink sectionOutput = output;
+        
+        RenderState saved = enter(container);
+        depth++;
+        try {
+            if (container instanceof Map) {
+                Map<String, Object> map = (Map<String, Object>) container;
+                if (compact) writeMappingCompact(map, indent); else writeMapping(map, indent);
+            } else {
+                List<Object> list = (List<Object>) container;
+                if (compact) writeSequenceCompact(list, indent); else writeSequence(list, indent);
+            }
+        } finally {
+            depth--;
+            output = savedOutput;
+        }
+        leave(container, saved);
+        
+        if (cacheable) {
+            sectionOutput.finish(true);
+            String text = capture.toString();
+            if (!untracked) state.store(key, text);
+            untracked |= savedUntracked;
+            output.appendLines(text);
+        }
+    }
+    
+    /**
+     * Start rendering a container: link it to its parent and make it the current parent
+     * @return the previous parent, for leave()
+     */
+    private RenderState enter(Object container) {
+        RenderState saved = parentState;
+        RenderState state = renderState(container);
+        if (state == null) {
+            // Plain Map/List: changes are not reported, so the output is not cacheable
+            untracked = true;
+            return saved;
+        }
+        if (saved != null && !YamlNodes.isFrozen(container)) {
+            state.linkParent(saved);
+        }
+        parentState = state;
+        return saved;
+    }
+    
+    /**
+     * Finish rendering a container: everything below it is now clean
+     */
+    private void leave(Object container, RenderState saved) {
+        parentState = saved;
+        RenderState state = renderState(container);
+        if (state != null && !YamlNodes.isFrozen(container)) {
+            state.markClean();
+        }
+    }
+    
+    private static RenderState renderState(Object container) {
+        if (container instanceof CommentedMap) return ((CommentedMap<?, ?>) container).renderState();
+        if (container instanceof CommentedList) return ((CommentedList<?>) container).renderState();
+        return null;
+    }
+    
+    /**
+     * Cached output of a clean (or frozen) container, or null
+     */
+    private static String cachedText(Object container, RenderState state, String key) {
+        boolean clean = YamlNodes.isFrozen(container) || !state.isDirty();
+        return clean ? state.cached(key) : null;
+    }
+    
+    private String documentKey(CommentedMap<String, Object> root) {
+        return (hasDocumentMarker || root.hasDocumentMarker()) + "|" + lineEnding;
+    }
+    
+    private String sectionKey(boolean mapping, int indent, boolean compact) {
+        return (mapping ? "m" : "s") + indent + (compact ? "c" : "") + "|" + indentSize + "|" + lineEnding;
+    }
+    
     // ==================== Comment output ====================
     
     private void writeCommentToken(CommentToken token, int defaultIndent) {
         if (token.isBlankLine()) {
-            output.append(lineEnding);
+            output.newline();
         } else {
             int indent = token.getColumn() >= 0 ? token.getColumn() : defaultIndent;
-            output.append(spaces(indent)).append(token.getValue()).append(lineEnding);
+            output.append(spaces(indent)).append(token.getValue()).newline();
         }
     }
     
     /**
      * Append EOL comment at the original column position
-     * @param eolComment the comment token
-     * @param currentCol the current column position (after value)
+     * (the sink tracks the current column, so nothing is rendered twice)
      */
-    private void appendEolComment(CommentToken eolComment, int currentCol) {
+    private void appendEolComment(CommentToken eolComment) {
         if (eolComment != null && !eolComment.isBlankLine()) {
             int targetCol = eolComment.getColumn();
+            int currentCol = output.column();
             if (targetCol > currentCol) {
                 // Pad with spaces to reach original column
                 output.append(spaces(targetCol - currentCol));
@@ -418,105 +746,164 @@ public class YamlWriter {
         }
     }
     
-    // ==================== Scalar formatting ====================
+    // ==================== Source copy ====================
     
-    private String formatScalar(Object value) {
-        if (value == null) return "";
-        if (value instanceof Boolean) return value.toString();
-        if (value instanceof Number) return value.toString();
+    /**
+     * Source span of a scalar that still holds its parsed value, or null
+     */
+    private static SourceSpan unchangedSpan(Comment.CommentSlot slot, Object value) {
+        if (slot == null) return null;
+        SourceSpan span = slot.getValueSpan();
+        return (span != null && span.matches(value)) ? span : null;
+    }
+    
+    private void appendSpan(SourceSpan span) {
+        output.append(span.getSource(), span.getStart(), span.getEnd());
+    }
+    
+    // ==================== Scalar output ====================
+    
+    private void writeScalar(Object value) {
+        if (value == null) return;
+        if (value instanceof Boolean || value instanceof Number) {
+            output.append(value.toString());
+            return;
+        }
         
         String str = value.toString();
         if (needsQuoting(str)) {
-            return "\"" + escapeString(str) + "\"";
-        }
-        return str;
-    }
-    
-    private boolean needsQuoting(String str) {
-        if (str.isEmpty()) return true;
-        // Colon followed by space is problematic, not colon alone
-        if (str.contains(": ") || str.contains("#") || str.contains("\n")) return true;
-        if (str.startsWith(" ") || str.endsWith(" ")) return true;
-        // Colon at end needs quoting
-        if (str.endsWith(":")) return true;
-        if (str.equals("true") || str.equals("false") || str.equals("null")) return true;
-        if (str.startsWith("\"") || str.startsWith("'")) return true;
-        if (str.startsWith("{") || str.startsWith("[")) return true;
-        if (str.startsWith("*") || str.startsWith("&")) return true;
-        if (str.startsWith("!") || str.startsWith("%")) return true;
-        if (str.startsWith("@") || str.startsWith("`")) return true;
+            writeQuoted(str);
+        } else {
+            output.append(str);
+        }
+    }
+    
+    /**
+     * Block-context quoting check in a single scan
+     */
+    private static boolean needsQuoting(String str) {
+        int len = str.length();
+        if (len == 0) return true;
+        
+        switch (str.charAt(0)) {
+            case ' ': case '"': case '\'': case '{': case '[':
+            case '*': case '&': case '!': case '%': case '@': case '`':
+                return true;
+            default:
+                break;
+        }
+        char last = str.charAt(len - 1);
+        if (last == ' ' || last == ':') return true;
+        if (isReservedWord(str)) return true;
+        
+        for (int i = 0; i < len; i++) {
+            char c = str.charAt(i);
+            if (c == '#' || c == '\n') return true;
+            // Colon followed by space is problematic, not colon alone
+            if (c == ':' && i + 1 < len && str.charAt(i + 1) == ' ') return true;
+        }
         return false;
     }
     
-    private String escapeString(String str) {
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\t", "\\t");
+    private static boolean isReservedWord(String str) {
+        return str.equals("true") || str.equals("false") || str.equals("null");
+    }
+    
+    /**
+     * Write a double-quoted scalar, escaping while copying unescaped runs as is
+     */
+    private void writeQuoted(String str) {
+        output.append('"');
+        int len = str.length();
+        int runStart = 0;
+        for (int i = 0; i < len; i++) {
+            String escape;
+            switch (str.charAt(i)) {
+                case '\\': escape = "\\\\"; break;
+                case '"': escape = "\\\""; break;
+                case '\n': escape = "\\n"; break;
+                case '\t': escape = "\\t"; break;
+                default: continue;
+            }
+            output.append(str, runStart, i).append(escape);
+            runStart = i + 1;
+        }
+        output.append(str, runStart, len).append('"');
     }
     
     // ==================== Flow style output ====================
     
-    private String formatFlowSequence(List<?> list) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("[");
+    private void writeFlowSequence(List<?> list) {
+        RenderState saved = enter(list);
+        output.append('[');
         for (int i = 0; i < list.size(); i++) {
-            if (i > 0) sb.append(", ");
-            sb.append(formatFlowValue(list.get(i)));
+            if (i > 0) output.append(", ");
+            writeFlowValue(list.get(i));
         }
-        sb.append("]");
-        return sb.toString();
+        output.append(']');
+        leave(list, saved);
     }
     
-    private String formatFlowMapping(Map<?, ?> map) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("{");
+    private void writeFlowMapping(Map<?, ?> map) {
+        RenderState saved = enter(map);
+        output.append('{');
         boolean first = true;
-        for (Map.Entry<?, ?> entry : map.entrySet()) {
-            if (!first) sb.append(", ");
+        for (Map.Entry<?, ?> entry : YamlNodes.entries(map)) {
+            if (!first) output.append(", ");
             first = false;
-            String key = entry.getKey().toString();
-            if (needsFlowQuoting(key)) {
-                key = "\"" + escapeString(key) + "\"";
-            }
-            sb.append(key).append(": ").append(formatFlowValue(entry.getValue()));
+            writeFlowScalar(entry.getKey().toString());
+            output.append(": ");
+            writeFlowValue(entry.getValue());
         }
-        sb.append("}");
-        return sb.toString();
+        output.append('}');
+        leave(map, saved);
     }
     
-    private String formatFlowValue(Object value) {
-        if (value == null) return "null";
-        if (value instanceof Boolean) return value.toString();
-        if (value instanceof Number) return value.toString();
-        if (value instanceof List) return formatFlowSequence((List<?>) value);
-        if (value instanceof Map) return formatFlowMapping((Map<?, ?>) value);
-        
-        String str = value.toString();
+    private void writeFlowValue(Object value) {
+        if (value == null) {
+            output.append("null");
+        } else if (value instanceof Boolean || value instanceof Number) {
+            output.append(value.toString());
+        } else if (value instanceof List) {
+            writeFlowSequence((List<?>) value);
+        } else if (value instanceof Map) {
+            writeFlowMapping((Map<?, ?>) value);
+        } else {
+            writeFlowScalar(value.toString());
+        }
+    }
+    
+    private void writeFlowScalar(String str) {
         if (needsFlowQuoting(str)) {
-            return "\"" + escapeString(str) + "\"";
+            writeQuoted(str);
+        } else {
+            output.append(str);
         }
-        return str;
     }
     
-    private boolean needsFlowQuoting(String str) {
-        if (str.isEmpty()) return true;
-        if (str.contains(",") || str.contains(":") || str.contains("#")) return true;
-        if (str.contains("[") || str.contains("]")) return true;
-        if (str.contains("{") || str.contains("}")) return true;
-        if (str.startsWith(" ") || str.endsWith(" ")) return true;
-        if (str.equals("true") || str.equals("false") || str.equals("null")) return true;
+    private static boolean needsFlowQuoting(String str) {
+        int len = str.length();
+        if (len == 0) return true;
+        if (str.charAt(0) == ' ' || str.charAt(len - 1) == ' ') return true;
+        if (isReservedWord(str)) return true;
+        
+        for (int i = 0; i < len; i++) {
+            switch (str.charAt(i)) {
+                case ',': case ':': case '#':
+                case '[': case ']': case '{': case '}':
+                    return true;
+                default:
+                    break;
+            }
+        }
         return false;
     }
     
     // ==================== Utility ====================
     
-    private String spaces(int count) {
+    private static String spaces(int count) {
         if (count <= 0) return "";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < count; i++) {
-            sb.append(' ');
-        }
-        return sb.toString();
+        if (count < INDENTS.length) return INDENTS[count];
+        return " ".repeat(count);
     }
 }
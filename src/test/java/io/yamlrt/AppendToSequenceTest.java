@@ -0,0 +1,113 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Yamlrt.appendToSequence: append-only writes to the last top-level sequence
+ */
+public class AppendToSequenceTest {
+
+    private static final String REGISTRY = """
+# Registry
+version: 3
+Services:
+- ServiceName: 1A1   # first
+  Airline:
+  - 7C
+  - AC
+
+# second service
+- ServiceName: 1E
+""";
+
+    @TempDir
+    Path dir;
+
+    private File write(String name, String content) throws Exception {
+        Path file = dir.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    @Test
+    @DisplayName("Appended item keeps existing bytes and matches a full load/add/dump")
+    void testAppend() throws Exception {
+        File file = write("registry.yaml", REGISTRY);
+
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("ServiceName", "2B");
+        item.put("Airline", List.of("KE", "OZ"));
+        Yamlrt.appendToSequence("Services", file, item);
+
+        String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        assertTrue(content.startsWith(REGISTRY));
+
+        Yamlrt full = Yamlrt.load(REGISTRY);
+        full.getList("Services").add(item);
+        assertEquals(full.dump(), content);
+
+        Yamlrt yaml = Yamlrt.load(file);
+        assertEquals("2B", yaml.getString("Services[2].ServiceName"));
+        assertEquals("OZ", yaml.getString("Services[2].Airline[1]"));
+        assertTrue(yaml.dump().contains("# second service"));
+    }
+
+    @Test
+    @DisplayName("Item indent, line ending and missing final newline follow the file")
+    void testIndentAndLineEnding() throws Exception {
+        File file = write("list.yaml", "name: x\r\nitems:\r\n  - a\r\n  - b");
+
+        Yamlrt.appendToSequence("items", file, "c");
+
+        assertEquals("name: x\r\nitems:\r\n  - a\r\n  - b\r\n  - c\r\n",
+                Files.readString(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Empty sequence key gets a first item")
+    void testEmptyKey() throws Exception {
+        File file = write("empty.yaml", "name: x\nitems:   # none yet\n");
+
+        Yamlrt.appendToSequence("items", file, "first");
+
+        assertEquals(List.of("first"), Yamlrt.load(file).getList("items"));
+    }
+
+    @Test
+    @DisplayName("Target that is not the last block, or not a block sequence, is rejected untouched")
+    void testRejected() throws Exception {
+        File notLast = write("notlast.yaml", REGISTRY + "Timeout: 4\n");
+        assertThrows(IllegalStateException.class, () -> Yamlrt.appendToSequence("Services", notLast, "x"));
+        assertEquals(REGISTRY + "Timeout: 4\n", Files.readString(notLast.toPath(), StandardCharsets.UTF_8));
+
+        File flow = write("flow.yaml", "items: [a, b]\n");
+        assertThrows(IllegalStateException.class, () -> Yamlrt.appendToSequence("items", flow, "x"));
+
+        File mapping = write("mapping.yaml", "items:\n  a: 1\n");
+        assertThrows(IllegalStateException.class, () -> Yamlrt.appendToSequence("items", mapping, "x"));
+
+        assertThrows(IllegalArgumentException.class, () -> Yamlrt.appendToSequence("a.b", flow, "x"));
+    }
+
+    @Test
+    @DisplayName("Top-level comment after the last item is rejected untouched; comments inside the block are not")
+    void testTrailingComment() throws Exception {
+        String trailing = "k:\n  - a\n# trailing\n";
+        File file = write("trailing.yaml", trailing);
+        assertThrows(IllegalStateException.class, () -> Yamlrt.appendToSequence("k", file, "c"));
+        assertEquals(trailing, Files.readString(file.toPath(), StandardCharsets.UTF_8));
+
+        File inside = write("inside.yaml", "k:\n  - a\n# about b\n  - b\n");
+        Yamlrt.appendToSequence("k", inside, "c");
+        assertEquals("k:\n  - a\n# about b\n  - b\n  - c\n", Files.readString(inside.toPath(), StandardCharsets.UTF_8));
+    }
+}
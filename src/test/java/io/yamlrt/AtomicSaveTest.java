@@ -0,0 +1,132 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.stream.Stream;
+
+/**
+ * save(File, SaveOptions): temp file + atomic rename, skip-if-unchanged
+ */
+public class AtomicSaveTest {
+
+    private static final String CONFIG = """
+# 서버 설정
+server:
+  host: localhost    # bind address
+  port: 8080
+""";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Atomic save writes the dump and leaves no temp file behind")
+    void testAtomicSave() throws Exception {
+        Path file = dir.resolve("config.yaml");
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.set("server.port", 9090);
+
+        assertTrue(yaml.save(file.toFile(), SaveOptions.atomic().force(true)));
+
+        assertEquals(yaml.dump(), Files.readString(file, StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Unchanged content is not rewritten")
+    void testSkipIfUnchanged() throws Exception {
+        Path file = dir.resolve("config.yaml");
+        Files.writeString(file, CONFIG, StandardCharsets.UTF_8);
+        FileTime old = FileTime.fromMillis(1_000_000_000L);
+        Files.setLastModifiedTime(file, old);
+
+        Yamlrt yaml = Yamlrt.load(file.toFile());
+        SaveOptions options = SaveOptions.atomic().skipIfUnchanged(true);
+
+        assertFalse(yaml.save(file.toFile(), options));
+        assertEquals(old, Files.getLastModifiedTime(file));
+
+        yaml.set("server.port", 9090);
+        assertTrue(yaml.save(file.toFile(), options));
+        assertEquals(9090, Yamlrt.load(file.toFile()).getInt("server.port"));
+        assertFalse(yaml.save(file.toFile(), options));
+    }
+
+    @Test
+    @DisplayName("Missing target is created; same-size different content is written")
+    void testSameSizeDifferentContent() throws Exception {
+        File file = dir.resolve("new.yaml").toFile();
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        SaveOptions options = SaveOptions.atomic().skipIfUnchanged(true);
+
+        assertTrue(yaml.save(file, options));
+
+        yaml.set("server.port", 8081);
+        assertTrue(yaml.save(file, options));
+        assertEquals(8081, Yamlrt.load(file).getInt("server.port"));
+    }
+
+    @Test
+    @DisplayName("Replaced file keeps the target's permissions")
+    void testPermissionsKept() throws Exception {
+        Path file = dir.resolve("config.yaml");
+        Files.writeString(file, CONFIG, StandardCharsets.UTF_8);
+        if (!file.getFileSystem().supportedFileAttributeViews().contains("posix")) return;
+        Files.setPosixFilePermissions(file, PosixFilePermissions.fromString("rw-r-----"));
+
+        Yamlrt yaml = Yamlrt.load(file.toFile());
+        yaml.set("server.port", 9090);
+        yaml.save(file.toFile(), SaveOptions.atomic());
+
+        assertEquals("rw-r-----", PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+    }
+
+    @Test
+    @DisplayName("New file gets the default permissions, like a plain save")
+    void testNewFilePermissions() throws Exception {
+        if (!dir.getFileSystem().supportedFileAttributeViews().contains("posix")) return;
+        Path plain = dir.resolve("plain.yaml");
+        Path atomic = dir.resolve("atomic.yaml");
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+
+        yaml.save(plain.toFile());
+        yaml.save(atomic.toFile(), SaveOptions.atomic());
+
+        assertEquals(Files.getPosixFilePermissions(plain), Files.getPosixFilePermissions(atomic));
+    }
+
+    @Test
+    @DisplayName("Symlinked target: the linked file is replaced and the link is kept")
+    void testSymlinkTarget() throws Exception {
+        Path real = Files.createDirectories(dir.resolve("releases")).resolve("config.yaml");
+        Files.writeString(real, CONFIG, StandardCharsets.UTF_8);
+        Path link = dir.resolve("config.yaml");
+        try {
+            Files.createSymbolicLink(link, real);
+        } catch (UnsupportedOperationException | IOException e) {
+            return;
+        }
+
+        Yamlrt yaml = Yamlrt.load(link.toFile());
+        yaml.set("server.port", 9090);
+        assertTrue(yaml.save(link.toFile(), SaveOptions.atomic()));
+
+        assertTrue(Files.isSymbolicLink(link));
+        assertEquals(yaml.dump(), Files.readString(real, StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(real.getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+}
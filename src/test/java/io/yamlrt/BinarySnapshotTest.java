@@ -0,0 +1,129 @@
+package io.yamlrt;
+
+import io.yamlrt.core.BinarySnapshot;
+import io.yamlrt.core.CommentedMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Binary snapshots of parsed trees (loadSnapshot / saveSnapshot)
+ */
+public class BinarySnapshotTest {
+
+    private static final String CONFIG = """
+---
+# Generated config
+server:
+  host: localhost    # bind address
+  port: 8080         # listen port
+  ratio: 1.50
+  tags: [a, b, "c,d"]   # flow
+  limits: {cpu: 2, mem: 512Mi}
+
+# 서비스 목록
+Services:
+  - ServiceName: 1A1   # first
+    Airline:
+      - 7C
+      - AC
+
+  # second service
+  - ServiceName: "1E"
+    Enabled: yes
+Timeout: ~
+Empty:
+# trailing comment""";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Snapshot round trip dumps to exactly the original text")
+    void testRoundTrip() throws Exception {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        File file = dir.resolve("config.yrtb").toFile();
+
+        yaml.saveSnapshot(file);
+        Yamlrt loaded = Yamlrt.loadSnapshot(file);
+
+        assertEquals(CONFIG, yaml.dump());
+        assertEquals(CONFIG, loaded.dump());
+        assertEquals("1.50", loaded.dump().lines().filter(l -> l.contains("ratio")).findFirst()
+                .orElseThrow().substring("  ratio: ".length()));
+        assertEquals(8080L, loaded.get("server.port"));
+        CommentedMap<?, ?> server = (CommentedMap<?, ?>) loaded.get("server");
+        assertEquals("bind address", server.ca().getSlot("host").getValueEol().getContent());
+    }
+
+    @Test
+    @DisplayName("Loaded tree stays editable and renders edits like a parsed one")
+    void testEditAfterLoad() throws Exception {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        Yamlrt loaded = Yamlrt.loadSnapshot(save(yaml));
+
+        yaml.set("server.port", 9090);
+        loaded.set("server.port", 9090);
+        yaml.set("Services[1].Airline", List.of("KE"));
+        loaded.set("Services[1].Airline", List.of("KE"));
+
+        assertEquals(yaml.dump(), loaded.dump());
+    }
+
+    @Test
+    @DisplayName("Edited values are stored as values, not as stale source text")
+    void testEditBeforeSave() throws Exception {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.set("server.ratio", 2.5);
+        yaml.set("server.extra", Map.of("k", "v"));
+
+        Yamlrt loaded = Yamlrt.loadSnapshot(save(yaml));
+
+        assertEquals(yaml.dump(), loaded.dump());
+        assertEquals(2.5, loaded.get("server.ratio"));
+    }
+
+    @Test
+    @DisplayName("Bad input and unsupported values are rejected")
+    void testErrors() throws Exception {
+        Path bad = dir.resolve("bad.yrtb");
+        Files.writeString(bad, "server: 1\n");
+        assertThrows(IOException.class, () -> Yamlrt.loadSnapshot(bad.toFile()));
+
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.set("server.when", new Date());
+        assertThrows(IllegalArgumentException.class, () -> BinarySnapshot.toBytes(yaml.getRoot()));
+    }
+
+    @Test
+    @DisplayName("Corrupt lengths are rejected before allocating")
+    void testCorruptLengths() throws Exception {
+        byte[] header = {'Y', 'R', 'T', 'B', 1};
+        byte[] hugeString = {9, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        byte[] hugeList = {11, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+        byte[] truncated = BinarySnapshot.toBytes(Yamlrt.load(CONFIG).getRoot());
+        truncated = Arrays.copyOf(truncated, truncated.length / 2);
+
+        for (byte[] body : List.of(hugeString, hugeList)) {
+            byte[] bytes = Arrays.copyOf(header, header.length + body.length);
+            System.arraycopy(body, 0, bytes, header.length, body.length);
+            IOException e = assertThrows(IOException.class, () -> BinarySnapshot.fromBytes(bytes));
+            assertTrue(e.getMessage().startsWith("Corrupt snapshot"), e.getMessage());
+        }
+        byte[] half = truncated;
+        assertThrows(IOException.class, () -> BinarySnapshot.fromBytes(half));
+    }
+
+    private File save(Yamlrt yaml) throws IOException {
+        File file = dir.resolve("snapshot.yrtb").toFile();
+        yaml.saveSnapshot(file);
+        return file;
+    }
+}
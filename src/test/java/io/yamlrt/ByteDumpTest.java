@@ -0,0 +1,68 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Direct UTF-8 byte output (dumpBytes / dump to channel)
+ */
+public class ByteDumpTest {
+
+    private static final String CONFIG = """
+# 서버 설정
+server:
+  host: localhost    # bind address
+  name: "서울 \\U0001F680"
+  port: 8080
+Services:
+- ServiceName: 1A1
+  Airline: [7C, AC]
+""";
+
+    @Test
+    @DisplayName("dumpBytes equals dump() encoded as UTF-8")
+    void testDumpBytes() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.set("server.port", 9090);
+        yaml.set("server.greeting", "안녕 🚀");
+        yaml.set("server.broken", "lone \ud800 surrogate");
+
+        byte[] expected = yaml.dump().getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, yaml.dumpBytes());
+        // Second call reuses the buffer and the cached text
+        assertArrayEquals(expected, yaml.dumpBytes());
+    }
+
+    @Test
+    @DisplayName("Channel output matches dump()")
+    void testChannel() throws Exception {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.set("server.greeting", "안녕 🚀");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        yaml.dump(Channels.newChannel(out));
+
+        assertEquals(yaml.dump(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Large output is drained to the channel without splitting characters")
+    void testLargeOutput() throws Exception {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        for (int i = 0; i < 500; i++) {
+            yaml.set("items.key" + i, "값 " + i + " 🚀 " + "x".repeat(i % 7));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        yaml.dump(Channels.newChannel(out));
+
+        assertTrue(out.size() > 8192);
+        assertEquals(yaml.dump(), out.toString(StandardCharsets.UTF_8));
+        assertArrayEquals(out.toByteArray(), yaml.dumpBytes());
+    }
+}
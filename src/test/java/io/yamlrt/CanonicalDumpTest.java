@@ -0,0 +1,102 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Canonical dump mode and contentHash()
+ */
+public class CanonicalDumpTest {
+
+    private static final String CONFIG = """
+# Server settings
+server:
+  port: 8080    # listen port
+  host: localhost
+
+Services:
+- ServiceName: 1A1   # first
+  Airline: [7C, AC]
+- ServiceName: "1E"
+empty: []
+""";
+
+    // Same data: different comments, key order, blank lines and flow/block style
+    private static final String REFORMATTED = """
+Services:
+  - Airline:
+    - 7C
+    - AC
+    ServiceName: 1A1
+  - ServiceName: 1E
+empty: []
+server: {host: localhost, port: 8080}
+""";
+
+    @Test
+    @DisplayName("Canonical output drops comments, sorts keys and quotes strings")
+    void testCanonicalLayout() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+
+        assertEquals("""
+Services:
+  -
+    Airline:
+      - "7C"
+      - "AC"
+    ServiceName: "1A1"
+  -
+    ServiceName: "1E"
+empty: []
+server:
+  host: "localhost"
+  port: 8080
+""", yaml.dumpCanonical());
+    }
+
+    @Test
+    @DisplayName("Formatting differences do not change the hash; data differences do")
+    void testContentHash() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        Yamlrt other = Yamlrt.load(REFORMATTED);
+
+        assertEquals(yaml.dumpCanonical(), other.dumpCanonical());
+        assertEquals(yaml.contentHash(), other.contentHash());
+
+        other.set("server.port", "8080");
+        assertNotEquals(yaml.contentHash(), other.contentHash());
+    }
+
+    @Test
+    @DisplayName("Streamed hash equals SHA-256 of the canonical text")
+    void testHashMatchesText() throws Exception {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.set("server.name", "서울 \"main\" 🚀");
+
+        byte[] expected = MessageDigest.getInstance("SHA-256")
+                .digest(yaml.dumpCanonical().getBytes(StandardCharsets.UTF_8));
+        assertEquals(HexFormat.of().formatHex(expected), yaml.contentHash());
+        assertEquals(yaml.contentHash(), yaml.freeze().contentHash());
+    }
+
+    @Test
+    @DisplayName("Control characters are escaped, so each string stays on one line")
+    void testControlCharacters() {
+        Yamlrt yaml = Yamlrt.load("a: x\n");
+        yaml.set("a", "cr\rlf\ntab\tnul\u0000esc\u001bend\u001f");
+        yaml.set("b", "cr\rx");
+        yaml.set("c", "cr\nx");
+
+        String canonical = yaml.dumpCanonical();
+        assertEquals("a: \"cr\\rlf\\ntab\\tnul\\u0000esc\\u001bend\\u001f\"\n"
+                + "b: \"cr\\rx\"\n"
+                + "c: \"cr\\nx\"\n", canonical);
+        assertTrue(canonical.chars().allMatch(ch -> ch >= 0x20 || ch == '\n'), canonical);
+        assertEquals(3, canonical.lines().count());
+    }
+}
@@ -0,0 +1,95 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ConcurrentYamlrt - readers alongside a writer
+ */
+public class ConcurrentYamlrtTest {
+
+    private static final String CONFIG = """
+server:
+  host: localhost
+  port: 8080
+Services:
+- ServiceName: 1A1
+""";
+
+    @Test
+    @DisplayName("Reads delegate to the underlying document")
+    void testReads() {
+        ConcurrentYamlrt yaml = ConcurrentYamlrt.load(CONFIG);
+
+        assertEquals("localhost", yaml.getString("server.host"));
+        assertEquals(8080, yaml.getInt("server.port"));
+        assertEquals("1A1", yaml.getString("Services[0].ServiceName"));
+        assertTrue(yaml.exists("server"));
+    }
+
+    @Test
+    @DisplayName("Readers see either the old or the new value while a writer runs")
+    void testReadersWithWriter() throws Exception {
+        ConcurrentYamlrt yaml = ConcurrentYamlrt.load(CONFIG);
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        List<Future<?>> readers = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            readers.add(pool.submit(() -> {
+                while (!stop.get()) {
+                    int port = yaml.getInt("server.port", -1);
+                    assertTrue(port == 8080 || port == 9090, "unexpected port " + port);
+                    String name = yaml.getString("Services[0].ServiceName");
+                    assertNotNull(name);
+                }
+            }));
+        }
+
+        Future<?> writer = pool.submit(() -> {
+            for (int i = 0; i < 2000; i++) {
+                yaml.set("server.port", i % 2 == 0 ? 9090 : 8080);
+                yaml.transaction(tx -> tx
+                        .set("extra.key", "tmp")
+                        .remove("extra"));
+            }
+        });
+
+        writer.get(30, TimeUnit.SECONDS);
+        stop.set(true);
+        for (Future<?> reader : readers) {
+            reader.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(8080, yaml.getInt("server.port"));
+        assertTrue(yaml.dump().contains("port: 8080"));
+    }
+
+    @Test
+    @DisplayName("Listeners run after the write lock is released and may read back")
+    void testListenerReadsBack() throws Exception {
+        ConcurrentYamlrt yaml = ConcurrentYamlrt.load(CONFIG);
+        List<String> seen = new CopyOnWriteArrayList<>();
+        yaml.addChangeListener(paths -> seen.add(paths + "=" + yaml.getInt("server.port") + "/" + yaml.treeHash()));
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> writer = pool.submit(() -> {
+            yaml.set("server.port", 9090);
+            yaml.transaction(tx -> tx.set("server.port", 9091).set("server.host", "h"));
+            yaml.remove("server.host");
+        });
+        writer.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(3, seen.size());
+        assertTrue(seen.get(0).startsWith("[server.port]=9090/"), seen.get(0));
+        assertTrue(seen.get(1).startsWith("[server.port, server.host]=9091/"), seen.get(1));
+        assertTrue(seen.get(2).startsWith("[server.host]=9091/"), seen.get(2));
+    }
+}
@@ -0,0 +1,126 @@
+package io.yamlrt;
+
+import io.yamlrt.core.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Dirty flags and cached dump output
+ */
+public class DirtyTrackingTest {
+
+    private static final String CONFIG = """
+# Server settings
+server:
+  host: localhost    # bind address
+  port: 8080
+  tags: [a, b]
+Services:
+- ServiceName: 1A1
+  Airline:
+  - 7C
+  - AC
+
+# second service
+- ServiceName: 1E
+Timeout: 4
+""";
+
+    @Test
+    @DisplayName("Unchanged document returns the cached dump")
+    void testCachedDump() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        String first = yaml.dump();
+        assertEquals(CONFIG, first);
+        assertSame(first, yaml.dump());
+        assertFalse(yaml.getRoot().isDirty());
+    }
+
+    @Test
+    @DisplayName("A change marks the node and its ancestors dirty only")
+    void testPropagation() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        String before = yaml.dump();
+
+        yaml.set("Services[0].Airline[1]", "KE");
+        CommentedMap<String, Object> root = yaml.getRoot();
+        assertTrue(root.isDirty());
+        assertTrue(((CommentedList<?>) root.get("Services")).isDirty());
+        assertFalse(((CommentedMap<?, ?>) root.get("server")).isDirty());
+
+        String after = yaml.dump();
+        assertNotSame(before, after);
+        assertEquals(CONFIG.replace("  - AC", "  - KE"), after);
+    }
+
+    @Test
+    @DisplayName("Changes through views, comments and tokens invalidate the cache")
+    @SuppressWarnings("unchecked")
+    void testIndirectChanges() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.dump();
+        CommentedMap<String, Object> server = (CommentedMap<String, Object>) yaml.getMap("server");
+
+        for (Map.Entry<String, Object> entry : server.entrySet()) {
+            if (entry.getKey().equals("port")) entry.setValue(9090);
+        }
+        assertTrue(yaml.dump().contains("  port: 9090\n"));
+
+        server.keySet().remove("host");
+        assertFalse(yaml.dump().contains("host"));
+
+        ((List<Object>) server.get("tags")).add("c");
+        assertTrue(yaml.dump().contains("  tags: [a, b, c]\n"));
+
+        server.ca().getOrCreateSlot("port").getKeyPre().add(CommentToken.comment("# port", 2));
+        assertTrue(yaml.dump().contains("  # port\n  port: 9090\n"));
+
+        yaml.getRoot().ca().getSlot("server").getKeyPre().get(0).setValue("# Server");
+        assertTrue(yaml.dump().startsWith("# Server\n"));
+
+        Iterator<Object> it = yaml.getList("Services").iterator();
+        it.next();
+        it.remove();
+        assertFalse(yaml.dump().contains("1A1"));
+    }
+
+    @Test
+    @DisplayName("Plain Map values are re-rendered on every dump")
+    @SuppressWarnings("unchecked")
+    void testPlainValuesNotCached() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        Map<String, Object> plain = new LinkedHashMap<>();
+        plain.put("a", 1);
+        yaml.set("extra", plain);
+        yaml.dump();
+
+        plain.put("b", 2);
+        assertTrue(yaml.dump().contains("extra:\n  a: 1\n  b: 2\n"));
+    }
+
+    @Test
+    @DisplayName("Shared container changes reach every document")
+    void testSharedContainer() {
+        Yamlrt first = Yamlrt.load(CONFIG);
+        Yamlrt second = Yamlrt.load("other: 1\n");
+        second.set("copy", first.getMap("server"));
+        first.dump();
+        second.dump();
+
+        first.set("server.port", 1);
+        assertTrue(first.dump().contains("  port: 1\n"));
+        assertTrue(second.dump().contains("  port: 1\n"));
+    }
+
+    @Test
+    @DisplayName("Frozen snapshot reuses its dump")
+    void testSnapshotDump() {
+        YamlSnapshot snapshot = Yamlrt.load(CONFIG).freeze();
+        String first = snapshot.dump();
+        assertEquals(CONFIG, first);
+        assertSame(first, snapshot.dump());
+    }
+}
@@ -0,0 +1,110 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Yamlrt.patch: in-place scalar replacement using source offsets
+ */
+public class FilePatchTest {
+
+    private static final String CONFIG = """
+# 서버 설정
+server:
+  host: 로컬호스트    # bind address
+  port:   8080      # listen port
+  tags: [a, b]
+Services:
+- ServiceName: 1A1   # first
+  Airline:
+  - 7C
+  - AC
+Timeout: 4
+""";
+
+    @TempDir
+    Path dir;
+
+    private File write(String content) throws Exception {
+        Path file = dir.resolve("config.yaml");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    private static String read(File file) throws Exception {
+        return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Same-length value is overwritten in place")
+    void testSameLength() throws Exception {
+        File file = write(CONFIG);
+
+        Yamlrt.patch(file, "server.port", 9090);
+
+        assertEquals(CONFIG.replace("port:   8080", "port:   9090"), read(file));
+    }
+
+    @Test
+    @DisplayName("Longer and shorter values shift only the tail")
+    void testDifferentLength() throws Exception {
+        File file = write(CONFIG);
+
+        Yamlrt.patch(file, "server.host", "example.com");
+        Yamlrt.patch(file, "Services[0].Airline[1]", "KE-1");
+        Yamlrt.patch(file, "Timeout", 30);
+
+        String expected = CONFIG
+                .replace("host: 로컬호스트", "host: example.com")
+                .replace("  - AC\n", "  - KE-1\n")
+                .replace("Timeout: 4", "Timeout: 30");
+        assertEquals(expected, read(file));
+
+        Yamlrt.patch(file, "server.host", "h");
+        assertEquals(expected.replace("host: example.com", "host: h"), read(file));
+    }
+
+    @Test
+    @DisplayName("Values that need quoting are rendered like dump()")
+    void testQuoting() throws Exception {
+        File file = write(CONFIG);
+
+        Yamlrt.patch(file, "Services[0].ServiceName", "a: b # c");
+
+        Yamlrt yaml = Yamlrt.load(file);
+        assertEquals("a: b # c", yaml.getString("Services[0].ServiceName"));
+        assertTrue(read(file).contains("# first"));
+    }
+
+    @Test
+    @DisplayName("Containers, flow items and missing paths are rejected untouched")
+    void testRejected() throws Exception {
+        File file = write(CONFIG);
+
+        assertThrows(IllegalArgumentException.class, () -> Yamlrt.patch(file, "server", 1));
+        assertThrows(IllegalArgumentException.class, () -> Yamlrt.patch(file, "server.tags[0]", "x"));
+        assertThrows(IllegalArgumentException.class, () -> Yamlrt.patch(file, "server.missing", 1));
+        assertThrows(IllegalArgumentException.class, () -> Yamlrt.patch(file, "server.port", java.util.List.of(1)));
+
+        assertEquals(CONFIG, read(file));
+    }
+
+    @Test
+    @DisplayName("Files that are not valid UTF-8 are rejected untouched")
+    void testMalformedInput() throws Exception {
+        Path file = dir.resolve("latin1.yaml");
+        byte[] content = "# \u00e9 \nserver:\n  port: 8080\n  host: example\n".getBytes(StandardCharsets.ISO_8859_1);
+        Files.write(file, content);
+
+        assertThrows(MalformedInputException.class, () -> Yamlrt.patch(file.toFile(), "server.port", 9090));
+        assertArrayEquals(content, Files.readAllBytes(file));
+    }
+}
@@ -0,0 +1,176 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-file composition with !include (YamlComposer / ComposedYaml)
+ */
+public class IncludeTest {
+
+    private static final String APP = """
+# Application
+server:
+  port: 8080
+database: !include db/database.yaml   # shared
+Services:
+  - !include services/a.yaml
+  - ServiceName: inline
+""";
+
+    private static final String DATABASE = """
+# Database settings
+url: jdbc:h2:mem
+pool: 10    # connections
+""";
+
+    private static final String SERVICE = """
+ServiceName: 1A1    # first
+Airline: [7C, AC]
+""";
+
+    @TempDir
+    Path dir;
+
+    private File write(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    private File setUp() throws IOException {
+        write("db/database.yaml", DATABASE);
+        write("services/a.yaml", SERVICE);
+        return write("app.yaml", APP);
+    }
+
+    @Test
+    @DisplayName("Paths run through include values")
+    void testReads() throws Exception {
+        ComposedYaml config = new YamlComposer().load(setUp());
+
+        assertEquals(8080, config.getInt("server.port"));
+        assertEquals(10, config.getInt("database.pool"));
+        assertEquals("1A1", config.getString("Services[0].ServiceName"));
+        assertEquals("inline", config.getString("Services[1].ServiceName"));
+        assertEquals(3, config.getFiles().size());
+        assertNull(config.get("database.missing"));
+    }
+
+    @Test
+    @DisplayName("Dump splices included trees with their comments")
+    void testDump() throws Exception {
+        ComposedYaml config = new YamlComposer().load(setUp());
+
+        String dump = config.dump();
+        assertTrue(dump.startsWith("# Application\nserver:\n  port: 8080\n"), dump);
+        assertTrue(dump.contains("# Database settings\n  url: jdbc:h2:mem\n  pool: 10"), dump);
+        assertTrue(dump.contains("# connections"), dump);
+        assertTrue(dump.contains("  - ServiceName: 1A1"), dump);
+        assertTrue(dump.contains("# first"), dump);
+        assertFalse(dump.contains("!include"), dump);
+        assertEquals(APP, config.getDocument().dump());
+    }
+
+    @Test
+    @DisplayName("Edits are saved to the file that owns them")
+    void testSaveToOwner() throws Exception {
+        File app = setUp();
+        ComposedYaml config = new YamlComposer().load(app);
+
+        config.set("database.pool", 20);
+        config.set("Services[0].Enabled", true);
+        List<File> written = config.save();
+
+        assertEquals(List.of(dir.resolve("db/database.yaml").toFile(), dir.resolve("services/a.yaml").toFile()), written);
+        assertEquals(APP, Files.readString(app.toPath()));
+        assertEquals(DATABASE.replace("10 ", "20 "), Files.readString(dir.resolve("db/database.yaml")));
+        assertTrue(Files.readString(dir.resolve("services/a.yaml")).endsWith("Enabled: true\n"));
+        assertTrue(config.dump().contains("Enabled: true"));
+        assertTrue(config.save().isEmpty());
+
+        config.set("server.port", 9090);
+        assertEquals(List.of(app), config.save());
+        assertEquals(APP.replace("8080", "9090"), Files.readString(app.toPath()));
+    }
+
+    @Test
+    @DisplayName("A fragment included by several roots is parsed once and shared")
+    void testSharedFragments() throws Exception {
+        File app = setUp();
+        File other = write("other.yaml", "db: !include db/database.yaml\n");
+        AtomicInteger tasks = new AtomicInteger();
+        Executor counting = task -> {
+            tasks.incrementAndGet();
+            new Thread(task).start();
+        };
+        YamlComposer composer = new YamlComposer(counting);
+
+        ComposedYaml first = composer.load(app);
+        ComposedYaml second = composer.load(other);
+
+        assertEquals(4, tasks.get());
+        assertEquals(4, composer.size());
+        assertSame(first.getDocument(dir.resolve("db/database.yaml").toFile()),
+                second.getDocument(dir.resolve("db/database.yaml").toFile()));
+
+        first.set("database.pool", 30);
+        assertEquals(30, second.getInt("db.pool"));
+    }
+
+    @Test
+    @DisplayName("Missing files and include cycles fail the load")
+    void testErrors() throws Exception {
+        File missing = write("missing.yaml", "a: !include nope.yaml\n");
+        YamlComposer composer = new YamlComposer();
+        assertThrows(IOException.class, () -> composer.load(missing));
+
+        File loop = write("loop.yaml", "a: !include loop2.yaml\n");
+        write("loop2.yaml", "b: !include loop.yaml\n");
+        IOException e = assertThrows(IOException.class, () -> composer.load(loop));
+        assertTrue(e.getMessage().contains("cycle"), e.getMessage());
+    }
+
+    @Test
+    @DisplayName("close() detaches the view from shared fragments")
+    void testClose() throws Exception {
+        File app = setUp();
+        YamlComposer composer = new YamlComposer();
+        ComposedYaml kept = composer.load(app);
+        kept.dump();
+
+        WeakReference<ComposedYaml> open = dumpedView(composer, app, false);
+        WeakReference<ComposedYaml> closed = dumpedView(composer, app, true);
+        for (int i = 0; i < 50 && closed.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(closed.get(), "closed view is still referenced by a fragment");
+        assertNotNull(open.get(), "open view should still be listening");
+
+        kept.close();
+        kept.set("database.pool", 40);
+        assertTrue(kept.dump().contains("pool: 40"));
+    }
+
+    private static WeakReference<ComposedYaml> dumpedView(YamlComposer composer, File app, boolean close) throws IOException {
+        ComposedYaml view = composer.load(app);
+        view.dump();
+        if (close) view.close();
+        return new WeakReference<>(view);
+    }
+}
@@ -0,0 +1,119 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * ${...} interpolation on reads (Yamlrt.enableInterpolation)
+ */
+public class InterpolationTest {
+
+    private static final String CONFIG = """
+db:
+  host: db.internal    # primary
+  port: ${DB_PORT:-5432}
+  url: jdbc:postgresql://${db.host}:${db.port}/${DB_NAME}
+app:
+  port: ${server.port}
+  banner: "costs $${price}"
+server:
+  port: 8080
+""";
+
+    private static Yamlrt load(Map<String, String> env) {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.enableInterpolation(env::get);
+        return yaml;
+    }
+
+    @Test
+    @DisplayName("Path references, variables, defaults and escapes")
+    void testResolution() {
+        Yamlrt yaml = load(Map.of("DB_NAME", "orders"));
+
+        assertEquals("jdbc:postgresql://db.internal:5432/orders", yaml.getString("db.url"));
+        assertEquals(5432, yaml.getInt("db.port"));
+        assertEquals(8080L, yaml.get("app.port"));
+        assertEquals(8080, yaml.getInt("app.port"));
+        assertEquals("costs ${price}", yaml.get("app.banner"));
+        assertEquals("${server.port}", yaml.getRaw("app.port"));
+    }
+
+    @Test
+    @DisplayName("Dump keeps the raw references")
+    void testDumpUnchanged() {
+        Yamlrt yaml = load(Map.of("DB_NAME", "orders"));
+        yaml.getString("db.url");
+
+        assertEquals(CONFIG, yaml.dump());
+    }
+
+    @Test
+    @DisplayName("Resolved values are memoized until a dependency changes")
+    void testMemoAndDependencies() {
+        Yamlrt yaml = load(Map.of("DB_NAME", "orders"));
+        String url = yaml.getString("db.url");
+        Object banner = yaml.get("app.banner");
+        assertSame(url, yaml.getString("db.url"));
+
+        yaml.set("server.port", 9090);
+        assertSame(url, yaml.getString("db.url"));
+        assertEquals(9090, yaml.getInt("app.port"));
+
+        yaml.set("db.host", "db2.internal");
+        assertEquals("jdbc:postgresql://db2.internal:5432/orders", yaml.getString("db.url"));
+        assertSame(banner, yaml.get("app.banner"));
+
+        // Through another reference: db.url -> db.port -> DB_PORT default
+        yaml.set("db.port", 6543);
+        assertEquals("jdbc:postgresql://db2.internal:6543/orders", yaml.getString("db.url"));
+
+        // Replacing an ancestor counts as a change of the paths below it
+        yaml.set("db", new LinkedHashMap<>(Map.of("host", "h", "port", 1, "url", "${db.host}:${db.port}")));
+        assertEquals("h:1", yaml.getString("db.url"));
+    }
+
+    @Test
+    @DisplayName("Unresolved and circular references fail on read")
+    void testErrors() {
+        Yamlrt yaml = Yamlrt.load("""
+a: ${b}
+b: x-${a}
+c: ${NOPE}
+""");
+        yaml.enableInterpolation(name -> null);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> yaml.get("a"));
+        assertTrue(e.getMessage().contains("Circular"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> yaml.get("c"));
+        assertThrows(IllegalArgumentException.class, () -> yaml.getString("c", "x"));
+        assertThrows(IllegalArgumentException.class, () -> yaml.getInt("c", 5));
+        assertEquals(5, yaml.getInt("missing", 5));
+
+        yaml.disableInterpolation();
+        assertEquals("${NOPE}", yaml.get("c"));
+    }
+
+    @Test
+    @DisplayName("Removing or inserting a list item invalidates references to later items")
+    void testListShift() {
+        Yamlrt yaml = Yamlrt.load("""
+list:
+  - name: a
+  - name: b
+  - name: c
+ref: ${list[1].name}
+""");
+        yaml.enableInterpolation(name -> null);
+        assertEquals("b", yaml.getString("ref"));
+
+        yaml.remove("list[0]");
+        assertEquals("c", yaml.getString("ref"));
+
+        yaml.applyJsonPatch(List.of(Map.of("op", "add", "path", "/list/0", "value", Map.of("name", "z"))));
+        assertEquals("b", yaml.getString("ref"));
+    }
+}
@@ -0,0 +1,129 @@
+package io.yamlrt;
+
+import io.yamlrt.core.MappedSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Read-only documents over memory-mapped snapshots (saveMapped / MappedYaml)
+ */
+public class MappedYamlTest {
+
+    private static final String CONFIG = """
+# Generated config
+server:
+  host: localhost    # bind address
+  port: 8080
+  ratio: 1.5
+  debug: false
+  tags: [a, b, "c,d"]
+Services:
+  - ServiceName: 1A1
+    Airline: [7C, AC]
+  - ServiceName: "1E"
+    Enabled: yes
+Timeout: ~
+서비스: 한글
+""";
+
+    @TempDir
+    Path dir;
+
+    private MappedYaml save(Yamlrt yaml) throws IOException {
+        File file = dir.resolve("config.yrtm").toFile();
+        yaml.saveMapped(file);
+        return MappedYaml.open(file);
+    }
+
+    @Test
+    @DisplayName("Reads match the parsed document")
+    void testReads() throws Exception {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        MappedYaml mapped = save(yaml);
+
+        assertEquals("localhost", mapped.getString("server.host"));
+        assertEquals(8080, mapped.getInt("server.port"));
+        assertEquals(1.5, mapped.getDouble("server.ratio"));
+        assertFalse(mapped.getBoolean("server.debug"));
+        assertEquals(List.of("a", "b", "c,d"), mapped.getList("server.tags"));
+        assertEquals("1E", mapped.getString("Services[1].ServiceName"));
+        assertEquals(yaml.get("Services[1].Enabled"), mapped.get("Services[1].Enabled"));
+        assertEquals("한글", mapped.getString("서비스"));
+        assertNull(mapped.get("Timeout"));
+        assertNull(mapped.get("server.missing"));
+        assertNull(mapped.get("Services[5]"));
+        assertNull(mapped.get("server.host.deeper"));
+        assertEquals(7, mapped.getInt("missing", 7));
+    }
+
+    @Test
+    @DisplayName("Containers are read-only views equal to the parsed ones")
+    void testViews() throws Exception {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        MappedYaml mapped = save(yaml);
+
+        assertEquals(yaml.getRoot(), mapped.getRoot());
+        assertEquals(new ArrayList<>(yaml.getRoot().keySet()), new ArrayList<>(mapped.getRoot().keySet()));
+        Map<String, Object> server = mapped.getMap("server");
+        assertTrue(server.containsKey("port"));
+        assertThrows(UnsupportedOperationException.class, () -> server.put("x", 1));
+        assertThrows(UnsupportedOperationException.class, () -> mapped.getList("server.tags").add("x"));
+    }
+
+    @Test
+    @DisplayName("Large maps are searched through the sorted key index")
+    void testLargeMap() throws Exception {
+        Yamlrt yaml = Yamlrt.create();
+        for (int i = 0; i < 500; i++) {
+            yaml.set("keys.k" + i, i);
+        }
+        yaml.set("keys.é", "accent");
+        yaml.set("keys.big", new BigInteger("123456789012345678901234567890"));
+        MappedYaml mapped = save(yaml);
+
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, mapped.getInt("keys.k" + i));
+        }
+        assertEquals("accent", mapped.get("keys.é"));
+        assertEquals(new BigInteger("123456789012345678901234567890"), mapped.get("keys.big"));
+        assertNull(mapped.get("keys.k500"));
+        assertEquals(502, mapped.getMap("keys").size());
+    }
+
+    @Test
+    @DisplayName("Readers keep their mapping when the file is replaced")
+    void testReplace() throws Exception {
+        File file = dir.resolve("config.yrtm").toFile();
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.saveMapped(file);
+        MappedYaml before = MappedYaml.open(file);
+
+        yaml.set("server.port", 9090);
+        yaml.saveMapped(file);
+
+        assertEquals(8080, before.getInt("server.port"));
+        assertEquals(9090, MappedYaml.open(file).getInt("server.port"));
+    }
+
+    @Test
+    @DisplayName("Files that are not mapped snapshots are rejected")
+    void testBadFile() throws Exception {
+        Path bad = dir.resolve("bad.yrtm");
+        Files.writeString(bad, "server: 1\n");
+        assertThrows(IOException.class, () -> MappedYaml.open(bad.toFile()));
+
+        byte[] bytes = MappedSnapshot.toBytes(Yamlrt.load(CONFIG).getRoot());
+        bytes[4] = 9;
+        assertThrows(IOException.class, () -> MappedSnapshot.open(ByteBuffer.wrap(bytes)));
+    }
+}
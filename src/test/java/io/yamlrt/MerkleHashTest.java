@@ -0,0 +1,120 @@
+package io.yamlrt;
+
+import io.yamlrt.core.CommentToken;
+import io.yamlrt.core.CommentedMap;
+import io.yamlrt.core.MerkleHash;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Cached subtree hashes (treeHash / MerkleHash)
+ */
+public class MerkleHashTest {
+
+    private static final String CONFIG = """
+# Server settings
+server:
+  host: localhost    # bind address
+  port: 8080
+  tags: [a, b]
+Services:
+  - ServiceName: 1A1
+    Airline:
+      - 7C
+      - AC
+  - ServiceName: 1E
+""";
+
+    @Test
+    @DisplayName("Equal values hash equal whatever the formatting")
+    void testEqualValues() {
+        Yamlrt a = Yamlrt.load(CONFIG);
+        Yamlrt b = Yamlrt.load("""
+Services: [{ServiceName: 1A1, Airline: [7C, AC]}, {ServiceName: 1E}]
+server: {port: 8080, host: localhost, tags: [a, b]}
+""");
+
+        assertEquals(a.treeHash(), b.treeHash());
+        assertNotEquals(a.treeHash(true), b.treeHash(true));
+        assertNotEquals(MerkleHash.of(1), MerkleHash.of(1L));
+        assertNotEquals(MerkleHash.of(1), MerkleHash.of("1"));
+        assertNotEquals(MerkleHash.of(List.of("a", "b")), MerkleHash.of(List.of("b", "a")));
+    }
+
+    @Test
+    @DisplayName("Edits anywhere change the cached hash; reverting restores it")
+    void testEdits() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        long original = yaml.treeHash();
+        long serverHash = MerkleHash.of(yaml.get("server"));
+
+        yaml.set("Services[0].Airline[1]", "KE");
+        long edited = yaml.treeHash();
+        assertNotEquals(original, edited);
+        assertEquals(serverHash, MerkleHash.of(yaml.get("server")));
+        assertEquals(Yamlrt.load(CONFIG.replace("- AC", "- KE")).treeHash(), edited);
+
+        yaml.set("Services[0].Airline[1]", "AC");
+        assertEquals(original, yaml.treeHash());
+
+        yaml.dump();
+        yaml.remove("server.tags");
+        assertEquals(Yamlrt.load(CONFIG.replace("  tags: [a, b]\n", "")).treeHash(), yaml.treeHash());
+    }
+
+    @Test
+    @DisplayName("Comment changes only affect the comment-aware hash")
+    void testComments() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        long values = yaml.treeHash();
+        long full = yaml.treeHash(true);
+
+        ((CommentedMap<?, ?>) yaml.get("server")).ca().getOrCreateSlot("port")
+                .setValueEol(CommentToken.comment("listen port", 0));
+
+        assertEquals(values, yaml.treeHash());
+        assertNotEquals(full, yaml.treeHash(true));
+        assertEquals(Yamlrt.load(CONFIG.replace("  port: 8080\n", "  port: 8080  # listen port\n")).treeHash(true),
+                yaml.treeHash(true));
+    }
+
+    @Test
+    @DisplayName("Plain containers are rehashed on every call")
+    void testPlainContainers() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        List<Object> plain = new ArrayList<>(List.of(1, 2));
+        yaml.getRoot().put("plain", plain);
+        long before = yaml.treeHash();
+
+        plain.add(3);
+
+        assertNotEquals(before, yaml.treeHash());
+    }
+
+    @Test
+    @DisplayName("Snapshots share hashes of untouched subtrees across versions")
+    void testSnapshots() {
+        YamlSnapshot v1 = Yamlrt.load(CONFIG).freeze();
+        YamlSnapshot v2 = v1.toBuilder().set("server.port", 9090).build();
+        YamlSnapshot v3 = v2.toBuilder().set("server.port", 8080L).build();
+
+        assertNotEquals(v1.treeHash(), v2.treeHash());
+        assertEquals(v1.treeHash(), v3.treeHash());
+        assertSame(v1.getRoot().get("Services"), v2.getRoot().get("Services"));
+    }
+
+    @Test
+    @DisplayName("ConcurrentYamlrt hashes like the document it wraps")
+    void testConcurrent() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        ConcurrentYamlrt concurrent = ConcurrentYamlrt.load(CONFIG);
+
+        assertEquals(yaml.treeHash(), concurrent.treeHash());
+        assertEquals(yaml.treeHash(true), concurrent.treeHash(true));
+        concurrent.set("server.port", 9090);
+        assertNotEquals(yaml.treeHash(), concurrent.treeHash());
+    }
+}
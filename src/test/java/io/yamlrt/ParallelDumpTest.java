@@ -0,0 +1,83 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Parallel rendering of top-level sections
+ */
+public class ParallelDumpTest {
+
+    private static final String CONFIG = """
+---
+# Server settings
+server:
+  host: localhost    # bind address
+  port: 8080
+  tags: [a, b]
+
+Services:
+- ServiceName: 1A1   # first
+  Airline:
+  - 7C
+  - AC
+Timeout: 4
+# end
+""";
+
+    private static String generated(int sections) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sections; i++) {
+            sb.append("\n# section ").append(i).append('\n');
+            sb.append("section").append(i).append(":\n");
+            sb.append("  name: \"s").append(i).append("\"   # name\n");
+            sb.append("  items:\n");
+            for (int j = 0; j < 5; j++) {
+                sb.append("  - id: ").append(j).append('\n');
+                sb.append("    tags: [x, y]\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    @DisplayName("Parallel output is identical to sequential output")
+    void testIdenticalOutput() {
+        for (String source : List.of(CONFIG, generated(40), "a: 1", "only:\n  one: 1\n")) {
+            Yamlrt parallel = Yamlrt.load(source);
+            parallel.setParallelDump(true);
+            assertEquals(Yamlrt.load(source).dump(), parallel.dump());
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel dump reflects edits and keeps the cache")
+    void testEditsAndCache() {
+        String source = generated(20);
+        Yamlrt yaml = Yamlrt.load(source);
+        yaml.setParallelDump(true);
+        String first = yaml.dump();
+        assertSame(first, yaml.dump());
+
+        yaml.set("section7.items[3].id", 99);
+        Yamlrt expected = Yamlrt.load(source);
+        expected.set("section7.items[3].id", 99);
+        assertEquals(expected.dump(), yaml.dump());
+    }
+
+    @Test
+    @DisplayName("Plain values stay uncached in parallel mode")
+    void testPlainValues() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.setParallelDump(true);
+        Map<String, Object> plain = new LinkedHashMap<>();
+        yaml.set("extra", plain);
+        yaml.dump();
+
+        plain.put("k", "v");
+        assertTrue(yaml.dump().contains("extra:\n  k: v\n"));
+    }
+}
@@ -0,0 +1,143 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * On-disk parse cache behind Yamlrt.load(File)
+ */
+public class ParseCacheTest {
+
+    private static final String CONFIG = """
+# Server settings
+server:
+  host: localhost    # bind address
+  port: 8080
+Services:
+- ServiceName: 1A1
+  Airline: [7C, AC]
+""";
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void disableCache() {
+        Yamlrt.setParseCache(null);
+    }
+
+    private File write(String name, String content) throws Exception {
+        Path file = dir.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    private long entries(Path cacheDir) throws Exception {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.filter(p -> p.toString().endsWith(".yrtb")).count();
+        }
+    }
+
+    @Test
+    @DisplayName("Miss parses and stores; hit returns the same document")
+    void testHitAndMiss() throws Exception {
+        ParseCache cache = new ParseCache(dir.resolve("cache"), 1 << 20);
+        Yamlrt.setParseCache(cache);
+        File file = write("config.yaml", CONFIG);
+
+        Yamlrt first = Yamlrt.load(file);
+        Yamlrt second = Yamlrt.load(file);
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(CONFIG, first.dump());
+        assertEquals(CONFIG, second.dump());
+        assertEquals(1, entries(dir.resolve("cache")));
+
+        // Cached documents are independent, mutable copies
+        second.set("server.port", 9090);
+        assertEquals(8080L, Yamlrt.load(file).get("server.port"));
+    }
+
+    @Test
+    @DisplayName("Changed content is a miss; identical content in another file is a hit")
+    void testContentKey() throws Exception {
+        ParseCache cache = new ParseCache(dir.resolve("cache"), 1 << 20);
+        Yamlrt.setParseCache(cache);
+        File file = write("config.yaml", CONFIG);
+        Yamlrt.load(file);
+
+        Files.writeString(file.toPath(), CONFIG.replace("8080", "9090"));
+        assertEquals(9090L, Yamlrt.load(file).get("server.port"));
+        assertEquals(2, cache.getMisses());
+
+        Yamlrt.load(write("copy.yaml", CONFIG));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    @DisplayName("Metadata keys skip reading the file on a hit")
+    void testMetadataKey() throws Exception {
+        ParseCache cache = new ParseCache(dir.resolve("cache"), 1 << 20, ParseCache.KeyMode.FILE_METADATA);
+        Yamlrt.setParseCache(cache);
+        File file = write("config.yaml", CONFIG);
+
+        Yamlrt.load(file);
+        assertEquals(CONFIG, Yamlrt.load(file).dump());
+        assertEquals(1, cache.getHits());
+
+        Files.writeString(file.toPath(), CONFIG + "Timeout: 4\n");
+        assertEquals(4L, Yamlrt.load(file).get("Timeout"));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Corrupt entries are reparsed; old entries are evicted over the size bound")
+    void testCorruptAndEviction() throws Exception {
+        Path cacheDir = dir.resolve("cache");
+        ParseCache cache = new ParseCache(cacheDir, 1);
+        Yamlrt.setParseCache(cache);
+
+        for (int i = 0; i < 5; i++) {
+            Yamlrt.load(write("c" + i + ".yaml", CONFIG + "Id: " + i + "\n"));
+        }
+        assertTrue(entries(cacheDir) <= 1);
+
+        ParseCache big = new ParseCache(cacheDir, 1 << 20);
+        Yamlrt.setParseCache(big);
+        File file = write("config.yaml", CONFIG);
+        Yamlrt.load(file);
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            for (Path entry : (Iterable<Path>) files::iterator) {
+                Files.writeString(entry, "garbage");
+            }
+        }
+        assertEquals(CONFIG, Yamlrt.load(file).dump());
+        assertEquals(2, big.getMisses());
+    }
+
+    @Test
+    @DisplayName("Invalid UTF-8 fails the load with or without the cache")
+    void testMalformedInput() throws Exception {
+        Path file = dir.resolve("broken.yaml");
+        Files.write(file, new byte[] {'a', ':', ' ', (byte) 0xC3, '(', '\n'});
+
+        assertThrows(MalformedInputException.class, () -> Yamlrt.load(file.toFile()));
+        for (ParseCache.KeyMode mode : ParseCache.KeyMode.values()) {
+            ParseCache cache = new ParseCache(dir.resolve("cache-" + mode), 1 << 20, mode);
+            Yamlrt.setParseCache(cache);
+            assertThrows(MalformedInputException.class, () -> Yamlrt.load(file.toFile()));
+            assertFalse(Files.exists(dir.resolve("cache-" + mode)));
+        }
+    }
+}
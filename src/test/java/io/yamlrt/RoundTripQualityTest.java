@@ -195,4 +195,22 @@ Airlines:
         assertTrue(output.contains("- BB"), "BB should be preserved");
         assertTrue(output.contains("- CC"), "CC should be added");
     }
+    
+    @Test
+    @DisplayName("Round-trip: final newline is a line terminator, not a blank line")
+    void testFinalNewline() {
+        String[] originals = {
+            "a: 1\nb: 2\n",
+            "a: 1\nb: 2",
+            "a: 1\nb: 2\n\n",
+            "items:\n- x\n- y\n",
+        };
+        
+        for (String original : originals) {
+            Yamlrt yaml = new Yamlrt();
+            yaml.loadYaml(original);
+            
+            assertEquals(original, yaml.dump(), "Round-trip should keep the end of file exactly");
+        }
+    }
 }
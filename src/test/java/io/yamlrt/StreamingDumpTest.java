@@ -0,0 +1,68 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Streaming dump to Writer / OutputStream / File
+ */
+public class StreamingDumpTest {
+
+    private static final String CONFIG = """
+---
+# Server
+server:
+  host: localhost    # bind address
+  name: 서버
+Services:
+- ServiceName: 1A1
+  Airline: [7C, AC]
+""";
+
+    @Test
+    @DisplayName("Trailing newline is kept exactly as in the source")
+    void testTrailingNewline() {
+        assertEquals("a: 1\n", Yamlrt.roundTrip("a: 1\n"));
+        assertEquals("a: 1", Yamlrt.roundTrip("a: 1"));
+        assertEquals("a: 1\n\n", Yamlrt.roundTrip("a: 1\n\n"));
+        assertEquals("a:\n- 1\n", Yamlrt.roundTrip("a:\n- 1\n"));
+        assertEquals(CONFIG, Yamlrt.roundTrip(CONFIG));
+    }
+
+    @Test
+    @DisplayName("dump(Writer) and dump(OutputStream) match dump()")
+    void testStreams() throws IOException {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+
+        StringWriter sw = new StringWriter();
+        yaml.dump(sw);
+        assertEquals(yaml.dump(), sw.toString());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        yaml.dump(bytes);
+        assertEquals(yaml.dump(), bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Large documents stream through the fixed-size buffer")
+    void testLargeDocument() throws IOException {
+        Yamlrt yaml = Yamlrt.create();
+        for (int i = 0; i < 5000; i++) {
+            yaml.set("section" + i + ".value", "item-" + i);
+        }
+        yaml.getRoot().setTrailingNewline(false);
+
+        File file = File.createTempFile("yamlrt-stream", ".yaml");
+        file.deleteOnExit();
+        yaml.save(file);
+
+        String saved = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(yaml.dump(), saved);
+        assertTrue(saved.endsWith("value: item-4999"));
+    }
+}
@@ -0,0 +1,103 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Transactional multi-path edits
+ */
+public class TransactionTest {
+
+    private static final String CONFIG = """
+ServerName: TestServer
+
+# Server settings
+server:
+  host: localhost    # bind address
+  port: 8080
+Services:
+- ServiceName: 1A1   # first
+  Airline:
+  - 7C
+  - AC
+
+# second service
+- ServiceName: 1E
+Timeout: 4
+""";
+
+    @Test
+    @DisplayName("Transaction applies all edits with one notification")
+    void testCommit() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        List<List<String>> events = new ArrayList<>();
+        yaml.addChangeListener(events::add);
+
+        yaml.transaction(tx -> tx
+                .set("server.port", 9090)
+                .set("server.tls.enabled", true)
+                .remove("Services[0]")
+                .remove("Timeout"));
+
+        assertEquals(9090, yaml.getInt("server.port"));
+        assertTrue(yaml.getBoolean("server.tls.enabled"));
+        assertEquals("1E", yaml.getString("Services[0].ServiceName"));
+        assertFalse(yaml.exists("Timeout"));
+
+        assertEquals(1, events.size());
+        assertEquals(List.of("server.port", "server.tls.enabled", "Services[0]", "Timeout"), events.get(0));
+    }
+
+    @Test
+    @DisplayName("Failed transaction restores values, key order and comments")
+    void testRollback() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        String before = yaml.dump();
+        List<List<String>> events = new ArrayList<>();
+        yaml.addChangeListener(events::add);
+
+        assertThrows(IllegalArgumentException.class, () -> yaml.transaction(tx -> tx
+                .set("server.port", 9090)
+                .remove("server")
+                .remove("Services[0]")
+                .set("Services[0].Airline[5]", "KE")
+                .set("Extra.key", "value")
+                .set("ServerName.child", "fails")));
+
+        assertEquals(before, yaml.dump());
+        assertEquals(8080, yaml.getInt("server.port"));
+        assertEquals("1A1", yaml.getString("Services[0].ServiceName"));
+        assertFalse(yaml.exists("Extra"));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Exception in transaction body applies nothing")
+    void testBodyException() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+
+        assertThrows(IllegalStateException.class, () -> yaml.transaction(tx -> {
+            tx.set("server.port", 1);
+            throw new IllegalStateException("abort");
+        }));
+
+        assertEquals(8080, yaml.getInt("server.port"));
+    }
+
+    @Test
+    @DisplayName("Single set/remove notify listeners")
+    void testListeners() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        List<String> paths = new ArrayList<>();
+        yaml.addChangeListener(paths::addAll);
+
+        yaml.set("server.port", 1);
+        yaml.remove("missing");
+        yaml.remove("Timeout");
+
+        assertEquals(List.of("server.port", "Timeout"), paths);
+    }
+}
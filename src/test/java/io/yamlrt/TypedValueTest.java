@@ -0,0 +1,94 @@
+package io.yamlrt;
+
+import io.yamlrt.core.TypedValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Typed getters and cached conversions
+ */
+public class TypedValueTest {
+
+    private static final String CONFIG = """
+server:
+  host: localhost
+  port: 8080
+  timeout: "30"
+  ratio: 0.75
+  big: "4000000000"
+  enabled: true
+  flag: "TRUE"
+""";
+
+    @Test
+    @DisplayName("Typed getters convert numbers, strings and booleans")
+    void testTypedGetters() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+
+        assertEquals(8080, yaml.getInt("server.port"));
+        assertEquals(30, yaml.getInt("server.timeout"));
+        assertEquals(8080L, yaml.getLong("server.port"));
+        assertEquals(4000000000L, yaml.getLong("server.big"));
+        assertEquals(0.75, yaml.getDouble("server.ratio"));
+        assertEquals(30.0, yaml.getDouble("server.timeout"));
+        assertTrue(yaml.getBoolean("server.enabled"));
+        assertTrue(yaml.getBoolean("server.flag"));
+    }
+
+    @Test
+    @DisplayName("Default variants return default on invalid or missing values")
+    void testDefaults() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+
+        assertEquals(-1, yaml.getInt("server.host", -1));
+        assertEquals(-1, yaml.getInt("server.big", -1));
+        assertEquals(-1L, yaml.getLong("server.flag", -1L));
+        assertEquals(1.5, yaml.getDouble("server.host", 1.5));
+        assertEquals(7, yaml.getInt("missing.key", 7));
+        assertFalse(yaml.getBoolean("server.port", false));
+    }
+
+    @Test
+    @DisplayName("Strict variants still throw on invalid values")
+    void testStrictThrows() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+
+        assertThrows(NumberFormatException.class, () -> yaml.getInt("server.host"));
+        assertThrows(IllegalArgumentException.class, () -> yaml.getInt("missing"));
+        assertThrows(IllegalArgumentException.class, () -> yaml.getBoolean("server.port"));
+    }
+
+    @Test
+    @DisplayName("Cached conversion is refreshed after set")
+    void testCacheRefreshedAfterSet() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+
+        TypedValue first = yaml.getTyped("server.port");
+        assertSame(first, yaml.getTyped("server.port"));
+
+        yaml.set("server.port", 9090);
+        assertEquals(9090, yaml.getInt("server.port"));
+        assertNotSame(first, yaml.getTyped("server.port"));
+
+        yaml.set("server.port", "oops");
+        assertEquals(1, yaml.getInt("server.port", 1));
+    }
+
+    @Test
+    @DisplayName("String conversion matches Java parsing rules")
+    void testStringConversion() {
+        assertEquals(Integer.MIN_VALUE, TypedValue.of("-2147483648").getInt());
+        assertFalse(TypedValue.of("2147483648").isInt());
+        assertEquals(Long.MIN_VALUE, TypedValue.of("-9223372036854775808").getLong());
+        assertFalse(TypedValue.of("9223372036854775808").isLong());
+        assertFalse(TypedValue.of("+").isLong());
+        assertFalse(TypedValue.of(" 1").isInt());
+        assertEquals(1e5, TypedValue.of("1e5").getDouble());
+        assertEquals(-0.5, TypedValue.of("-.5").getDouble());
+        assertFalse(TypedValue.of("1e").isDouble());
+        assertFalse(TypedValue.of(".").isDouble());
+        assertTrue(Double.isNaN(TypedValue.of("NaN").getDouble()));
+        assertFalse(TypedValue.of("abc").isDouble());
+    }
+}
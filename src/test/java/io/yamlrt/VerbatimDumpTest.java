@@ -0,0 +1,86 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Unchanged scalars are copied from the source text
+ */
+public class VerbatimDumpTest {
+
+    private static final String CONFIG = """
+server:
+  name: "서버"          # quoted
+  alias: 'main'
+  ratio: 1.50
+  enabled: True
+  empty: ~
+  spaced:    wide
+  hex: 0x1F
+Services:
+- ServiceName: "1A1"   # first key comment
+  Weight: 2.0
+  Airline:
+  - '7C'
+  -   AC              # carrier
+- ServiceName: 1E
+""";
+
+    @Test
+    @DisplayName("Unchanged document dumps byte-for-byte")
+    void testRoundTripVerbatim() {
+        assertEquals(CONFIG, Yamlrt.roundTrip(CONFIG));
+    }
+
+    @Test
+    @DisplayName("Only edited values are re-rendered")
+    void testMinimalDiff() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.set("server.ratio", 2.5);
+        yaml.set("Services[0].Airline[1]", "KE");
+
+        String[] before = CONFIG.split("\n");
+        String[] after = yaml.dump().split("\n");
+        assertEquals(before.length, after.length);
+
+        List<String> changed = new ArrayList<>();
+        for (int i = 0; i < before.length; i++) {
+            if (!before[i].equals(after[i])) changed.add(after[i]);
+        }
+        assertEquals(List.of("  ratio: 2.5", "  - KE                # carrier"), changed);
+    }
+
+    @Test
+    @DisplayName("Replaced value is rendered even if it prints the same")
+    void testReplacedValue() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.set("server.name", "서버");
+        yaml.set("server.alias", "main");
+
+        String dump = yaml.dump();
+        assertTrue(dump.contains("  name: 서버            # quoted\n"));
+        assertTrue(dump.contains("  alias: main\n"));
+    }
+
+    @Test
+    @DisplayName("Moved list items keep their own source text")
+    void testListShift() {
+        Yamlrt yaml = Yamlrt.load("items:\n- 'a'\n- \"b\"\n- c\n");
+        yaml.getList("items").remove(0);
+        assertEquals("items:\n- \"b\"\n- c\n", yaml.dump());
+    }
+
+    @Test
+    @DisplayName("Copied subtree keeps its original text in another document")
+    void testCopiedSubtree() {
+        Yamlrt source = Yamlrt.load(CONFIG);
+        Yamlrt target = Yamlrt.load("other: 1\n");
+        target.set("copy", source.getMap("server"));
+
+        assertTrue(target.dump().contains("  name: \"서버\"          # quoted\n"));
+        assertTrue(target.dump().contains("  hex: 0x1F\n"));
+    }
+}
@@ -0,0 +1,106 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Structurally shared document versions
+ */
+public class VersionHistoryTest {
+
+    private static final String CONFIG = """
+server:
+  host: localhost    # bind address
+  port: 8080
+database:
+  url: jdbc:test
+  pool:
+    size: 10
+Services:
+- ServiceName: 1A1
+- ServiceName: 1E
+""";
+
+    @Test
+    @DisplayName("Each edit records a version sharing unchanged subtrees")
+    void testVersionsShareSubtrees() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.enableVersioning(10);
+        assertEquals(0, yaml.currentVersion());
+
+        yaml.set("server.port", 9090);
+        yaml.remove("Services[0]");
+        yaml.transaction(tx -> tx.set("server.host", "0.0.0.0").set("feature.on", true));
+
+        assertEquals(3, yaml.currentVersion());
+        assertEquals(8080, yaml.version(0).getInt("server.port"));
+        assertEquals(9090, yaml.version(1).getInt("server.port"));
+        assertEquals("1A1", yaml.version(1).getString("Services[0].ServiceName"));
+        assertEquals("1E", yaml.version(2).getString("Services[0].ServiceName"));
+        assertEquals("0.0.0.0", yaml.version(3).getString("server.host"));
+
+        assertSame(yaml.version(0).get("database"), yaml.version(3).get("database"));
+        assertSame(yaml.version(1).get("Services"), yaml.version(0).get("Services"));
+        assertTrue(yaml.version(3).dump().matches("(?s).*host: 0\\.0\\.0\\.0 +# bind address.*"));
+    }
+
+    @Test
+    @DisplayName("Diff between versions lists changed paths")
+    void testDiff() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.enableVersioning(10);
+        yaml.set("server.port", 9090);
+        yaml.set("database.pool.max", 20);
+        yaml.remove("Services[1]");
+
+        List<YamlDiff.Change> changes = yaml.diff(0, 3);
+        List<String> described = new ArrayList<>();
+        for (YamlDiff.Change change : changes) {
+            described.add(change.getKind() + " " + change.getPath());
+        }
+        assertEquals(List.of(
+                "MODIFIED server.port",
+                "ADDED database.pool.max",
+                "REMOVED Services[1]"), described);
+        assertTrue(yaml.diff(2, 2).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Old versions are dropped beyond the limit")
+    void testRetention() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.enableVersioning(3);
+        for (int i = 0; i < 5; i++) {
+            yaml.set("server.port", 9000 + i);
+        }
+
+        assertEquals(5, yaml.currentVersion());
+        assertEquals(9002, yaml.version(3).getInt("server.port"));
+        assertThrows(IllegalArgumentException.class, () -> yaml.version(2));
+        yaml.remove("missing");
+        assertEquals(5, yaml.currentVersion());
+    }
+
+    @Test
+    @DisplayName("Rollback restores an older version as the current document")
+    void testRollback() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.enableVersioning(10);
+        yaml.set("server.port", 9090);
+        yaml.remove("database");
+        List<String> notified = new ArrayList<>();
+        yaml.addChangeListener(notified::addAll);
+
+        yaml.rollbackTo(0);
+
+        assertEquals(8080, yaml.getInt("server.port"));
+        assertEquals(10, yaml.getInt("database.pool.size"));
+        assertEquals(3, yaml.currentVersion());
+        assertEquals(List.of("server.port", "database"), notified);
+        yaml.set("server.port", 1);
+        assertEquals(8080, yaml.version(3).getInt("server.port"));
+    }
+}
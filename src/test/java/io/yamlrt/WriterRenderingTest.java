@@ -0,0 +1,78 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Scalar quoting / escaping and EOL comment alignment in YamlWriter
+ */
+public class WriterRenderingTest {
+
+    @Test
+    @DisplayName("Scalars are quoted and escaped only when needed")
+    void testQuoting() {
+        Yamlrt yaml = Yamlrt.load("a: 1\n");
+        yaml.set("plain", "a:b");
+        yaml.set("colon", "a: b");
+        yaml.set("hash", "x#y");
+        yaml.set("escape", "q\"\\\tz\nw");
+        yaml.set("word", "true");
+        yaml.set("bang", "!tag");
+        yaml.set("empty", "");
+
+        assertEquals("""
+a: 1
+plain: a:b
+colon: "a: b"
+hash: "x#y"
+escape: "q\\"\\\\\\tz\\nw"
+word: "true"
+bang: "!tag"
+empty: ""
+""", yaml.dump());
+    }
+
+    @Test
+    @DisplayName("Flow values are quoted per flow rules")
+    void testFlowQuoting() {
+        Yamlrt yaml = Yamlrt.load("list: [a, b]\n");
+        List<Object> list = yaml.getList("list");
+        list.add("c,d");
+        list.add(null);
+        list.add(3);
+
+        assertEquals("list: [a, b, \"c,d\", null, 3]\n", yaml.dump());
+    }
+
+    @Test
+    @DisplayName("EOL comments keep their column after flow and scalar values")
+    void testEolAlignment() {
+        String src = """
+server:
+  hosts: [a, b]      # flow
+  port: 8080         # scalar
+  long: [aaaaaaaaaaaaaaaaaaaa] # overflow
+Services:
+- Name: one
+  Weight: [1, 2]     # item
+""";
+        assertEquals(src, Yamlrt.roundTrip(src));
+
+        Yamlrt yaml = Yamlrt.load(src);
+        yaml.set("server.port", 9090123);
+        assertTrue(yaml.dump().contains("  port: 9090123      # scalar\n"));
+    }
+
+    @Test
+    @DisplayName("Reused writer buffers do not leak between dumps")
+    void testRepeatedDumps() {
+        Yamlrt yaml = Yamlrt.load("a: 1 # c\n");
+        String first = yaml.dump();
+        assertEquals(first, yaml.dump());
+        yaml.set("a", 22);
+        assertEquals("a: 22  # c\n", yaml.dump());
+    }
+}
@@ -0,0 +1,168 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * In-process document cache (YamlCache)
+ */
+public class YamlCacheTest {
+
+    private static final String CONFIG = """
+# Server settings
+server:
+  host: localhost    # bind address
+  port: 8080
+""";
+
+    @TempDir
+    Path dir;
+
+    private File write(String name, String content) throws Exception {
+        Path file = dir.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file.toFile();
+    }
+
+    @Test
+    @DisplayName("Second get returns the same shared snapshot")
+    void testHit() throws Exception {
+        File file = write("config.yaml", CONFIG);
+        YamlCache cache = new YamlCache(1 << 20);
+
+        YamlSnapshot first = cache.get(file);
+        YamlSnapshot second = cache.get(file);
+
+        assertSame(first, second);
+        assertEquals(8080L, second.get("server.port"));
+        assertThrows(UnsupportedOperationException.class, () -> first.getRoot().put("x", 1));
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("load returns an independent mutable copy")
+    void testLoadCopy() throws Exception {
+        File file = write("config.yaml", CONFIG);
+        YamlCache cache = new YamlCache(1 << 20);
+
+        Yamlrt copy = cache.load(file);
+        copy.set("server.port", 9090);
+
+        assertEquals(CONFIG.replace("8080", "9090"), copy.dump());
+        assertEquals(8080L, cache.get(file).get("server.port"));
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("A changed file is reloaded")
+    void testFileChanged() throws Exception {
+        File file = write("config.yaml", CONFIG);
+        YamlCache cache = new YamlCache(1 << 20);
+        cache.get(file);
+
+        Files.writeString(file.toPath(), CONFIG.replace("8080", "18080"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(file.lastModified() + 2000));
+
+        assertEquals(18080L, cache.get(file).get("server.port"));
+        assertEquals(2, cache.getStats().getMisses());
+        assertEquals(1, cache.getStats().getSize());
+
+        cache.invalidate(file);
+        assertEquals(0, cache.getStats().getSize());
+        assertEquals(0, cache.getStats().getWeight());
+    }
+
+    @Test
+    @DisplayName("Least recently used entries are evicted by weight")
+    void testEviction() throws Exception {
+        File a = write("a.yaml", CONFIG);
+        File b = write("b.yaml", CONFIG);
+        File c = write("c.yaml", CONFIG);
+        long one = YamlCache.estimateWeight(Yamlrt.load(CONFIG).getRoot());
+        YamlCache cache = new YamlCache(2 * one + one / 2);
+
+        cache.get(a);
+        cache.get(b);
+        cache.get(a);   // b is now least recently used
+        cache.get(c);
+
+        YamlCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(1, stats.getEvictions());
+        assertTrue(stats.getWeight() <= 2 * one + one / 2);
+
+        cache.get(a);
+        assertEquals(3, cache.getStats().getMisses());
+        cache.get(b);
+        assertEquals(4, cache.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("Weight counts the source text retained by the tree once")
+    void testSourceWeight() {
+        String padded = "a: 1" + " ".repeat(100_000) + "\nb: 2\nc: 3\n";
+        long weight = YamlCache.estimateWeight(Yamlrt.load(padded).getRoot());
+
+        assertTrue(weight >= padded.length(), "weight " + weight);
+        assertTrue(weight < 2 * padded.length(), "weight " + weight);
+    }
+
+    @Test
+    @DisplayName("Concurrent requests for one file parse it once")
+    void testSingleFlight() throws Exception {
+        StringBuilder big = new StringBuilder(CONFIG).append("items:\n");
+        for (int i = 0; i < 2000; i++) {
+            big.append("  - name: item").append(i).append("   # comment\n");
+        }
+        File file = write("big.yaml", big.toString());
+        YamlCache cache = new YamlCache(64 << 20);
+
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<YamlSnapshot>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return cache.get(file);
+                }));
+            }
+            start.countDown();
+
+            Set<YamlSnapshot> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<YamlSnapshot> result : results) {
+                distinct.add(result.get(30, TimeUnit.SECONDS));
+            }
+            assertEquals(1, distinct.size());
+            assertEquals(1, cache.getStats().getMisses());
+            // Threads that arrived during the parse waited for it; later ones hit the entry
+            YamlCache.Stats stats = cache.getStats();
+            assertEquals(threads - 1, stats.getHits() + stats.getSharedLoads());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Missing files fail without poisoning the cache")
+    void testMissingFile() throws Exception {
+        File file = dir.resolve("missing.yaml").toFile();
+        YamlCache cache = new YamlCache(1 << 20);
+
+        assertThrows(java.io.IOException.class, () -> cache.get(file));
+        Files.writeString(file.toPath(), CONFIG, StandardCharsets.UTF_8);
+        assertEquals("localhost", cache.get(file).get("server.host"));
+    }
+}
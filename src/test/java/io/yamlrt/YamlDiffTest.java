@@ -0,0 +1,150 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Structural diff between two commented documents (YamlDiff / DiffOptions)
+ */
+public class YamlDiffTest {
+
+    private static final String CONFIG = """
+# Server settings
+server:
+  host: localhost    # bind address
+  port: 8080
+Services:
+  - ServiceName: 1A1
+    Airline: [7C, AC]
+  - ServiceName: 1E
+    Enabled: true
+  - ServiceName: 2B
+""";
+
+    private static List<String> describe(List<YamlDiff.Change> changes) {
+        List<String> described = new ArrayList<>();
+        for (YamlDiff.Change change : changes) {
+            described.add(change.getKind() + " " + change.getPath());
+        }
+        return described;
+    }
+
+    @Test
+    @DisplayName("Identical documents produce no changes")
+    void testIdentical() {
+        Yamlrt a = Yamlrt.load(CONFIG);
+        Yamlrt b = Yamlrt.load(CONFIG);
+
+        assertTrue(YamlDiff.diff(a.getRoot(), b.getRoot()).isEmpty());
+        assertTrue(YamlDiff.diff(a.getRoot(), a.getRoot()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Added, removed, modified and reordered keys")
+    void testValuesAndOrder() {
+        Yamlrt a = Yamlrt.load(CONFIG);
+        Yamlrt b = Yamlrt.load("""
+Services:
+  - ServiceName: 1A1
+    Airline: [7C, KE]
+  - ServiceName: 1E
+    Enabled: true
+  - ServiceName: 2B
+# Server settings
+server:
+  port: 9090
+  host: localhost    # bind address
+  timeout: 30
+""");
+
+        List<YamlDiff.Change> changes = YamlDiff.diff(a.getRoot(), b.getRoot());
+
+        assertEquals(List.of(
+                "MODIFIED server.port",
+                "ADDED server.timeout",
+                "REORDERED server",
+                "MODIFIED Services[0].Airline[1]",
+                "REORDERED "), describe(changes));
+        assertEquals(List.of("server", "Services"), changes.get(4).getOldValue());
+        assertEquals(List.of("Services", "server"), changes.get(4).getNewValue());
+
+        // Values only: no order changes
+        assertEquals(3, YamlDiff.diff((Object) a.getRoot(), b.getRoot()).size());
+    }
+
+    @Test
+    @DisplayName("Comment changes are reported per key")
+    void testComments() {
+        Yamlrt a = Yamlrt.load(CONFIG);
+        Yamlrt b = Yamlrt.load(CONFIG
+                .replace("# bind address", "# listen address")
+                .replace("  port: 8080\n", "  # main port\n  port: 8080\n"));
+
+        List<YamlDiff.Change> changes = YamlDiff.diff(a.getRoot(), b.getRoot());
+
+        assertEquals(List.of("COMMENT_CHANGED server.host", "COMMENT_CHANGED server.port"), describe(changes));
+        assertEquals(List.of("bind address"), changes.get(0).getOldValue());
+        assertEquals(List.of("listen address"), changes.get(0).getNewValue());
+        assertNull(changes.get(1).getOldValue());
+        assertTrue(YamlDiff.diff(a.getRoot(), b.getRoot(), DiffOptions.structural().comments(false)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("List items are matched by a key field")
+    void testListKey() {
+        Yamlrt a = Yamlrt.load(CONFIG);
+        Yamlrt b = Yamlrt.load("""
+# Server settings
+server:
+  host: localhost    # bind address
+  port: 8080
+Services:
+  - ServiceName: 2B
+  - ServiceName: 1A1
+    Airline: [7C, AC]
+  - ServiceName: 3C
+""");
+
+        DiffOptions byName = DiffOptions.structural().listKey("ServiceName");
+        List<YamlDiff.Change> changes = YamlDiff.diff(a.getRoot(), b.getRoot(), byName);
+
+        assertEquals(List.of("REMOVED Services[1]", "ADDED Services[2]", "REORDERED Services"), describe(changes));
+        assertEquals("1E", ((Map<?, ?>) changes.get(0).getOldValue()).get("ServiceName"));
+        assertEquals(List.of("1A1", "2B"), changes.get(2).getOldValue());
+        assertEquals(List.of("2B", "1A1"), changes.get(2).getNewValue());
+
+        // By index every item differs
+        assertTrue(YamlDiff.diff(a.getRoot(), b.getRoot()).size() > 3);
+    }
+
+    @Test
+    @DisplayName("Lists that cannot be keyed fall back to index matching")
+    void testListKeyFallback() {
+        Yamlrt a = Yamlrt.load("tags: [a, b]\nitems:\n  - name: x\n  - name: x\n");
+        Yamlrt b = Yamlrt.load("tags: [a, c]\nitems:\n  - name: x\n  - name: y\n");
+
+        List<YamlDiff.Change> changes = YamlDiff.diff(a.getRoot(), b.getRoot(), DiffOptions.values().listKey("name"));
+
+        assertEquals(List.of("MODIFIED tags[1]", "MODIFIED items[1].name"), describe(changes));
+    }
+
+    @Test
+    @DisplayName("Large documents: only the edited path is reported")
+    void testLargeDocument() {
+        StringBuilder sb = new StringBuilder("Services:\n");
+        for (int i = 0; i < 5000; i++) {
+            sb.append("  - ServiceName: S").append(i).append("   # service ").append(i).append('\n');
+            sb.append("    Routes: [ICN, NRT]\n");
+        }
+        Yamlrt a = Yamlrt.load(sb.toString());
+        Yamlrt b = Yamlrt.load(sb.toString());
+        b.set("Services[4321].Routes[1]", "KIX");
+
+        List<YamlDiff.Change> changes = YamlDiff.diff(a.getRoot(), b.getRoot());
+
+        assertEquals(List.of("MODIFIED Services[4321].Routes[1]"), describe(changes));
+    }
+}
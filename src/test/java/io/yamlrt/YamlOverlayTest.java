@@ -0,0 +1,136 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * Layered documents resolved top down (YamlOverlay)
+ */
+public class YamlOverlayTest {
+
+    private static final String BASE = """
+# Base settings
+server:
+  host: localhost    # bind address
+  port: 8080
+database:
+  url: jdbc:h2:mem
+  pool: 10
+features: [a, b]
+""";
+
+    private static final String PRODUCTION = """
+server:
+  # production port
+  port: 443
+features: [c]
+""";
+
+    private static final String HOST = """
+server:
+  host: 10.0.0.7
+logging: debug
+""";
+
+    @Test
+    @DisplayName("Topmost layer wins; mappings merge, lists replace")
+    void testResolution() {
+        YamlOverlay config = YamlOverlay.of(Yamlrt.load(BASE), Yamlrt.load(PRODUCTION), Yamlrt.load(HOST));
+
+        assertEquals("10.0.0.7", config.getString("server.host"));
+        assertEquals(443, config.getInt("server.port"));
+        assertEquals(10, config.getInt("database.pool"));
+        assertEquals(List.of("c"), config.getList("features"));
+        assertEquals("debug", config.getString("logging"));
+        assertNull(config.get("server.missing"));
+        assertNull(config.get("logging.level"));
+    }
+
+    @Test
+    @DisplayName("Values from one layer are that layer's nodes, not copies")
+    void testNoCopies() {
+        Yamlrt base = Yamlrt.load(BASE);
+        Yamlrt production = Yamlrt.load(PRODUCTION);
+        YamlOverlay config = YamlOverlay.of(base, production);
+
+        assertSame(base.get("database"), config.get("database"));
+        assertSame(production.get("features"), config.get("features"));
+        assertSame(base.get("database"), config.getRoot().get("database"));
+        assertNotSame(base.get("server"), config.get("server"));
+        assertSame(config.get("server"), config.getRoot().get("server"));
+    }
+
+    @Test
+    @DisplayName("Dump keeps the comments of the contributing layers")
+    void testDump() {
+        YamlOverlay config = YamlOverlay.of(Yamlrt.load(BASE), Yamlrt.load(PRODUCTION), Yamlrt.load(HOST));
+
+        assertEquals("""
+# Base settings
+server:
+  host: 10.0.0.7     # bind address
+  # production port
+  port: 443
+database:
+  url: jdbc:h2:mem
+  pool: 10
+features: [c]
+logging: debug
+""", config.dump());
+        assertEquals(BASE, YamlOverlay.of(Yamlrt.load(BASE)).dump());
+    }
+
+    @Test
+    @DisplayName("Edits of any layer are visible; only edited merged paths are rebuilt")
+    void testEdits() {
+        Yamlrt base = Yamlrt.load(BASE);
+        Yamlrt production = Yamlrt.load(PRODUCTION);
+        YamlOverlay config = YamlOverlay.of(base, production);
+        Object server = config.get("server");
+        String before = config.dump();
+
+        base.set("database.pool", 20);
+        assertEquals(20, config.getInt("database.pool"));
+        assertSame(server, config.get("server"));
+
+        base.set("server.timeout", 30);
+        assertEquals(30, config.getInt("server.timeout"));
+        assertNotSame(server, config.get("server"));
+        assertTrue(config.dump().contains("  timeout: 30\n"));
+
+        production.remove("server.port");
+        assertEquals(8080, config.getInt("server.port"));
+
+        base.setRoot(Yamlrt.load("server:\n  port: 1\n").getRoot());
+        assertNull(config.get("database"));
+        assertEquals(List.of("c"), config.getList("features"));
+        assertNotEquals(before, config.dump());
+    }
+
+    @Test
+    @DisplayName("Precomputed flat index follows edits")
+    void testPrecompute() {
+        Yamlrt base = Yamlrt.load(BASE);
+        Yamlrt host = Yamlrt.load(HOST);
+        YamlOverlay config = YamlOverlay.of(base, host).precompute();
+
+        assertEquals("10.0.0.7", config.getString("server.host"));
+        assertEquals("b", config.getString("features[1]"));
+        assertNotNull(config.get("database"));
+        assertEquals("b", config.getString("features.[1]"));
+        assertEquals("10.0.0.7", config.getString(".server.host"));
+        assertNull(config.get("server.missing"));
+
+        host.set("server.host", "10.0.0.8");
+        assertEquals("10.0.0.8", config.getString("server.host"));
+
+        config.close();
+        host.set("server.host", "10.0.0.9");
+        assertEquals("10.0.0.8", config.getString("server.host"));
+        config.invalidate();
+        assertEquals("10.0.0.9", config.getString("server.host"));
+    }
+}
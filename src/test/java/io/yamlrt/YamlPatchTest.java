@@ -0,0 +1,154 @@
+package io.yamlrt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+/**
+ * JSON Patch and merge patch applied on the commented tree
+ */
+public class YamlPatchTest {
+
+    private static final String CONFIG = """
+# Server settings
+server:
+  host: localhost    # bind address
+
+  port: 8080
+Services:
+  # first service
+  - ServiceName: 1A1
+  # second service
+  - ServiceName: 1E
+""";
+
+    private static Map<String, Object> op(String op, String path, Object value) {
+        Map<String, Object> operation = new LinkedHashMap<>();
+        operation.put("op", op);
+        operation.put("path", path);
+        if (value != null) operation.put("value", value);
+        return operation;
+    }
+
+    private static Map<String, Object> move(String op, String from, String path) {
+        Map<String, Object> operation = new LinkedHashMap<>();
+        operation.put("op", op);
+        operation.put("from", from);
+        operation.put("path", path);
+        return operation;
+    }
+
+    @Test
+    @DisplayName("JSON Patch keeps comments and blank lines on untouched keys")
+    void testReplaceKeepsComments() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        List<List<String>> notified = new ArrayList<>();
+        yaml.addChangeListener(notified::add);
+
+        yaml.applyJsonPatch(List.of(
+                op("replace", "/server/port", 9090),
+                op("add", "/server/timeout", 30),
+                op("test", "/server/timeout", 30.0)));
+
+        assertEquals(CONFIG.replace("8080", "9090").replace("  port: 9090\n", "  port: 9090\n  timeout: 30\n"),
+                yaml.dump());
+        assertEquals(List.of(List.of("server.port", "server.timeout")), notified);
+    }
+
+    @Test
+    @DisplayName("List insert and remove shift item comments")
+    void testListSlots() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+
+        yaml.applyJsonPatch(List.of(op("add", "/Services/0", Map.of("ServiceName", "0Z"))));
+        String dump = yaml.dump();
+        assertTrue(dump.contains("  - ServiceName: 0Z\n  # first service\n  - ServiceName: 1A1\n"), dump);
+
+        yaml.applyJsonPatch(List.of(op("remove", "/Services/1", null)));
+        dump = yaml.dump();
+        assertTrue(dump.contains("  - ServiceName: 0Z\n  # second service\n  - ServiceName: 1E\n"), dump);
+        assertFalse(dump.contains("# first service"), dump);
+    }
+
+    @Test
+    @DisplayName("Move carries the comment of the moved item")
+    void testMoveCarriesComment() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+
+        yaml.applyJsonPatch(List.of(move("move", "/Services/1", "/Services/0")));
+
+        String dump = yaml.dump();
+        assertTrue(dump.contains("  # second service\n  - ServiceName: 1E\n  # first service\n  - ServiceName: 1A1\n"), dump);
+    }
+
+    @Test
+    @DisplayName("Failed operation rolls back the whole patch")
+    void testRollback() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.enableVersioning(10);
+        int version = yaml.currentVersion();
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> yaml.applyJsonPatch(List.of(
+                op("remove", "/server/host", null),
+                op("add", "/Services/0", "x"),
+                move("move", "/server/port", "/port"),
+                op("test", "/Services/1/ServiceName", "nope"))));
+        assertTrue(e.getMessage().contains("operation 3"), e.getMessage());
+
+        assertEquals(CONFIG, yaml.dump());
+        assertEquals(version, yaml.currentVersion());
+
+        assertThrows(IllegalArgumentException.class, () -> yaml.applyJsonPatch(List.of(op("remove", "/Services/5", null))));
+        assertThrows(IllegalArgumentException.class, () -> yaml.applyJsonPatch(List.of(op("replace", "/missing", 1))));
+        assertThrows(IllegalArgumentException.class, () -> yaml.applyJsonPatch(List.of(op("frobnicate", "/server", 1))));
+        assertEquals(CONFIG, yaml.dump());
+    }
+
+    @Test
+    @DisplayName("Escaped pointers, copy and versioning")
+    void testPointerAndHistory() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        yaml.enableVersioning(10);
+        int version = yaml.currentVersion();
+
+        yaml.applyJsonPatch(List.of(
+                op("add", "/paths", new LinkedHashMap<>()),
+                op("add", "/paths/a~1b~0c", 1),
+                move("copy", "/Services/0", "/Services/-")));
+
+        assertEquals(1L, ((Number) ((Map<?, ?>) yaml.get("paths")).get("a/b~c")).longValue());
+        assertEquals(3, yaml.getList("Services").size());
+        assertEquals(version + 1, yaml.currentVersion());
+        assertEquals(3, ((List<?>) yaml.version(version + 1).get("Services")).size());
+    }
+
+    @Test
+    @DisplayName("Merge patch removes, merges and replaces in one walk")
+    void testMergePatch() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        List<List<String>> notified = new ArrayList<>();
+        yaml.addChangeListener(notified::add);
+
+        Map<String, Object> server = new LinkedHashMap<>();
+        server.put("host", "localhost");
+        server.put("port", null);
+        server.put("tls", Map.of("enabled", true));
+        Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("server", server);
+        patch.put("Services", List.of("only"));
+
+        yaml.applyMergePatch(patch);
+
+        String dump = yaml.dump();
+        assertTrue(dump.startsWith("# Server settings\nserver:\n  host: localhost    # bind address\n"), dump);
+        assertFalse(dump.contains("port"), dump);
+        assertTrue(yaml.getBoolean("server.tls.enabled"));
+        assertEquals(List.of("only"), yaml.getList("Services"));
+        assertEquals(List.of(List.of("server.port", "server.tls", "Services")), notified);
+
+        yaml.applyMergePatch(Map.of("server", Map.of("host", "localhost")));
+        assertEquals(1, notified.size());
+    }
+}
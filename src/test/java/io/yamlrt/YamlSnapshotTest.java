@@ -0,0 +1,132 @@
+package io.yamlrt;
+
+import io.yamlrt.core.CommentedList;
+import io.yamlrt.core.CommentedMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Frozen snapshots and copy-on-write builder
+ */
+public class YamlSnapshotTest {
+
+    private static final String CONFIG = """
+# Main config
+server:
+  host: localhost    # bind address
+  port: 8080
+database:
+  url: jdbc:test
+  pool:
+    size: 10
+Services:
+- ServiceName: 1A1
+# second
+- ServiceName: 1E
+""";
+
+    @Test
+    @DisplayName("Snapshot is independent from the live document")
+    void testFreezeIsolation() {
+        Yamlrt yaml = Yamlrt.load(CONFIG);
+        YamlSnapshot snapshot = yaml.freeze();
+
+        yaml.set("server.port", 9090);
+
+        assertEquals(8080, snapshot.getInt("server.port"));
+        assertEquals(9090, yaml.getInt("server.port"));
+        assertEquals(Yamlrt.roundTrip(CONFIG), snapshot.dump());
+    }
+
+    @Test
+    @DisplayName("Snapshot tree and comments are read-only")
+    @SuppressWarnings("unchecked")
+    void testReadOnly() {
+        YamlSnapshot snapshot = Yamlrt.load(CONFIG).freeze();
+        CommentedMap<String, Object> root = snapshot.getRoot();
+        CommentedMap<String, Object> server = (CommentedMap<String, Object>) root.get("server");
+        CommentedList<Object> services = (CommentedList<Object>) root.get("Services");
+
+        assertThrows(UnsupportedOperationException.class, () -> root.put("x", 1));
+        assertThrows(UnsupportedOperationException.class, () -> server.remove("host"));
+        assertThrows(UnsupportedOperationException.class, () -> server.entrySet().clear());
+        assertThrows(UnsupportedOperationException.class, () -> services.add("x"));
+        assertThrows(UnsupportedOperationException.class, () -> {
+            Iterator<Object> it = services.iterator();
+            it.next();
+            it.remove();
+        });
+        assertThrows(UnsupportedOperationException.class, () -> server.setEolComment("port", "x"));
+        assertThrows(UnsupportedOperationException.class, () -> server.ca().getSlot("host").getValueEol().setValue("# x"));
+    }
+
+    @Test
+    @DisplayName("Builder copies only the edited path")
+    void testBuilderSharesUnchangedSubtrees() {
+        YamlSnapshot v1 = Yamlrt.load(CONFIG).freeze();
+        YamlSnapshot v2 = v1.toBuilder()
+                .set("server.port", 9090)
+                .set("server.tls", true)
+                .remove("Services[0]")
+                .build();
+
+        assertEquals(8080, v1.getInt("server.port"));
+        assertEquals(9090, v2.getInt("server.port"));
+        assertTrue(v2.getBoolean("server.tls"));
+        assertEquals("1E", v2.getString("Services[0].ServiceName"));
+        assertEquals("1A1", v1.getString("Services[0].ServiceName"));
+
+        assertNotSame(v1.getRoot(), v2.getRoot());
+        assertNotSame(v1.get("server"), v2.get("server"));
+        assertSame(v1.get("database"), v2.get("database"));
+        assertSame(v1.get("database.pool"), v2.get("database.pool"));
+
+        assertTrue(v2.dump().contains("host: localhost    # bind address"));
+        assertTrue(v2.dump().contains("# second\n- ServiceName: 1E"));
+    }
+
+    @Test
+    @DisplayName("Builder does not alias caller values")
+    void testBuilderCopiesValues() {
+        YamlSnapshot v1 = Yamlrt.load(CONFIG).freeze();
+        List<Object> airlines = new ArrayList<>(List.of("7C", "AC"));
+        YamlSnapshot v2 = v1.toBuilder().set("Services[0].Airline", airlines).build();
+
+        airlines.add("KE");
+
+        assertEquals(2, v2.getList("Services[0].Airline").size());
+        assertThrows(UnsupportedOperationException.class, () -> v2.getList("Services[0].Airline").add("KE"));
+        assertSame(v1, v1.toBuilder().remove("missing.path").build());
+    }
+
+    @Test
+    @DisplayName("AtomicSnapshot publishes concurrent updates without losing any")
+    void testAtomicUpdates() throws Exception {
+        AtomicSnapshot config = new AtomicSnapshot(Yamlrt.load(CONFIG).freeze());
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    int n = i;
+                    config.update(b -> b.set("counters.t" + thread, n));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        YamlSnapshot last = config.get();
+        for (int t = 0; t < 4; t++) {
+            assertEquals(99, last.getInt("counters.t" + t));
+        }
+        assertEquals(8080, last.getInt("server.port"));
+    }
+}